@@ -35,6 +35,8 @@ import org.apache.log4j.spi.AppenderAttachable;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.log4j.spi.LoggerRepository;
 import org.apache.log4j.spi.HierarchyEventListener;
+import org.apache.log4j.spi.TurboFilter;
+import org.apache.log4j.spi.TurboFilterSupport;
 import org.apache.log4j.helpers.NullEnumeration;
 import org.apache.log4j.helpers.AppenderAttachableImpl;
 
@@ -193,7 +195,7 @@ public class Category implements AppenderAttachable {
     public void debug(Object message) {
         if (repository.isDisabled(Level.DEBUG_INT))
             return;
-        if (Level.DEBUG.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(Level.DEBUG, message, null)) {
             forcedLog(FQCN, Level.DEBUG, message, null);
         }
     }
@@ -212,7 +214,7 @@ public class Category implements AppenderAttachable {
     public void debug(Object message, Throwable t) {
         if (repository.isDisabled(Level.DEBUG_INT))
             return;
-        if (Level.DEBUG.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.DEBUG, message, t))
             forcedLog(FQCN, Level.DEBUG, message, t);
     }
 
@@ -238,7 +240,7 @@ public class Category implements AppenderAttachable {
     public void error(Object message) {
         if (repository.isDisabled(Level.ERROR_INT))
             return;
-        if (Level.ERROR.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.ERROR, message, null))
             forcedLog(FQCN, Level.ERROR, message, null);
     }
 
@@ -255,7 +257,7 @@ public class Category implements AppenderAttachable {
     public void error(Object message, Throwable t) {
         if (repository.isDisabled(Level.ERROR_INT))
             return;
-        if (Level.ERROR.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.ERROR, message, t))
             forcedLog(FQCN, Level.ERROR, message, t);
 
     }
@@ -297,7 +299,7 @@ public class Category implements AppenderAttachable {
     public void fatal(Object message) {
         if (repository.isDisabled(Level.FATAL_INT))
             return;
-        if (Level.FATAL.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.FATAL, message, null))
             forcedLog(FQCN, Level.FATAL, message, null);
     }
 
@@ -314,7 +316,7 @@ public class Category implements AppenderAttachable {
     public void fatal(Object message, Throwable t) {
         if (repository.isDisabled(Level.FATAL_INT))
             return;
-        if (Level.FATAL.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.FATAL, message, t))
             forcedLog(FQCN, Level.FATAL, message, t);
     }
 
@@ -581,7 +583,7 @@ public class Category implements AppenderAttachable {
     public void info(Object message) {
         if (repository.isDisabled(Level.INFO_INT))
             return;
-        if (Level.INFO.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.INFO, message, null))
             forcedLog(FQCN, Level.INFO, message, null);
     }
 
@@ -598,7 +600,7 @@ public class Category implements AppenderAttachable {
     public void info(Object message, Throwable t) {
         if (repository.isDisabled(Level.INFO_INT))
             return;
-        if (Level.INFO.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.INFO, message, t))
             forcedLog(FQCN, Level.INFO, message, t);
     }
 
@@ -650,7 +652,7 @@ public class Category implements AppenderAttachable {
     public boolean isDebugEnabled() {
         if (repository.isDisabled(Level.DEBUG_INT))
             return false;
-        return Level.DEBUG.isGreaterOrEqual(this.getEffectiveLevel());
+        return isEnabled(Level.DEBUG, null, null);
     }
 
     /**
@@ -664,6 +666,49 @@ public class Category implements AppenderAttachable {
     public boolean isEnabledFor(Priority level) {
         if (repository.isDisabled(level.level))
             return false;
+        return isEnabled(level, null, null);
+    }
+
+    /**
+     * Like {@link #isEnabledFor(Priority)}, but lets the turbo filters
+     * see the message and throwable of the request. Used by {@link
+     * LogMF}, {@link LogSF} and {@link LogXF}, which pass the pattern
+     * before it is formatted.
+     *
+     * @since 1.2.18
+     */
+    final boolean isEnabledFor(Priority level, Object message, Throwable t) {
+        if (repository.isDisabled(level.level))
+            return false;
+        return isEnabled(level, message, t);
+    }
+
+    /**
+     * Decides whether a request for <code>level</code> should be
+     * logged. The turbo filters of the repository, if any, are consulted
+     * first, then the effective level of this category. The threshold of
+     * the repository must have been checked by the caller.
+     *
+     * @param level   level of the request.
+     * @param message message of the request, may be null.
+     * @param t       throwable of the request, may be null.
+     * @return true if the request should be logged.
+     * @since 1.2.18
+     */
+    final boolean isEnabled(Priority level, Object message, Throwable t) {
+        if (repository instanceof TurboFilterSupport) {
+            TurboFilter filter = ((TurboFilterSupport) repository).getTurboFilter();
+            while (filter != null) {
+                switch (filter.decide(this, level, message, t)) {
+                    case TurboFilter.DENY:
+                        return false;
+                    case TurboFilter.ACCEPT:
+                        return true;
+                    default:
+                        filter = filter.getNext();
+                }
+            }
+        }
         return level.isGreaterOrEqual(this.getEffectiveLevel());
     }
 
@@ -677,7 +722,7 @@ public class Category implements AppenderAttachable {
     public boolean isInfoEnabled() {
         if (repository.isDisabled(Level.INFO_INT))
             return false;
-        return Level.INFO.isGreaterOrEqual(this.getEffectiveLevel());
+        return isEnabled(Level.INFO, null, null);
     }
 
 
@@ -693,7 +738,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(priority.level)) {
             return;
         }
-        if (priority.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(priority, key, t)) {
             String msg = getResourceBundleString(key);
             // if message corresponding to 'key' could not be found in the
             // resource bundle, then default to 'key'.
@@ -717,7 +762,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(priority.level)) {
             return;
         }
-        if (priority.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(priority, key, t)) {
             String pattern = getResourceBundleString(key);
             String msg;
             if (pattern == null)
@@ -735,7 +780,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(priority.level)) {
             return;
         }
-        if (priority.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(priority, message, t))
             forcedLog(FQCN, priority, message, t);
     }
 
@@ -746,7 +791,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(priority.level)) {
             return;
         }
-        if (priority.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(priority, message, null))
             forcedLog(FQCN, priority, message, null);
     }
 
@@ -763,7 +808,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(level.level)) {
             return;
         }
-        if (level.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(level, message, t)) {
             forcedLog(callerFQCN, level, message, t);
         }
     }
@@ -945,7 +990,7 @@ public class Category implements AppenderAttachable {
         if (repository.isDisabled(Level.WARN_INT))
             return;
 
-        if (Level.WARN.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.WARN, message, null))
             forcedLog(FQCN, Level.WARN, message, null);
     }
 
@@ -962,7 +1007,7 @@ public class Category implements AppenderAttachable {
     public void warn(Object message, Throwable t) {
         if (repository.isDisabled(Level.WARN_INT))
             return;
-        if (Level.WARN.isGreaterOrEqual(this.getEffectiveLevel()))
+        if (isEnabled(Level.WARN, message, t))
             forcedLog(FQCN, Level.WARN, message, t);
     }
 }
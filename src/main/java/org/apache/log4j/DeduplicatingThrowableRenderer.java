@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j;
+
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.helpers.OptionConverter;
+import org.apache.log4j.spi.OptionHandler;
+import org.apache.log4j.spi.ThrowableRenderer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ThrowableRenderer that renders each distinct stack trace in full only
+ * once per time window.
+ *
+ * <p>A fingerprint is computed from the class of the throwable and of
+ * its causes and from their stack frames, leaving out the messages. The
+ * first occurrence of a fingerprint within the window is rendered by
+ * the delegate renderer followed by a <code>[stack #&lt;hash&gt;]</code>
+ * line. Later occurrences within the window are rendered as the first
+ * line of the throwable followed by
+ * <code>[stack #&lt;hash&gt; seen N times]</code>, where N counts all
+ * occurrences since the fingerprint was first tracked, not only those
+ * of the current window.
+ *
+ * <p>The renderer is enabled per repository:
+ * <pre>
+ * log4j.throwableRenderer=org.apache.log4j.DeduplicatingThrowableRenderer
+ * log4j.throwableRenderer.Window=60000
+ * log4j.throwableRenderer.Renderer=org.apache.log4j.EnhancedThrowableRenderer
+ * log4j.throwableRenderer.JmxName=log4j:type=ThrowableRenderer
+ * </pre>
+ *
+ * <p><b>Window</b> is in milliseconds and defaults to one minute.
+ * <b>Renderer</b> names the delegate, {@link DefaultThrowableRenderer}
+ * by default. <b>MaxFingerprints</b> bounds the number of tracked
+ * traces; all are forgotten when it is reached. When <b>JmxName</b> is
+ * set, the renderer registers itself under that name with the platform
+ * MBean server, replacing the renderer of a previous configuration. It
+ * is unregistered when the repository is reset or given another
+ * throwable renderer.
+ *
+ * @since 1.2.18
+ */
+public final class DeduplicatingThrowableRenderer
+        implements ThrowableRenderer, OptionHandler, Closeable,
+        DeduplicatingThrowableRendererMBean {
+
+    private static final int MAX_CAUSES = 32;
+
+    /**
+     * Renderers registered with the MBean server, by object name.
+     */
+    private static final Map REGISTERED = new HashMap();
+
+    private volatile long window = 60000;
+    private int maxFingerprints = 1024;
+    private String rendererClass;
+    private String jmxName;
+
+    private ThrowableRenderer renderer = new DefaultThrowableRenderer();
+    private final ConcurrentHashMap fingerprints = new ConcurrentHashMap();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * Construct new instance.
+     */
+    public DeduplicatingThrowableRenderer() {
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public int getMaxFingerprints() {
+        return maxFingerprints;
+    }
+
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public String getRenderer() {
+        return rendererClass;
+    }
+
+    public void setRenderer(String rendererClass) {
+        this.rendererClass = rendererClass;
+    }
+
+    public String getJmxName() {
+        return jmxName;
+    }
+
+    public void setJmxName(String jmxName) {
+        this.jmxName = jmxName;
+    }
+
+    /**
+     * Instantiates the delegate renderer and registers the MBean.
+     */
+    public void activateOptions() {
+        if (rendererClass != null) {
+            ThrowableRenderer delegate = (ThrowableRenderer)
+                    OptionConverter.instantiateByClassName(rendererClass,
+                            ThrowableRenderer.class, null);
+            if (delegate != null) {
+                if (delegate instanceof OptionHandler) {
+                    ((OptionHandler) delegate).activateOptions();
+                }
+                renderer = delegate;
+            }
+        }
+        if (jmxName != null) {
+            try {
+                ObjectName name = new ObjectName(jmxName);
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                synchronized (REGISTERED) {
+                    if (server.isRegistered(name)) {
+                        server.unregisterMBean(name);
+                    }
+                    server.registerMBean(this, name);
+                    REGISTERED.put(name, this);
+                }
+            } catch (JMException ex) {
+                LogLog.error("Could not register throwable renderer as [" + jmxName + "].", ex);
+            } catch (RuntimeException ex) {
+                LogLog.error("Could not register throwable renderer as [" + jmxName + "].", ex);
+            }
+        }
+    }
+
+    /**
+     * Unregisters this renderer from the MBean server unless another
+     * renderer has replaced it there. Called by {@link Hierarchy} when
+     * it stops using this renderer.
+     */
+    public void close() {
+        if (jmxName == null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(jmxName);
+            synchronized (REGISTERED) {
+                if (REGISTERED.get(name) == this) {
+                    REGISTERED.remove(name);
+                    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                    if (server.isRegistered(name)) {
+                        server.unregisterMBean(name);
+                    }
+                }
+            }
+        } catch (JMException ex) {
+            LogLog.error("Could not unregister throwable renderer [" + jmxName + "].", ex);
+        } catch (RuntimeException ex) {
+            LogLog.error("Could not unregister throwable renderer [" + jmxName + "].", ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String[] doRender(final Throwable throwable) {
+        long fingerprint = fingerprint(throwable);
+        Long key = new Long(fingerprint);
+        long now = System.currentTimeMillis();
+
+        Occurrences occurrences = (Occurrences) fingerprints.get(key);
+        if (occurrences == null) {
+            if (fingerprints.size() >= maxFingerprints) {
+                fingerprints.clear();
+            }
+            String[] lines = renderer.doRender(throwable);
+            occurrences = new Occurrences(now, (lines.length > 0) ? lines[0] : "");
+            if (fingerprints.putIfAbsent(key, occurrences) == null) {
+                return withReference(lines, fingerprint);
+            }
+            occurrences = (Occurrences) fingerprints.get(key);
+            if (occurrences == null) {
+                return withReference(lines, fingerprint);
+            }
+        }
+
+        long total = occurrences.total.incrementAndGet();
+        long start = occurrences.windowStart.get();
+        if (now - start >= window && occurrences.windowStart.compareAndSet(start, now)) {
+            occurrences.inWindow.set(1);
+            return withReference(renderer.doRender(throwable), fingerprint);
+        }
+        occurrences.inWindow.incrementAndGet();
+        suppressed.incrementAndGet();
+        return new String[]{
+                String.valueOf(throwable),
+                "\t[stack #" + Long.toHexString(fingerprint) + " seen " + total + " times]"};
+    }
+
+    private static String[] withReference(String[] lines, long fingerprint) {
+        String[] result = new String[lines.length + 1];
+        System.arraycopy(lines, 0, result, 0, lines.length);
+        result[lines.length] = "\t[stack #" + Long.toHexString(fingerprint) + "]";
+        return result;
+    }
+
+    /**
+     * Computes a fingerprint of the classes and stack frames of
+     * <code>throwable</code> and its causes. Messages are not included,
+     * so the same failure with different details has the same
+     * fingerprint. The value is stable across virtual machines.
+     */
+    static long fingerprint(final Throwable throwable) {
+        long h = 0xcbf29ce484222325L;
+        Map visited = new IdentityHashMap();
+        Throwable t = throwable;
+        for (int depth = 0; t != null && depth < MAX_CAUSES; depth++) {
+            if (visited.put(t, t) != null) {
+                break;
+            }
+            h = mix(h, t.getClass().getName().hashCode());
+            StackTraceElement[] frames = t.getStackTrace();
+            for (int i = 0; i < frames.length; i++) {
+                StackTraceElement frame = frames[i];
+                h = mix(h, frame.getClassName().hashCode());
+                h = mix(h, frame.getMethodName().hashCode());
+                h = mix(h, frame.getLineNumber());
+            }
+            t = t.getCause();
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ value) * 0x100000001b3L;
+    }
+
+    public int getFingerprintCount() {
+        return fingerprints.size();
+    }
+
+    public String[] getFingerprints() {
+        List result = new ArrayList();
+        for (Iterator iter = fingerprints.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            Occurrences occurrences = (Occurrences) entry.getValue();
+            result.add("#" + Long.toHexString(((Long) entry.getKey()).longValue())
+                    + " seen " + occurrences.total.get()
+                    + " times (" + occurrences.inWindow.get() + " in window): "
+                    + occurrences.firstLine);
+        }
+        return (String[]) result.toArray(new String[result.size()]);
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    public void reset() {
+        fingerprints.clear();
+    }
+
+    /**
+     * Counters of one fingerprint.
+     */
+    private static final class Occurrences {
+        final AtomicLong windowStart;
+        final AtomicLong inWindow = new AtomicLong(1);
+        final AtomicLong total = new AtomicLong(1);
+        final String firstLine;
+
+        Occurrences(long windowStart, String firstLine) {
+            this.windowStart = new AtomicLong(windowStart);
+            this.firstLine = firstLine;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j;
+
+/**
+ * Management interface of {@link DeduplicatingThrowableRenderer}.
+ *
+ * @since 1.2.18
+ */
+public interface DeduplicatingThrowableRendererMBean {
+    /**
+     * Gets the length of the deduplication window in milliseconds.
+     *
+     * @return window length.
+     */
+    long getWindow();
+
+    /**
+     * Sets the length of the deduplication window in milliseconds.
+     *
+     * @param window window length.
+     */
+    void setWindow(long window);
+
+    /**
+     * Gets the number of distinct stack traces being tracked.
+     *
+     * @return number of fingerprints.
+     */
+    int getFingerprintCount();
+
+    /**
+     * Gets one line per tracked stack trace in the form
+     * "#&lt;hash&gt; seen N times (M in window): first line", where N
+     * counts all occurrences since the trace was first tracked.
+     *
+     * @return tracked fingerprints.
+     */
+    String[] getFingerprints();
+
+    /**
+     * Gets the number of throwables rendered in short form.
+     *
+     * @return number of suppressed stack traces.
+     */
+    long getSuppressedCount();
+
+    /**
+     * Forgets all fingerprints, the next occurrence of every stack trace
+     * is rendered in full.
+     */
+    void reset();
+}
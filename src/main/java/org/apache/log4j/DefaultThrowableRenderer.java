@@ -16,7 +16,7 @@
  */
 package org.apache.log4j;
 
-import org.apache.log4j.spi.ThrowableRenderer;
+import org.apache.log4j.spi.StreamingThrowableRenderer;
 
 import java.io.StringWriter;
 import java.io.PrintWriter;
@@ -24,15 +24,47 @@ import java.io.LineNumberReader;
 import java.io.StringReader;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
 
 /**
  * Default implementation of ThrowableRenderer using
  * Throwable.printStackTrace.
  *
+ * <p>The renderer can also stream the stack trace straight into the
+ * output of a layout, see {@link StreamingThrowableRenderer}.
+ *
+ * <p>When configured as the repository's throwable renderer, the
+ * <b>MaxDepth</b> option limits the number of frames written for the
+ * throwable and each of its causes, and the <b>Filters</b> option takes
+ * a comma separated list of class name prefixes, for example
+ * <code>sun.reflect.,java.lang.reflect.</code>, whose frames are
+ * replaced by a count. With either option set, the stack trace is
+ * written frame by frame instead of through printStackTrace, and
+ * suppressed exceptions are not shown.
+ *
  * @since 1.2.16
  */
-public final class DefaultThrowableRenderer implements ThrowableRenderer {
+public final class DefaultThrowableRenderer implements StreamingThrowableRenderer {
+    /**
+     * Maximum number of frames per throwable, 0 for no limit.
+     */
+    private int maxDepth;
+
+    /**
+     * Value of the Filters option.
+     */
+    private String filters;
+
+    /**
+     * Parsed class name prefixes, null when there are none.
+     */
+    private String[] filterPrefixes;
+
     /**
      * Construct new instance.
      */
@@ -40,12 +72,172 @@ public final class DefaultThrowableRenderer implements ThrowableRenderer {
 
     }
 
+    /**
+     * Sets the maximum number of frames written for the throwable and for
+     * each of its causes, 0 for no limit.
+     *
+     * @param maxDepth maximum number of frames.
+     * @since 1.2.18
+     */
+    public void setMaxDepth(final int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Gets the maximum number of frames per throwable.
+     *
+     * @return maximum number of frames, 0 for no limit.
+     * @since 1.2.18
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the comma separated list of class name prefixes of frames to
+     * leave out.
+     *
+     * @param filters prefixes, may be null.
+     * @since 1.2.18
+     */
+    public void setFilters(final String filters) {
+        this.filters = filters;
+        if (filters == null) {
+            filterPrefixes = null;
+        } else {
+            ArrayList prefixes = new ArrayList();
+            StringTokenizer st = new StringTokenizer(filters, ",");
+            while (st.hasMoreTokens()) {
+                String prefix = st.nextToken().trim();
+                if (prefix.length() > 0) {
+                    prefixes.add(prefix);
+                }
+            }
+            filterPrefixes = prefixes.isEmpty() ? null
+                    : (String[]) prefixes.toArray(new String[prefixes.size()]);
+        }
+    }
+
+    /**
+     * Gets the list of class name prefixes of frames left out.
+     *
+     * @return prefixes, may be null.
+     * @since 1.2.18
+     */
+    public String getFilters() {
+        return filters;
+    }
+
 
     /**
      * {@inheritDoc}
      */
     public String[] doRender(final Throwable throwable) {
-        return render(throwable);
+        if (maxDepth <= 0 && filterPrefixes == null) {
+            return render(throwable);
+        }
+        StringBuilder buf = new StringBuilder();
+        try {
+            render(throwable, buf, "\n");
+        } catch (IOException ex) {
+            // not thrown by StringBuilder
+        }
+        ArrayList lines = new ArrayList();
+        int start = 0;
+        for (int i = buf.indexOf("\n"); i != -1; i = buf.indexOf("\n", start)) {
+            lines.add(buf.substring(start, i));
+            start = i + 1;
+        }
+        return (String[]) lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.2.18
+     */
+    public void render(final Throwable throwable, final Appendable out,
+                       final String lineSeparator) throws IOException {
+        if (maxDepth <= 0 && filterPrefixes == null) {
+            LineWriter writer = new LineWriter(out, lineSeparator);
+            PrintWriter pw = new PrintWriter(writer);
+            try {
+                throwable.printStackTrace(pw);
+            } catch (RuntimeException ex) {
+            }
+            pw.flush();
+            writer.finish();
+        } else {
+            renderFrames(throwable, out, lineSeparator);
+        }
+    }
+
+    /**
+     * Writes the throwable and its causes frame by frame, honoring the
+     * MaxDepth and Filters options. Frames a cause has in common with
+     * the throwable it caused are counted in the "... n more" line, as
+     * printStackTrace does.
+     */
+    private void renderFrames(final Throwable throwable, final Appendable out,
+                              final String lineSeparator) throws IOException {
+        Map seen = new IdentityHashMap();
+        StackTraceElement[] enclosing = null;
+        String prefix = "";
+        for (Throwable t = throwable; t != null && seen.put(t, t) == null; t = t.getCause()) {
+            out.append(prefix).append(String.valueOf(t)).append(lineSeparator);
+
+            StackTraceElement[] frames = t.getStackTrace();
+            int m = frames.length - 1;
+            if (enclosing != null) {
+                int n = enclosing.length - 1;
+                while (m >= 0 && n >= 0 && frames[m].equals(enclosing[n])) {
+                    m--;
+                    n--;
+                }
+            }
+
+            int shown = 0;
+            int filtered = 0;
+            int i = 0;
+            for (; i <= m && (maxDepth <= 0 || shown < maxDepth); i++) {
+                if (isFiltered(frames[i])) {
+                    filtered++;
+                    continue;
+                }
+                if (filtered > 0) {
+                    out.append("\t... ").append(String.valueOf(filtered))
+                            .append(" filtered").append(lineSeparator);
+                    filtered = 0;
+                }
+                out.append("\tat ").append(frames[i].toString()).append(lineSeparator);
+                shown++;
+            }
+            if (filtered > 0) {
+                out.append("\t... ").append(String.valueOf(filtered))
+                        .append(" filtered").append(lineSeparator);
+            }
+            int more = frames.length - i;
+            if (more > 0) {
+                out.append("\t... ").append(String.valueOf(more))
+                        .append(" more").append(lineSeparator);
+            }
+
+            enclosing = frames;
+            prefix = "Caused by: ";
+        }
+    }
+
+    private boolean isFiltered(final StackTraceElement frame) {
+        String[] prefixes = filterPrefixes;
+        if (prefixes != null) {
+            String className = frame.getClassName();
+            for (int i = 0; i < prefixes.length; i++) {
+                if (className.startsWith(prefixes[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -81,4 +273,79 @@ public final class DefaultThrowableRenderer implements ThrowableRenderer {
         lines.toArray(tempRep);
         return tempRep;
     }
+
+    /**
+     * Writer that passes text on to an Appendable, replacing each line
+     * terminator with the given separator.
+     */
+    private static final class LineWriter extends Writer {
+        private final Appendable out;
+        private final String lineSeparator;
+        private boolean afterCR;
+        private boolean lineOpen;
+        private IOException failure;
+
+        LineWriter(final Appendable out, final String lineSeparator) {
+            this.out = out;
+            this.lineSeparator = lineSeparator;
+        }
+
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            appendLines(CharBuffer.wrap(cbuf), off, off + len);
+        }
+
+        public void write(final String str, final int off, final int len) throws IOException {
+            appendLines(str, off, off + len);
+        }
+
+        private void appendLines(final CharSequence s, final int start, final int end)
+                throws IOException {
+            try {
+                int runStart = start;
+                for (int i = start; i < end; i++) {
+                    char c = s.charAt(i);
+                    if (c == '\n' || c == '\r') {
+                        if (i > runStart) {
+                            out.append(s, runStart, i);
+                        }
+                        if (c == '\r' || !afterCR) {
+                            out.append(lineSeparator);
+                        }
+                        afterCR = (c == '\r');
+                        lineOpen = false;
+                        runStart = i + 1;
+                    } else {
+                        afterCR = false;
+                        lineOpen = true;
+                    }
+                }
+                if (end > runStart) {
+                    out.append(s, runStart, end);
+                }
+            } catch (IOException ex) {
+                failure = ex;
+                throw ex;
+            }
+        }
+
+        /**
+         * Terminates a last incomplete line and reports a failure of the
+         * destination, which PrintWriter would otherwise swallow.
+         */
+        void finish() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (lineOpen) {
+                out.append(lineSeparator);
+                lineOpen = false;
+            }
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
 }
@@ -17,9 +17,12 @@
 
 package org.apache.log4j;
 
+import org.apache.log4j.helpers.ByteSink;
 import org.apache.log4j.helpers.OptionConverter;
 import org.apache.log4j.helpers.PatternConverter;
+import org.apache.log4j.helpers.ThreadLocalStringBuilder;
 import org.apache.log4j.pattern.BridgePatternConverter;
+import org.apache.log4j.spi.ByteLayout;
 import org.apache.log4j.spi.LoggingEvent;
 
 
@@ -416,7 +419,7 @@ import org.apache.log4j.spi.LoggingEvent;
  * @author Ceki G&uuml;lc&uuml;
  * @since 1.2.16
  */
-public class EnhancedPatternLayout extends Layout {
+public class EnhancedPatternLayout extends Layout implements ByteLayout {
     /**
      * Default pattern string for log output. Currently set to the
      * string <b>"%m%n"</b> which just prints the application supplied
@@ -452,10 +455,16 @@ public class EnhancedPatternLayout extends Layout {
     public static final String PATTERN_RULE_REGISTRY = "PATTERN_RULE_REGISTRY";
 
 
+    /**
+     * Per thread buffers events are formatted into.
+     */
+    private final ThreadLocalStringBuilder buffers =
+            new ThreadLocalStringBuilder(256, 1024);
+
     /**
      * Initial converter for pattern.
      */
-    private PatternConverter head;
+    private volatile PatternConverter head;
 
     /**
      * Conversion pattern.
@@ -547,13 +556,39 @@ public class EnhancedPatternLayout extends Layout {
      * @param event logging event to be formatted.
      */
     public String format(final LoggingEvent event) {
-        StringBuffer buf = new StringBuffer();
+        StringBuilder buf = buffers.acquire();
+        try {
+            formatTo(buf, event);
+            return buf.toString();
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    /**
+     * Encodes a logging event into a byte sink without creating an
+     * intermediate String.
+     *
+     * @param event logging event to be formatted.
+     * @param sink  destination.
+     * @since 1.2.18
+     */
+    public void format(final LoggingEvent event, final ByteSink sink) {
+        StringBuilder buf = buffers.acquire();
+        try {
+            formatTo(buf, event);
+            sink.append(buf);
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    private void formatTo(final StringBuilder buf, final LoggingEvent event) {
         for (PatternConverter c = head;
              c != null;
              c = c.next) {
             c.format(buf, event);
         }
-        return buf.toString();
     }
 
     /**
@@ -16,14 +16,16 @@
  */
 package org.apache.log4j;
 
+import org.apache.log4j.helpers.BoundedCache;
 import org.apache.log4j.spi.ThrowableRenderer;
 
 import java.io.File;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.security.CodeSource;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Enhanced implementation of ThrowableRenderer.  Uses Throwable.getStackTrace
@@ -42,6 +44,19 @@ public final class EnhancedThrowableRenderer implements ThrowableRenderer {
      */
     private Method getClassNameMethod;
 
+    /**
+     * Maximum number of classes whose details are kept per class loader.
+     */
+    private static final int MAX_CLASS_DETAILS = 2048;
+
+    /**
+     * Map of context class loader to a cache of class name to
+     * "[location:version]" details. Shared by all instances; the weak keys
+     * let the details go away with the class loader.
+     */
+    private static final Map CLASS_DETAILS =
+            Collections.synchronizedMap(new WeakHashMap());
+
 
     /**
      * Construct new instance.
@@ -66,7 +81,7 @@ public final class EnhancedThrowableRenderer implements ThrowableRenderer {
                 Object[] elements = (Object[]) getStackTraceMethod.invoke(throwable, noArgs);
                 String[] lines = new String[elements.length + 1];
                 lines[0] = throwable.toString();
-                Map classMap = new HashMap();
+                BoundedCache classMap = getClassDetails();
                 for (int i = 0; i < elements.length; i++) {
                     lines[i + 1] = formatElement(elements[i], classMap);
                 }
@@ -77,14 +92,33 @@ public final class EnhancedThrowableRenderer implements ThrowableRenderer {
         return DefaultThrowableRenderer.render(throwable);
     }
 
+    /**
+     * Gets the class details resolved so far for the context class loader
+     * of the current thread, which is the first used to find classes.
+     *
+     * @return cache of class name to details.
+     */
+    private static BoundedCache getClassDetails() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        synchronized (CLASS_DETAILS) {
+            BoundedCache details = (BoundedCache) CLASS_DETAILS.get(loader);
+            if (details == null) {
+                details = new BoundedCache(MAX_CLASS_DETAILS);
+                CLASS_DETAILS.put(loader, details);
+            }
+            return details;
+        }
+    }
+
     /**
      * Format one element from stack trace.
      *
      * @param element  element, may not be null.
-     * @param classMap map of class name to location.
+     * @param classMap cache of class name to location, empty for classes
+     *                 that could not be found.
      * @return string representation of element.
      */
-    private String formatElement(final Object element, final Map classMap) {
+    private String formatElement(final Object element, final BoundedCache classMap) {
         StringBuffer buf = new StringBuffer("\tat ");
         buf.append(element);
         try {
@@ -93,7 +127,15 @@ public final class EnhancedThrowableRenderer implements ThrowableRenderer {
             if (classDetails != null) {
                 buf.append(classDetails);
             } else {
-                Class cls = findClass(className);
+                Class cls;
+                try {
+                    cls = findClass(className);
+                } catch (ClassNotFoundException ex) {
+                    //  remember the failure so the lookups are not repeated
+                    //      for every frame of generated or foreign classes
+                    classMap.put(className, "");
+                    return buf.toString();
+                }
                 int detailStart = buf.length();
                 buf.append('[');
                 try {
@@ -178,6 +178,7 @@ public class FileAppender extends WriterAppender {
      * Closes the previously opened file.
      */
     protected void closeFile() {
+        releaseByteStream();
         if (this.qw != null) {
             try {
                 this.qw.close();
@@ -299,11 +300,13 @@ public class FileAppender extends WriterAppender {
                 throw ex;
             }
         }
-        Writer fw = createWriter(ostream);
+        Writer osw = createWriter(ostream);
+        Writer fw = osw;
         if (bufferedIO) {
             fw = new BufferedWriter(fw, bufferSize);
         }
         this.setQWForFiles(fw);
+        bindByteStream(osw, bufferedIO ? bufferSize : 0);
         this.fileName = fileName;
         this.fileAppend = append;
         this.bufferedIO = bufferedIO;
@@ -17,8 +17,10 @@
 
 package org.apache.log4j;
 
+import org.apache.log4j.spi.ByteLayout;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.helpers.ByteSink;
 import org.apache.log4j.helpers.Transform;
 
 /**
@@ -31,7 +33,7 @@ import org.apache.log4j.helpers.Transform;
  *
  * @author Ceki G&uuml;lc&uuml;
  */
-public class HTMLLayout extends Layout {
+public class HTMLLayout extends Layout implements ByteLayout {
 
     protected final int BUF_SIZE = 256;
     protected final int MAX_CAPACITY = 1024;
@@ -119,6 +121,20 @@ public class HTMLLayout extends Layout {
     }
 
     public String format(LoggingEvent event) {
+        return formatBuffer(event).toString();
+    }
+
+    /**
+     * Encodes the table row for <code>event</code> directly into
+     * <code>sink</code>.
+     *
+     * @since 1.2.18
+     */
+    public void format(LoggingEvent event, ByteSink sink) {
+        sink.append(formatBuffer(event));
+    }
+
+    private StringBuffer formatBuffer(LoggingEvent event) {
 
         if (sbuf.capacity() > MAX_CAPACITY) {
             sbuf = new StringBuffer(BUF_SIZE);
@@ -183,7 +199,7 @@ public class HTMLLayout extends Layout {
             sbuf.append("</td></tr>" + Layout.LINE_SEP);
         }
 
-        return sbuf.toString();
+        return sbuf;
     }
 
     void appendThrowableAsHTML(String[] s, StringBuffer sbuf) {
@@ -33,6 +33,8 @@ import org.apache.log4j.or.ObjectRenderer;
 import org.apache.log4j.or.RendererMap;
 import org.apache.log4j.spi.*;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Vector;
@@ -57,7 +59,8 @@ import java.util.Vector;
  *
  * @author Ceki G&uuml;lc&uuml;
  */
-public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRendererSupport {
+public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRendererSupport,
+        TurboFilterSupport {
 
     private LoggerFactory defaultFactory;
     private Vector listeners;
@@ -74,6 +77,11 @@ public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRe
 
     private ThrowableRenderer throwableRenderer = null;
 
+    /**
+     * First turbo filter, read by every logging request.
+     */
+    private volatile TurboFilter turboFilter = null;
+
     /**
      * Create a new logger hierarchy.
      *
@@ -375,7 +383,8 @@ public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRe
             }
         }
         rendererMap.clear();
-        throwableRenderer = null;
+        setThrowableRenderer(null);
+        clearTurboFilters();
     }
 
     /**
@@ -397,9 +406,22 @@ public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRe
 
     /**
      * {@inheritDoc}
+     *
+     * <p>The replaced renderer is closed if it implements {@link
+     * Closeable}, so that it can release what it holds.
      */
     public void setThrowableRenderer(final ThrowableRenderer renderer) {
+        ThrowableRenderer previous = throwableRenderer;
         throwableRenderer = renderer;
+        if (previous != renderer && previous instanceof Closeable) {
+            try {
+                ((Closeable) previous).close();
+            } catch (IOException ex) {
+                LogLog.error("Could not close throwable renderer.", ex);
+            } catch (RuntimeException ex) {
+                LogLog.error("Could not close throwable renderer.", ex);
+            }
+        }
     }
 
     /**
@@ -409,6 +431,42 @@ public class Hierarchy implements LoggerRepository, RendererSupport, ThrowableRe
         return throwableRenderer;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.2.18
+     */
+    public TurboFilter getTurboFilter() {
+        return turboFilter;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.2.18
+     */
+    public synchronized void addTurboFilter(final TurboFilter filter) {
+        filter.setNext(null);
+        if (turboFilter == null) {
+            turboFilter = filter;
+        } else {
+            TurboFilter tail = turboFilter;
+            while (tail.getNext() != null) {
+                tail = tail.getNext();
+            }
+            tail.setNext(filter);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.2.18
+     */
+    public synchronized void clearTurboFilters() {
+        turboFilter = null;
+    }
+
 
     /**
      * Shutting down a hierarchy will <em>safely</em> close and remove
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j;
+
+import org.apache.log4j.helpers.ByteSink;
+import org.apache.log4j.helpers.FixedDateFormatter;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.helpers.ThreadLocalStringBuilder;
+import org.apache.log4j.helpers.Transform;
+import org.apache.log4j.spi.ByteLayout;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+/**
+ * Formats each event as one JSON object on a line of its own, the
+ * format known as JSON Lines. For example:
+ *
+ * <pre>
+ * {"timestamp":1136214245000,"level":"INFO","logger":"com.foo.Bar","thread":"main","message":"Hello"}
+ * </pre>
+ *
+ * <p>The <b>Fields</b> option lists the fields to write, in order,
+ * separated by commas. The recognized fields are <code>timestamp</code>,
+ * <code>level</code>, <code>logger</code>, <code>thread</code>,
+ * <code>message</code>, <code>ndc</code>, <code>mdc</code>,
+ * <code>location</code> and <code>throwable</code>. It defaults to
+ * {@link #DEFAULT_FIELDS}, which leaves out <code>location</code>. A field
+ * that is not listed is never computed, so location information is
+ * only extracted when asked for. The <code>ndc</code>, <code>mdc</code>
+ * and <code>throwable</code> fields are omitted from events that have
+ * none.
+ *
+ * <p>The <b>FieldNames</b> option renames fields in the output, for
+ * example <code>logger=category,message=msg</code>.
+ *
+ * <p>The <b>DateFormat</b> option selects how the timestamp is written.
+ * By default it is the number of milliseconds since 1970-01-01 UTC.
+ * It may be set to ISO8601, ABSOLUTE, DATE or one of the equivalent
+ * SimpleDateFormat patterns, for instance
+ * <code>yyyy-MM-dd'T'HH:mm:ss.SSS</code>, in which case the timestamp
+ * is written as a string in the default time zone.
+ *
+ * <p>Values are escaped as they are appended to a per-thread buffer, so
+ * the layout may be used from several threads at once. Appenders using
+ * this layout should set their encoding to UTF-8.
+ *
+ * @since 1.2.18
+ */
+public class JSONLayout extends Layout implements ByteLayout {
+
+    /**
+     * Fields written when the <b>Fields</b> option is not set.
+     */
+    public static final String DEFAULT_FIELDS =
+            "timestamp,level,logger,thread,message,ndc,mdc,throwable";
+
+    private static final int TIMESTAMP = 0;
+    private static final int LEVEL = 1;
+    private static final int LOGGER = 2;
+    private static final int THREAD = 3;
+    private static final int MESSAGE = 4;
+    private static final int NDC = 5;
+    private static final int MDC = 6;
+    private static final int LOCATION = 7;
+    private static final int THROWABLE = 8;
+
+    private static final String[] FIELD_KEYS = {
+            "timestamp", "level", "logger", "thread", "message",
+            "ndc", "mdc", "location", "throwable"};
+
+    private final ThreadLocalStringBuilder buffers =
+            new ThreadLocalStringBuilder(512, 4096);
+
+    private String fields = DEFAULT_FIELDS;
+    private String fieldNames;
+    private String dateFormat;
+
+    /**
+     * Fields in output order, replaced as a whole by activateOptions.
+     */
+    private volatile Program program;
+
+    /**
+     * Constructs a JSONLayout writing the default fields.
+     */
+    public JSONLayout() {
+        activateOptions();
+    }
+
+    /**
+     * Sets the comma separated list of fields to write.
+     */
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the value of the <b>Fields</b> option.
+     */
+    public String getFields() {
+        return fields;
+    }
+
+    /**
+     * Sets the output names of fields as a comma separated list of
+     * <code>field=name</code> pairs.
+     */
+    public void setFieldNames(String fieldNames) {
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * Returns the value of the <b>FieldNames</b> option.
+     */
+    public String getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Sets the format of the timestamp field, see the class
+     * documentation.
+     */
+    public void setDateFormat(String dateFormat) {
+        this.dateFormat = dateFormat;
+    }
+
+    /**
+     * Returns the value of the <b>DateFormat</b> option.
+     */
+    public String getDateFormat() {
+        return dateFormat;
+    }
+
+    /**
+     * Parses the <b>Fields</b>, <b>FieldNames</b> and <b>DateFormat</b>
+     * options.
+     */
+    public void activateOptions() {
+        String[] names = (String[]) FIELD_KEYS.clone();
+        if (fieldNames != null) {
+            StringTokenizer st = new StringTokenizer(fieldNames, ",");
+            while (st.hasMoreTokens()) {
+                String pair = st.nextToken();
+                int eq = pair.indexOf('=');
+                int id = (eq == -1) ? -1 : indexOf(pair.substring(0, eq).trim());
+                if (id == -1) {
+                    LogLog.warn("Ignoring invalid field name [" + pair.trim()
+                            + "] in JSONLayout.");
+                } else {
+                    names[id] = pair.substring(eq + 1).trim();
+                }
+            }
+        }
+
+        List ids = new ArrayList();
+        StringTokenizer st = new StringTokenizer(
+                (fields == null) ? DEFAULT_FIELDS : fields, ",");
+        while (st.hasMoreTokens()) {
+            String key = st.nextToken().trim();
+            int id = indexOf(key);
+            if (id == -1) {
+                LogLog.warn("Ignoring unknown field [" + key + "] in JSONLayout.");
+            } else if (!ids.contains(new Integer(id))) {
+                ids.add(new Integer(id));
+            }
+        }
+
+        FixedDateFormatter date = null;
+        if (dateFormat != null && dateFormat.length() > 0) {
+            date = FixedDateFormatter.getInstance(dateFormat, null);
+            if (date == null) {
+                LogLog.warn("Unsupported DateFormat [" + dateFormat
+                        + "] in JSONLayout, writing milliseconds instead.");
+            }
+        }
+
+        program = new Program(ids, names, date);
+    }
+
+    private static int indexOf(String key) {
+        for (int i = 0; i < FIELD_KEYS.length; i++) {
+            if (FIELD_KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the event as a JSON object followed by a line feed.
+     */
+    public String format(LoggingEvent event) {
+        StringBuilder buf = buffers.acquire();
+        try {
+            formatTo(buf, event);
+            return buf.toString();
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    /**
+     * Encodes the event as a JSON object followed by a line feed
+     * directly into <code>sink</code>.
+     */
+    public void format(LoggingEvent event, ByteSink sink) {
+        StringBuilder buf = buffers.acquire();
+        try {
+            formatTo(buf, event);
+            sink.append(buf);
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    private void formatTo(StringBuilder buf, LoggingEvent event) {
+        Program p = program;
+        int[] ids = p.ids;
+        String[] names = p.names;
+        boolean first = true;
+
+        buf.append('{');
+        for (int i = 0; i < ids.length; i++) {
+            int start = buf.length();
+            if (!first) {
+                buf.append(',');
+            }
+            buf.append(names[i]);
+
+            switch (ids[i]) {
+                case TIMESTAMP:
+                    if (p.date == null) {
+                        buf.append(event.timeStamp);
+                    } else {
+                        buf.append('"');
+                        p.date.format(event.timeStamp, buf);
+                        buf.append('"');
+                    }
+                    break;
+                case LEVEL:
+                    appendString(buf, event.getLevel().toString());
+                    break;
+                case LOGGER:
+                    appendString(buf, event.getLoggerName());
+                    break;
+                case THREAD:
+                    appendString(buf, event.getThreadName());
+                    break;
+                case MESSAGE:
+                    appendString(buf, event.getRenderedMessage());
+                    break;
+                case NDC:
+                    String ndc = event.getNDC();
+                    if (ndc == null) {
+                        buf.setLength(start);
+                        continue;
+                    }
+                    appendString(buf, ndc);
+                    break;
+                case MDC:
+                    if (!appendProperties(buf, event)) {
+                        buf.setLength(start);
+                        continue;
+                    }
+                    break;
+                case LOCATION:
+                    appendLocation(buf, event.getLocationInformation());
+                    break;
+                case THROWABLE:
+                    String[] lines = event.getThrowableStrRep();
+                    if (lines == null) {
+                        buf.setLength(start);
+                        continue;
+                    }
+                    buf.append('"');
+                    for (int j = 0; j < lines.length; j++) {
+                        if (j > 0) {
+                            buf.append("\\n");
+                        }
+                        Transform.appendEscapingJSON(buf, lines[j]);
+                    }
+                    buf.append('"');
+                    break;
+                default:
+                    break;
+            }
+            first = false;
+        }
+        buf.append("}\n");
+    }
+
+    private static void appendString(StringBuilder buf, String value) {
+        if (value == null) {
+            buf.append("null");
+        } else {
+            buf.append('"');
+            Transform.appendEscapingJSON(buf, value);
+            buf.append('"');
+        }
+    }
+
+    private static boolean appendProperties(StringBuilder buf, LoggingEvent event) {
+        Set keySet = event.getPropertyKeySet();
+        if (keySet.isEmpty()) {
+            return false;
+        }
+        buf.append('{');
+        boolean first = true;
+        for (Iterator iter = keySet.iterator(); iter.hasNext(); ) {
+            String key = String.valueOf(iter.next());
+            Object val = event.getMDC(key);
+            if (val != null) {
+                if (!first) {
+                    buf.append(',');
+                }
+                appendString(buf, key);
+                buf.append(':');
+                appendString(buf, val.toString());
+                first = false;
+            }
+        }
+        buf.append('}');
+        return true;
+    }
+
+    private static void appendLocation(StringBuilder buf, LocationInfo li) {
+        buf.append("{\"class\":");
+        appendString(buf, li.getClassName());
+        buf.append(",\"method\":");
+        appendString(buf, li.getMethodName());
+        buf.append(",\"file\":");
+        appendString(buf, li.getFileName());
+        buf.append(",\"line\":");
+        appendString(buf, li.getLineNumber());
+        buf.append('}');
+    }
+
+    /**
+     * Returns "application/json".
+     */
+    public String getContentType() {
+        return "application/json";
+    }
+
+    /**
+     * Returns false if the <code>throwable</code> field is written.
+     */
+    public boolean ignoresThrowable() {
+        int[] ids = program.ids;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == THROWABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiled form of the options.
+     */
+    private static final class Program {
+        final int[] ids;
+        final String[] names;
+        final FixedDateFormatter date;
+
+        Program(List idList, String[] fieldNames, FixedDateFormatter date) {
+            ids = new int[idList.size()];
+            names = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = ((Integer) idList.get(i)).intValue();
+                StringBuilder name = new StringBuilder();
+                appendString(name, fieldNames[ids[i]]);
+                name.append(':');
+                names[i] = name.toString();
+            }
+            this.date = date;
+        }
+    }
+}
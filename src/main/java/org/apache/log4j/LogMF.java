@@ -18,12 +18,7 @@ package org.apache.log4j;
 
 import org.apache.log4j.spi.LoggingEvent;
 
-import java.text.DateFormat;
-import java.text.MessageFormat;
-import java.text.NumberFormat;
-import java.util.Date;
 import java.util.ResourceBundle;
-import java.util.Locale;
 
 
 /**
@@ -37,6 +32,7 @@ import java.util.Locale;
  * If the pattern contains more complex conversion patterns,
  * formatting will be delegated to java.text.MessageFormatter
  * which can be substantially slower.
+ * Parsed patterns are cached and reused by later requests.
  *
  * @see org.apache.log4j.LogSF
  * @since 1.2.16
@@ -48,101 +44,6 @@ public final class LogMF extends LogXF {
     private LogMF() {
     }
 
-    /**
-     * Number format.
-     */
-    private static NumberFormat numberFormat = null;
-    /**
-     * Locale at time of last number format request.
-     */
-    private static Locale numberLocale = null;
-    /**
-     * Date format.
-     */
-    private static DateFormat dateFormat = null;
-    /**
-     * Locale at time of last date format request.
-     */
-    private static Locale dateLocale = null;
-
-    /**
-     * Format number.
-     *
-     * @param n number to format, may not be null.
-     * @return formatted value.
-     */
-    private static synchronized String formatNumber(final Object n) {
-        Locale currentLocale = Locale.getDefault();
-        if (currentLocale != numberLocale || numberFormat == null) {
-            numberLocale = currentLocale;
-            numberFormat = NumberFormat.getInstance(currentLocale);
-        }
-        return numberFormat.format(n);
-    }
-
-
-    /**
-     * Format date.
-     *
-     * @param d date, may not be null.
-     * @return formatted value.
-     */
-    private static synchronized String formatDate(final Object d) {
-        Locale currentLocale = Locale.getDefault();
-        if (currentLocale != dateLocale || dateFormat == null) {
-            dateLocale = currentLocale;
-            dateFormat = DateFormat.getDateTimeInstance(
-                    DateFormat.SHORT,
-                    DateFormat.SHORT,
-                    currentLocale);
-        }
-        return dateFormat.format(d);
-    }
-
-    /**
-     * Format a single parameter like a "{0}" formatting specifier.
-     *
-     * @param arg0 parameter, may be null.
-     * @return string representation of arg0.
-     */
-    private static String formatObject(final Object arg0) {
-        if (arg0 instanceof String) {
-            return arg0.toString();
-        } else if (arg0 instanceof Double ||
-                arg0 instanceof Float) {
-            return formatNumber(arg0);
-        } else if (arg0 instanceof Date) {
-            return formatDate(arg0);
-        }
-        return String.valueOf(arg0);
-    }
-
-
-    /**
-     * Determines if pattern contains only {n} format elements
-     * and not apostrophes.
-     *
-     * @param pattern pattern, may not be null.
-     * @return true if pattern only contains {n} format elements.
-     */
-    private static boolean isSimple(final String pattern) {
-        if (pattern.indexOf('\'') != -1) {
-            return false;
-        }
-        for (int pos = pattern.indexOf('{');
-             pos != -1;
-             pos = pattern.indexOf('{', pos + 1)) {
-            if (pos + 2 >= pattern.length() ||
-                    pattern.charAt(pos + 2) != '}' ||
-                    pattern.charAt(pos + 1) < '0' ||
-                    pattern.charAt(pos + 1) > '9') {
-                return false;
-            }
-        }
-        return true;
-
-    }
-
     /**
      * Formats arguments using MessageFormat.
      *
@@ -154,87 +55,23 @@ public final class LogMF extends LogXF {
                                  final Object[] arguments) {
         if (pattern == null) {
             return null;
-        } else if (isSimple(pattern)) {
-            String formatted[] = new String[10];
-            int prev = 0;
-            String retval = "";
-            int pos = pattern.indexOf('{');
-            while (pos >= 0) {
-                if (pos + 2 < pattern.length() &&
-                        pattern.charAt(pos + 2) == '}' &&
-                        pattern.charAt(pos + 1) >= '0' &&
-                        pattern.charAt(pos + 1) <= '9') {
-                    int index = pattern.charAt(pos + 1) - '0';
-                    retval += pattern.substring(prev, pos);
-                    if (formatted[index] == null) {
-                        if (arguments == null || index >= arguments.length) {
-                            formatted[index] = pattern.substring(pos, pos + 3);
-                        } else {
-                            formatted[index] = formatObject(arguments[index]);
-                        }
-                    }
-                    retval += formatted[index];
-                    prev = pos + 3;
-                    pos = pattern.indexOf('{', prev);
-                } else {
-                    pos = pattern.indexOf('{', pos + 1);
-                }
-            }
-            retval += pattern.substring(prev);
-            return retval;
-        }
-        try {
-            return MessageFormat.format(pattern, arguments);
-        } catch (IllegalArgumentException ex) {
-            return pattern;
         }
+        return MessageTemplate.forMessageFormat(pattern).format(arguments);
     }
 
     /**
      * Formats a single argument using MessageFormat.
      *
      * @param pattern   pattern, may be malformed or null.
-     * @param arguments arguments, may be null or mismatched.
+     * @param arg0      argument, may be null or mismatched.
      * @return Message string or null
      */
     private static String format(final String pattern,
                                  final Object arg0) {
         if (pattern == null) {
             return null;
-        } else if (isSimple(pattern)) {
-            String formatted = null;
-            int prev = 0;
-            String retval = "";
-            int pos = pattern.indexOf('{');
-            while (pos >= 0) {
-                if (pos + 2 < pattern.length() &&
-                        pattern.charAt(pos + 2) == '}' &&
-                        pattern.charAt(pos + 1) >= '0' &&
-                        pattern.charAt(pos + 1) <= '9') {
-                    int index = pattern.charAt(pos + 1) - '0';
-                    retval += pattern.substring(prev, pos);
-                    if (index != 0) {
-                        retval += pattern.substring(pos, pos + 3);
-                    } else {
-                        if (formatted == null) {
-                            formatted = formatObject(arg0);
-                        }
-                        retval += formatted;
-                    }
-                    prev = pos + 3;
-                    pos = pattern.indexOf('{', prev);
-                } else {
-                    pos = pattern.indexOf('{', pos + 1);
-                }
-            }
-            retval += pattern.substring(prev);
-            return retval;
-        }
-        try {
-            return MessageFormat.format(pattern, new Object[]{arg0});
-        } catch (IllegalArgumentException ex) {
-            return pattern;
         }
+        return MessageTemplate.forMessageFormat(pattern).format(arg0);
     }
 
 
@@ -310,7 +147,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, arguments));
         }
     }
@@ -324,7 +161,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, arguments));
         }
     }
@@ -338,7 +175,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object[] arguments) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, arguments));
         }
     }
@@ -352,7 +189,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object[] arguments) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, arguments));
         }
     }
@@ -366,7 +203,7 @@ public final class LogMF extends LogXF {
      */
     public static void error(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.ERROR)) {
+        if (logger.isEnabledFor(Level.ERROR, pattern, null)) {
             forcedLog(logger, Level.ERROR, format(pattern, arguments));
         }
     }
@@ -380,7 +217,7 @@ public final class LogMF extends LogXF {
      */
     public static void fatal(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.FATAL)) {
+        if (logger.isEnabledFor(Level.FATAL, pattern, null)) {
             forcedLog(logger, Level.FATAL, format(pattern, arguments));
         }
     }
@@ -398,7 +235,7 @@ public final class LogMF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, t)) {
             forcedLog(logger, TRACE, format(pattern, arguments), t);
         }
     }
@@ -415,7 +252,7 @@ public final class LogMF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, t)) {
             forcedLog(logger, Level.DEBUG, format(pattern, arguments), t);
         }
     }
@@ -432,7 +269,7 @@ public final class LogMF extends LogXF {
                             final Throwable t,
                             final String pattern,
                             final Object[] arguments) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, t)) {
             forcedLog(logger, Level.INFO, format(pattern, arguments), t);
         }
     }
@@ -449,7 +286,7 @@ public final class LogMF extends LogXF {
                             final Throwable t,
                             final String pattern,
                             final Object[] arguments) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, t)) {
             forcedLog(logger, Level.WARN, format(pattern, arguments), t);
         }
     }
@@ -466,7 +303,7 @@ public final class LogMF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.ERROR)) {
+        if (logger.isEnabledFor(Level.ERROR, pattern, t)) {
             forcedLog(logger, Level.ERROR, format(pattern, arguments), t);
         }
     }
@@ -483,7 +320,7 @@ public final class LogMF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.FATAL)) {
+        if (logger.isEnabledFor(Level.FATAL, pattern, t)) {
             forcedLog(logger, Level.FATAL, format(pattern, arguments), t);
         }
     }
@@ -498,7 +335,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final boolean argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -512,7 +349,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final char argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -526,7 +363,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final byte argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -540,7 +377,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final short argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -554,7 +391,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final int argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -568,7 +405,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final long argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -582,7 +419,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final float argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -596,7 +433,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final double argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -610,7 +447,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, argument));
         }
     }
@@ -625,7 +462,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -642,7 +479,7 @@ public final class LogMF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -661,7 +498,7 @@ public final class LogMF extends LogXF {
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2,
                              final Object arg3) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1, arg2, arg3)));
         }
@@ -676,7 +513,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final boolean argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -690,7 +527,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final char argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -704,7 +541,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final byte argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -718,7 +555,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final short argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -732,7 +569,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final int argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -746,7 +583,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final long argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -760,7 +597,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final float argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -774,7 +611,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final double argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -788,7 +625,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, argument));
         }
     }
@@ -803,7 +640,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -820,7 +657,7 @@ public final class LogMF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -839,7 +676,7 @@ public final class LogMF extends LogXF {
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2,
                              final Object arg3) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1, arg2, arg3)));
         }
@@ -854,7 +691,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final boolean argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -868,7 +705,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final char argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -882,7 +719,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final byte argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -896,7 +733,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final short argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -910,7 +747,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final int argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -924,7 +761,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final long argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -938,7 +775,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final float argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -952,7 +789,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final double argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -966,7 +803,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, argument));
         }
     }
@@ -981,7 +818,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, toArray(arg0, arg1)));
         }
     }
@@ -997,7 +834,7 @@ public final class LogMF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern,
                     toArray(arg0, arg1, arg2)));
         }
@@ -1016,7 +853,7 @@ public final class LogMF extends LogXF {
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2,
                             final Object arg3) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -1031,7 +868,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final boolean argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1045,7 +882,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final char argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1059,7 +896,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final byte argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1073,7 +910,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final short argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1087,7 +924,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final int argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1101,7 +938,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final long argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1115,7 +952,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final float argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1129,7 +966,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final double argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1143,7 +980,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, argument));
         }
     }
@@ -1158,7 +995,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -1175,7 +1012,7 @@ public final class LogMF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -1194,7 +1031,7 @@ public final class LogMF extends LogXF {
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2,
                             final Object arg3) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -1212,7 +1049,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, parameters));
         }
@@ -1232,7 +1069,7 @@ public final class LogMF extends LogXF {
                            final Throwable t,
                            final String pattern,
                            final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, t)) {
             forcedLog(logger, level,
                     format(pattern, parameters), t);
         }
@@ -1250,7 +1087,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(param1)));
         }
@@ -1268,7 +1105,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final boolean param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1287,7 +1124,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final byte param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1306,7 +1143,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final char param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1324,7 +1161,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final short param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1342,7 +1179,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final int param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1361,7 +1198,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final long param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1380,7 +1217,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final float param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1399,7 +1236,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final double param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1419,7 +1256,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -1439,7 +1276,7 @@ public final class LogMF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -1461,7 +1298,7 @@ public final class LogMF extends LogXF {
                            final String pattern,
                            final Object arg0, final Object arg1, final Object arg2,
                            final Object arg3) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -1482,7 +1319,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, parameters));
         }
@@ -1504,7 +1341,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, t)) {
             forcedLog(logger, level,
                     format(bundleName, key, parameters), t);
         }
@@ -1524,7 +1361,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param1)));
         }
@@ -1544,7 +1381,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final boolean param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1564,7 +1401,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final char param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1584,7 +1421,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final byte param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1604,7 +1441,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final short param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1624,7 +1461,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final int param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1644,7 +1481,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final long param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1664,7 +1501,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final float param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1685,7 +1522,7 @@ public final class LogMF extends LogXF {
                              final String bundleName,
                              final String key,
                              final double param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1707,7 +1544,7 @@ public final class LogMF extends LogXF {
                              final String key,
                              final Object param0,
                              final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param0, param1)));
         }
@@ -1732,7 +1569,7 @@ public final class LogMF extends LogXF {
                              final Object param0,
                              final Object param1,
                              final Object param2) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param0, param1, param2)));
         }
@@ -1759,7 +1596,7 @@ public final class LogMF extends LogXF {
                              final Object param1,
                              final Object param2,
                              final Object param3) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key,
                             toArray(param0, param1, param2, param3)));
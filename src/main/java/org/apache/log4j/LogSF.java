@@ -48,31 +48,7 @@ public final class LogSF extends LogXF {
     private static String format(final String pattern,
                                  final Object[] arguments) {
         if (pattern != null) {
-            String retval = "";
-            int count = 0;
-            int prev = 0;
-            int pos = pattern.indexOf("{");
-            while (pos >= 0) {
-                if (pos == 0 || pattern.charAt(pos - 1) != '\\') {
-                    retval += pattern.substring(prev, pos);
-                    if (pos + 1 < pattern.length() && pattern.charAt(pos + 1) == '}') {
-                        if (arguments != null && count < arguments.length) {
-                            retval += arguments[count++];
-                        } else {
-                            retval += "{}";
-                        }
-                        prev = pos + 2;
-                    } else {
-                        retval += "{";
-                        prev = pos + 1;
-                    }
-                } else {
-                    retval += pattern.substring(prev, pos - 1) + "{";
-                    prev = pos + 1;
-                }
-                pos = pattern.indexOf("{", prev);
-            }
-            return retval + pattern.substring(prev);
+            return MessageTemplate.forSimpleFormat(pattern).format(arguments);
         }
         return null;
     }
@@ -86,17 +62,9 @@ public final class LogSF extends LogXF {
      */
     private static String format(final String pattern, final Object arg0) {
         if (pattern != null) {
-            //
-            //  if there is an escaped brace, delegate to multi-param formatter
-            if (pattern.indexOf("\\{") >= 0) {
-                return format(pattern, new Object[]{arg0});
-            }
-            int pos = pattern.indexOf("{}");
-            if (pos >= 0) {
-                return pattern.substring(0, pos) + arg0 + pattern.substring(pos + 2);
-            }
+            return MessageTemplate.forSimpleFormat(pattern).format(arg0);
         }
-        return pattern;
+        return null;
     }
 
     /**
@@ -171,7 +139,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, arguments));
         }
     }
@@ -185,7 +153,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, arguments));
         }
     }
@@ -199,7 +167,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object[] arguments) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, arguments));
         }
     }
@@ -213,7 +181,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object[] arguments) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, arguments));
         }
     }
@@ -227,7 +195,7 @@ public final class LogSF extends LogXF {
      */
     public static void error(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.ERROR)) {
+        if (logger.isEnabledFor(Level.ERROR, pattern, null)) {
             forcedLog(logger, Level.ERROR, format(pattern, arguments));
         }
     }
@@ -241,7 +209,7 @@ public final class LogSF extends LogXF {
      */
     public static void fatal(final Logger logger, final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.FATAL)) {
+        if (logger.isEnabledFor(Level.FATAL, pattern, null)) {
             forcedLog(logger, Level.FATAL, format(pattern, arguments));
         }
     }
@@ -259,7 +227,7 @@ public final class LogSF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, t)) {
             forcedLog(logger, TRACE, format(pattern, arguments), t);
         }
     }
@@ -276,7 +244,7 @@ public final class LogSF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, t)) {
             forcedLog(logger, Level.DEBUG, format(pattern, arguments), t);
         }
     }
@@ -293,7 +261,7 @@ public final class LogSF extends LogXF {
                             final Throwable t,
                             final String pattern,
                             final Object[] arguments) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, t)) {
             forcedLog(logger, Level.INFO, format(pattern, arguments), t);
         }
     }
@@ -310,7 +278,7 @@ public final class LogSF extends LogXF {
                             final Throwable t,
                             final String pattern,
                             final Object[] arguments) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, t)) {
             forcedLog(logger, Level.WARN, format(pattern, arguments), t);
         }
     }
@@ -327,7 +295,7 @@ public final class LogSF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.ERROR)) {
+        if (logger.isEnabledFor(Level.ERROR, pattern, t)) {
             forcedLog(logger, Level.ERROR, format(pattern, arguments), t);
         }
     }
@@ -344,7 +312,7 @@ public final class LogSF extends LogXF {
                              final Throwable t,
                              final String pattern,
                              final Object[] arguments) {
-        if (logger.isEnabledFor(Level.FATAL)) {
+        if (logger.isEnabledFor(Level.FATAL, pattern, t)) {
             forcedLog(logger, Level.FATAL, format(pattern, arguments), t);
         }
     }
@@ -359,7 +327,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final boolean argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -373,7 +341,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final char argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -387,7 +355,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final byte argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -401,7 +369,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final short argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -415,7 +383,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final int argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -429,7 +397,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final long argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -443,7 +411,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final float argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -457,7 +425,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final double argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, valueOf(argument)));
         }
     }
@@ -471,7 +439,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object argument) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE, format(pattern, argument));
         }
     }
@@ -486,7 +454,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -503,7 +471,7 @@ public final class LogSF extends LogXF {
      */
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -522,7 +490,7 @@ public final class LogSF extends LogXF {
     public static void trace(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2,
                              final Object arg3) {
-        if (logger.isEnabledFor(TRACE)) {
+        if (logger.isEnabledFor(TRACE, pattern, null)) {
             forcedLog(logger, TRACE,
                     format(pattern, toArray(arg0, arg1, arg2, arg3)));
         }
@@ -537,7 +505,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final boolean argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -551,7 +519,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final char argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -565,7 +533,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final byte argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -579,7 +547,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final short argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -593,7 +561,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final int argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -607,7 +575,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final long argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -621,7 +589,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final float argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -635,7 +603,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final double argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, valueOf(argument)));
         }
     }
@@ -649,7 +617,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object argument) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG, format(pattern, argument));
         }
     }
@@ -664,7 +632,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -681,7 +649,7 @@ public final class LogSF extends LogXF {
      */
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -700,7 +668,7 @@ public final class LogSF extends LogXF {
     public static void debug(final Logger logger, final String pattern,
                              final Object arg0, final Object arg1, final Object arg2,
                              final Object arg3) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, pattern, null)) {
             forcedLog(logger, Level.DEBUG,
                     format(pattern, toArray(arg0, arg1, arg2, arg3)));
         }
@@ -715,7 +683,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final boolean argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -729,7 +697,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final char argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -743,7 +711,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final byte argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -757,7 +725,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final short argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -771,7 +739,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final int argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -785,7 +753,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final long argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -799,7 +767,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final float argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -813,7 +781,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final double argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, valueOf(argument)));
         }
     }
@@ -827,7 +795,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object argument) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, argument));
         }
     }
@@ -842,7 +810,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern, toArray(arg0, arg1)));
         }
     }
@@ -858,7 +826,7 @@ public final class LogSF extends LogXF {
      */
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern,
                     toArray(arg0, arg1, arg2)));
         }
@@ -877,7 +845,7 @@ public final class LogSF extends LogXF {
     public static void info(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2,
                             final Object arg3) {
-        if (logger.isInfoEnabled()) {
+        if (logger.isEnabledFor(Level.INFO, pattern, null)) {
             forcedLog(logger, Level.INFO, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -892,7 +860,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final boolean argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -906,7 +874,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final char argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -920,7 +888,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final byte argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -934,7 +902,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final short argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -948,7 +916,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final int argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -962,7 +930,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final long argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -976,7 +944,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final float argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -990,7 +958,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final double argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, valueOf(argument)));
         }
     }
@@ -1004,7 +972,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object argument) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern, argument));
         }
     }
@@ -1019,7 +987,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -1036,7 +1004,7 @@ public final class LogSF extends LogXF {
      */
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -1055,7 +1023,7 @@ public final class LogSF extends LogXF {
     public static void warn(final Logger logger, final String pattern,
                             final Object arg0, final Object arg1, final Object arg2,
                             final Object arg3) {
-        if (logger.isEnabledFor(Level.WARN)) {
+        if (logger.isEnabledFor(Level.WARN, pattern, null)) {
             forcedLog(logger, Level.WARN, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -1073,7 +1041,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, parameters));
         }
@@ -1093,7 +1061,7 @@ public final class LogSF extends LogXF {
                            final Throwable t,
                            final String pattern,
                            final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, t)) {
             forcedLog(logger, level,
                     format(pattern, parameters), t);
         }
@@ -1111,7 +1079,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(param1)));
         }
@@ -1129,7 +1097,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final boolean param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1148,7 +1116,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final byte param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1167,7 +1135,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final char param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1185,7 +1153,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final short param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1203,7 +1171,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final int param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1222,7 +1190,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final long param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1241,7 +1209,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final float param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1260,7 +1228,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final double param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(valueOf(param1))));
         }
@@ -1280,7 +1248,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object arg0, final Object arg1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(arg0, arg1)));
         }
@@ -1300,7 +1268,7 @@ public final class LogSF extends LogXF {
                            final Level level,
                            final String pattern,
                            final Object arg0, final Object arg1, final Object arg2) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level,
                     format(pattern, toArray(arg0, arg1, arg2)));
         }
@@ -1322,7 +1290,7 @@ public final class LogSF extends LogXF {
                            final String pattern,
                            final Object arg0, final Object arg1, final Object arg2,
                            final Object arg3) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, pattern, null)) {
             forcedLog(logger, level, format(pattern,
                     toArray(arg0, arg1, arg2, arg3)));
         }
@@ -1343,7 +1311,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, parameters));
         }
@@ -1365,7 +1333,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object[] parameters) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, t)) {
             forcedLog(logger, level,
                     format(bundleName, key, parameters), t);
         }
@@ -1385,7 +1353,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param1)));
         }
@@ -1405,7 +1373,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final boolean param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1425,7 +1393,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final char param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1445,7 +1413,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final byte param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1465,7 +1433,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final short param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1485,7 +1453,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final int param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1505,7 +1473,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final long param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1525,7 +1493,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final float param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1546,7 +1514,7 @@ public final class LogSF extends LogXF {
                              final String bundleName,
                              final String key,
                              final double param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(valueOf(param1))));
         }
@@ -1568,7 +1536,7 @@ public final class LogSF extends LogXF {
                              final String key,
                              final Object param0,
                              final Object param1) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param0, param1)));
         }
@@ -1593,7 +1561,7 @@ public final class LogSF extends LogXF {
                              final Object param0,
                              final Object param1,
                              final Object param2) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key, toArray(param0, param1, param2)));
         }
@@ -1620,7 +1588,7 @@ public final class LogSF extends LogXF {
                              final Object param1,
                              final Object param2,
                              final Object param3) {
-        if (logger.isEnabledFor(level)) {
+        if (logger.isEnabledFor(level, key, null)) {
             forcedLog(logger, level,
                     format(bundleName, key,
                             toArray(param0, param1, param2, param3)));
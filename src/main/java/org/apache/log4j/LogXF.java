@@ -199,7 +199,7 @@ public abstract class LogXF {
     public static void entering(final Logger logger,
                                 final String sourceClass,
                                 final String sourceMethod) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             logger.callAppenders(new LoggingEvent(FQCN, logger, Level.DEBUG,
                     sourceClass + "." + sourceMethod + " ENTRY", null));
         }
@@ -217,7 +217,7 @@ public abstract class LogXF {
                                 final String sourceClass,
                                 final String sourceMethod,
                                 final String param) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             String msg = sourceClass + "." + sourceMethod + " ENTRY " + param;
             logger.callAppenders(new LoggingEvent(FQCN, logger, Level.DEBUG,
                     msg, null));
@@ -236,7 +236,7 @@ public abstract class LogXF {
                                 final String sourceClass,
                                 final String sourceMethod,
                                 final Object param) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             String msg = sourceClass + "." + sourceMethod + " ENTRY ";
             if (param == null) {
                 msg += "null";
@@ -264,7 +264,7 @@ public abstract class LogXF {
                                 final String sourceClass,
                                 final String sourceMethod,
                                 final Object[] params) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             String msg = sourceClass + "." + sourceMethod + " ENTRY ";
             if (params != null && params.length > 0) {
                 String delim = "{";
@@ -295,7 +295,7 @@ public abstract class LogXF {
     public static void exiting(final Logger logger,
                                final String sourceClass,
                                final String sourceMethod) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             logger.callAppenders(new LoggingEvent(FQCN, logger, Level.DEBUG,
                     sourceClass + "." + sourceMethod + " RETURN", null));
         }
@@ -314,7 +314,7 @@ public abstract class LogXF {
             final String sourceClass,
             final String sourceMethod,
             final String result) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             logger.callAppenders(new LoggingEvent(FQCN, logger, Level.DEBUG,
                     sourceClass + "." + sourceMethod + " RETURN " + result, null));
         }
@@ -333,7 +333,7 @@ public abstract class LogXF {
             final String sourceClass,
             final String sourceMethod,
             final Object result) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, null)) {
             String msg = sourceClass + "." + sourceMethod + " RETURN ";
             if (result == null) {
                 msg += "null";
@@ -362,7 +362,7 @@ public abstract class LogXF {
             final String sourceClass,
             final String sourceMethod,
             final Throwable thrown) {
-        if (logger.isDebugEnabled()) {
+        if (logger.isEnabledFor(Level.DEBUG, null, thrown)) {
             logger.callAppenders(new LoggingEvent(FQCN, logger, Level.DEBUG,
                     sourceClass + "." + sourceMethod + " THROW", thrown));
         }
@@ -163,7 +163,7 @@ public class Logger extends Category {
             return;
         }
 
-        if (Level.TRACE.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(Level.TRACE, message, null)) {
             forcedLog(FQCN, Level.TRACE, message, null);
         }
     }
@@ -185,7 +185,7 @@ public class Logger extends Category {
             return;
         }
 
-        if (Level.TRACE.isGreaterOrEqual(this.getEffectiveLevel())) {
+        if (isEnabled(Level.TRACE, message, t)) {
             forcedLog(FQCN, Level.TRACE, message, t);
         }
     }
@@ -202,7 +202,7 @@ public class Logger extends Category {
             return false;
         }
 
-        return Level.TRACE.isGreaterOrEqual(this.getEffectiveLevel());
+        return isEnabled(Level.TRACE, null, null);
     }
 
 }
@@ -19,7 +19,14 @@ package org.apache.log4j;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.helpers.Loader;
 import org.apache.log4j.helpers.ThreadLocalMap;
@@ -36,6 +43,10 @@ import org.apache.log4j.helpers.ThreadLocalMap;
  * child thread automatically inherits a <em>copy</em> of the mapped
  * diagnostic context of its parent.
  *
+ * <p>Logging events capture the MDC through {@link #getSnapshot}, an
+ * immutable copy that is kept until the MDC changes, so that the events
+ * of consecutive requests share one copy instead of cloning the map each.
+ *
  * <p>The MDC class requires JDK 1.2 or above. Under JDK 1.1 the MDC
  * will always return empty values but otherwise will not affect or
  * harm your application.
@@ -55,6 +66,13 @@ public class MDC {
 
     private Method removeMethod;
 
+    /**
+     * Snapshot of the context map of each thread, null once the map
+     * changes and {@link Boolean#TRUE} while the map has been handed out
+     * by {@link #getContext} and may be changed behind our back.
+     */
+    private final ThreadLocal snapshots = new ThreadLocal();
+
     private MDC() {
         java1 = Loader.isJava1();
         if (!java1) {
@@ -120,6 +138,25 @@ public class MDC {
         }
     }
 
+    /**
+     * Get an immutable copy of the current thread's MDC. This method is
+     * intended to be used internally.
+     *
+     * <p>The same copy is returned until the MDC changes. Attempts to
+     * modify it throw <code>UnsupportedOperationException</code>, its
+     * clone is an ordinary, modifiable <code>Hashtable</code>.
+     *
+     * @return copy of the MDC, null if the MDC is empty.
+     * @since 1.2.18
+     */
+    public static Hashtable getSnapshot() {
+        if (mdc != null) {
+            return mdc.getSnapshot0();
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Remove all values from the MDC.
      *
@@ -140,8 +177,12 @@ public class MDC {
             if (ht == null) {
                 ht = new Hashtable(HT_SIZE);
                 ((ThreadLocalMap) tlm).set(ht);
+                snapshots.set(null);
             }
             ht.put(key, o);
+            if (snapshots.get() instanceof Snapshot) {
+                snapshots.set(null);
+            }
         }
     }
 
@@ -163,6 +204,9 @@ public class MDC {
             Hashtable ht = (Hashtable) ((ThreadLocalMap) tlm).get();
             if (ht != null) {
                 ht.remove(key);
+                if (snapshots.get() instanceof Snapshot) {
+                    snapshots.set(null);
+                }
                 // clean up if this was the last key
                 if (ht.isEmpty()) {
                     clear0();
@@ -176,7 +220,32 @@ public class MDC {
         if (java1 || tlm == null) {
             return null;
         } else {
-            return (Hashtable) ((ThreadLocalMap) tlm).get();
+            Hashtable ht = (Hashtable) ((ThreadLocalMap) tlm).get();
+            if (ht != null) {
+                // the caller may change the map without notice
+                snapshots.set(Boolean.TRUE);
+            }
+            return ht;
+        }
+    }
+
+    private Hashtable getSnapshot0() {
+        if (java1 || tlm == null) {
+            return null;
+        } else {
+            Hashtable ht = (Hashtable) ((ThreadLocalMap) tlm).get();
+            if (ht == null) {
+                return null;
+            }
+            Object cached = snapshots.get();
+            if (cached instanceof Snapshot) {
+                return (Snapshot) cached;
+            }
+            Snapshot snapshot = new Snapshot(ht);
+            if (cached == null) {
+                snapshots.set(snapshot);
+            }
+            return snapshot;
         }
     }
 
@@ -186,6 +255,7 @@ public class MDC {
             if (ht != null) {
                 ht.clear();
             }
+            snapshots.set(null);
             if (removeMethod != null) {
                 // java 1.3/1.4 does not have remove - will suffer from a memory leak
                 try {
@@ -199,4 +269,129 @@ public class MDC {
         }
     }
 
+    /**
+     * Read-only copy of the context map of a thread, shared by the events
+     * logged while the MDC does not change. Every method that could modify
+     * it, directly or through its views, throws
+     * <code>UnsupportedOperationException</code>.
+     */
+    private static final class Snapshot extends Hashtable {
+        private static final long serialVersionUID = 4384939567370183530L;
+
+        Snapshot(Map source) {
+            super(Math.max(2 * source.size() + 1, HT_SIZE));
+            synchronized (source) {
+                for (Iterator iter = source.entrySet().iterator(); iter.hasNext();) {
+                    Map.Entry entry = (Map.Entry) iter.next();
+                    super.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("MDC snapshot is read-only");
+        }
+
+        public Object put(Object key, Object value) {
+            throw readOnly();
+        }
+
+        public Object remove(Object key) {
+            throw readOnly();
+        }
+
+        public boolean remove(Object key, Object value) {
+            throw readOnly();
+        }
+
+        public void putAll(Map t) {
+            throw readOnly();
+        }
+
+        public void clear() {
+            throw readOnly();
+        }
+
+        public Object putIfAbsent(Object key, Object value) {
+            throw readOnly();
+        }
+
+        public Object replace(Object key, Object value) {
+            throw readOnly();
+        }
+
+        public boolean replace(Object key, Object oldValue, Object newValue) {
+            throw readOnly();
+        }
+
+        public Object computeIfAbsent(Object key, java.util.function.Function f) {
+            throw readOnly();
+        }
+
+        public Object computeIfPresent(Object key, java.util.function.BiFunction f) {
+            throw readOnly();
+        }
+
+        public Object compute(Object key, java.util.function.BiFunction f) {
+            throw readOnly();
+        }
+
+        public Object merge(Object key, Object value, java.util.function.BiFunction f) {
+            throw readOnly();
+        }
+
+        public void replaceAll(java.util.function.BiFunction f) {
+            throw readOnly();
+        }
+
+        public Set keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        public Collection values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+
+        public Set entrySet() {
+            final Set entries = super.entrySet();
+            return new AbstractSet() {
+                public int size() {
+                    return entries.size();
+                }
+
+                public Iterator iterator() {
+                    final Iterator iter = entries.iterator();
+                    return new Iterator() {
+                        public boolean hasNext() {
+                            return iter.hasNext();
+                        }
+
+                        public Object next() {
+                            return new AbstractMap.SimpleImmutableEntry((Map.Entry) iter.next());
+                        }
+
+                        public void remove() {
+                            throw readOnly();
+                        }
+                    };
+                }
+            };
+        }
+
+        /**
+         * Returns an ordinary, modifiable copy.
+         */
+        public synchronized Object clone() {
+            return new Hashtable(this);
+        }
+
+        /**
+         * Serialized as an ordinary <code>Hashtable</code> so that events
+         * can be read by any version of log4j.
+         */
+        private Object writeReplace() {
+            return new Hashtable(this);
+        }
+    }
+
 }
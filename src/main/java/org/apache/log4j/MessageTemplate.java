@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j;
+
+import org.apache.log4j.helpers.BoundedCache;
+import org.apache.log4j.helpers.ThreadLocalStringBuilder;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * A parsed {@link LogMF} or {@link LogSF} message pattern.
+ *
+ * <p>Patterns are split once into literal text and argument slots, and
+ * the result is kept in a bounded cache keyed by the pattern string, so
+ * that repeated log statements only substitute arguments. Patterns that
+ * <code>LogMF</code> cannot handle itself are parsed into a
+ * <code>MessageFormat</code> that is cloned for each use.
+ *
+ * @since 1.2.18
+ */
+final class MessageTemplate {
+    /**
+     * Maximum number of templates cached for each syntax.
+     */
+    private static final int MAX_TEMPLATES = 1024;
+
+    /**
+     * Templates in <code>LogMF</code> syntax.
+     */
+    private static final BoundedCache MESSAGE_FORMAT_TEMPLATES =
+            new BoundedCache(MAX_TEMPLATES);
+
+    /**
+     * Templates in <code>LogSF</code> syntax.
+     */
+    private static final BoundedCache SIMPLE_FORMAT_TEMPLATES =
+            new BoundedCache(MAX_TEMPLATES);
+
+    private static final ThreadLocalStringBuilder BUFFERS =
+            new ThreadLocalStringBuilder(256, 4096);
+
+    /**
+     * Per thread number and date formats, see {@link LocaleFormats}.
+     */
+    private static final ThreadLocal FORMATS = new ThreadLocal();
+
+    /**
+     * Pattern as given.
+     */
+    private final String pattern;
+
+    /**
+     * True for <code>LogMF</code> syntax, false for <code>LogSF</code>.
+     */
+    private final boolean messageFormat;
+
+    /**
+     * Literal text, one more entry than {@link #slots}; null if the
+     * pattern is delegated to {@link #prototype} or is invalid.
+     */
+    private final String[] literals;
+
+    /**
+     * Argument index substituted between consecutive literals.
+     */
+    private final int[] slots;
+
+    /**
+     * Parsed pattern for <code>LogMF</code> patterns using format types,
+     * styles or quotes; never used directly since it is not thread safe.
+     */
+    private final MessageFormat prototype;
+
+    /**
+     * Default locale when {@link #prototype} was parsed.
+     */
+    private final Locale locale;
+
+    private MessageTemplate(final String pattern,
+                            final boolean messageFormat,
+                            final String[] literals,
+                            final int[] slots,
+                            final MessageFormat prototype,
+                            final Locale locale) {
+        this.pattern = pattern;
+        this.messageFormat = messageFormat;
+        this.literals = literals;
+        this.slots = slots;
+        this.prototype = prototype;
+        this.locale = locale;
+    }
+
+    /**
+     * Gets the template for a <code>java.text.MessageFormat</code>
+     * pattern.
+     *
+     * @param pattern pattern, may not be null.
+     * @return template.
+     */
+    static MessageTemplate forMessageFormat(final String pattern) {
+        MessageTemplate template =
+                (MessageTemplate) MESSAGE_FORMAT_TEMPLATES.get(pattern);
+        if (template == null
+                || (template.prototype != null && template.locale != Locale.getDefault())) {
+            template = parseMessageFormat(pattern);
+            MESSAGE_FORMAT_TEMPLATES.put(pattern, template);
+        }
+        return template;
+    }
+
+    /**
+     * Gets the template for a <code>LogSF</code> pattern.
+     *
+     * @param pattern pattern, may not be null.
+     * @return template.
+     */
+    static MessageTemplate forSimpleFormat(final String pattern) {
+        MessageTemplate template =
+                (MessageTemplate) SIMPLE_FORMAT_TEMPLATES.get(pattern);
+        if (template == null) {
+            template = parseSimpleFormat(pattern);
+            SIMPLE_FORMAT_TEMPLATES.put(pattern, template);
+        }
+        return template;
+    }
+
+    /**
+     * Determines if pattern contains only {n} format elements
+     * and not apostrophes.
+     *
+     * @param pattern pattern, may not be null.
+     * @return true if pattern only contains {n} format elements.
+     */
+    private static boolean isSimple(final String pattern) {
+        if (pattern.indexOf('\'') != -1) {
+            return false;
+        }
+        for (int pos = pattern.indexOf('{');
+             pos != -1;
+             pos = pattern.indexOf('{', pos + 1)) {
+            if (pos + 2 >= pattern.length() ||
+                    pattern.charAt(pos + 2) != '}' ||
+                    pattern.charAt(pos + 1) < '0' ||
+                    pattern.charAt(pos + 1) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageTemplate parseMessageFormat(final String pattern) {
+        if (!isSimple(pattern)) {
+            Locale current = Locale.getDefault();
+            MessageFormat format = null;
+            try {
+                format = new MessageFormat(pattern, current);
+            } catch (IllegalArgumentException ex) {
+                //  formatting will return the pattern itself
+            }
+            return new MessageTemplate(pattern, true, null, null, format, current);
+        }
+        SlotList list = new SlotList();
+        int prev = 0;
+        int pos = pattern.indexOf('{');
+        while (pos >= 0) {
+            list.add(pattern.substring(prev, pos), pattern.charAt(pos + 1) - '0');
+            prev = pos + 3;
+            pos = pattern.indexOf('{', prev);
+        }
+        list.literal.append(pattern.substring(prev));
+        return list.toTemplate(pattern, true);
+    }
+
+    private static MessageTemplate parseSimpleFormat(final String pattern) {
+        SlotList list = new SlotList();
+        int count = 0;
+        int prev = 0;
+        int pos = pattern.indexOf('{');
+        while (pos >= 0) {
+            if (pos == 0 || pattern.charAt(pos - 1) != '\\') {
+                if (pos + 1 < pattern.length() && pattern.charAt(pos + 1) == '}') {
+                    list.add(pattern.substring(prev, pos), count++);
+                    prev = pos + 2;
+                } else {
+                    list.literal.append(pattern, prev, pos + 1);
+                    prev = pos + 1;
+                }
+            } else {
+                //  escaped brace, drop the backslash
+                list.literal.append(pattern, prev, pos - 1).append('{');
+                prev = pos + 1;
+            }
+            pos = pattern.indexOf('{', prev);
+        }
+        list.literal.append(pattern.substring(prev));
+        return list.toTemplate(pattern, false);
+    }
+
+    /**
+     * Substitutes arguments into the pattern.
+     *
+     * @param arguments arguments, may be null or mismatched.
+     * @return formatted message.
+     */
+    String format(final Object[] arguments) {
+        if (literals == null) {
+            return formatMessageFormat(arguments);
+        }
+        return format(arguments, null, arguments == null ? 0 : arguments.length);
+    }
+
+    /**
+     * Substitutes a single argument into the pattern.
+     *
+     * @param arg0 argument, may be null.
+     * @return formatted message.
+     */
+    String format(final Object arg0) {
+        if (literals == null) {
+            return formatMessageFormat(new Object[]{arg0});
+        }
+        return format(null, arg0, 1);
+    }
+
+    private String format(final Object[] arguments,
+                          final Object arg0,
+                          final int count) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        StringBuilder buf = BUFFERS.acquire();
+        try {
+            buf.append(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                int index = slots[i];
+                if (index >= count) {
+                    if (messageFormat) {
+                        buf.append('{').append(index).append('}');
+                    } else {
+                        buf.append("{}");
+                    }
+                } else {
+                    Object arg = arguments == null ? arg0 : arguments[index];
+                    if (messageFormat) {
+                        appendObject(buf, arg);
+                    } else {
+                        buf.append(String.valueOf(arg));
+                    }
+                }
+                buf.append(literals[i + 1]);
+            }
+            return buf.toString();
+        } finally {
+            BUFFERS.release(buf);
+        }
+    }
+
+    private String formatMessageFormat(final Object[] arguments) {
+        if (prototype == null) {
+            return pattern;
+        }
+        try {
+            return ((MessageFormat) prototype.clone()).format(arguments);
+        } catch (IllegalArgumentException ex) {
+            return pattern;
+        }
+    }
+
+    /**
+     * Format a single parameter like a "{0}" formatting specifier.
+     *
+     * @param buf  destination.
+     * @param arg0 parameter, may be null.
+     */
+    private static void appendObject(final StringBuilder buf, final Object arg0) {
+        if (arg0 instanceof String) {
+            buf.append((String) arg0);
+        } else if (arg0 instanceof Double ||
+                arg0 instanceof Float) {
+            buf.append(LocaleFormats.get().formatNumber(arg0));
+        } else if (arg0 instanceof Date) {
+            buf.append(LocaleFormats.get().formatDate(arg0));
+        } else {
+            buf.append(String.valueOf(arg0));
+        }
+    }
+
+    /**
+     * Number and date formats for the default locale, owned by a single
+     * thread so that they can be used without locking.
+     */
+    private static final class LocaleFormats {
+        private final Locale locale;
+        private final NumberFormat numberFormat;
+        private DateFormat dateFormat;
+
+        private LocaleFormats(final Locale locale) {
+            this.locale = locale;
+            this.numberFormat = NumberFormat.getInstance(locale);
+        }
+
+        /**
+         * Gets the formats of the current thread, replacing them if the
+         * default locale has changed.
+         */
+        static LocaleFormats get() {
+            Locale current = Locale.getDefault();
+            LocaleFormats formats = (LocaleFormats) FORMATS.get();
+            if (formats == null || formats.locale != current) {
+                formats = new LocaleFormats(current);
+                FORMATS.set(formats);
+            }
+            return formats;
+        }
+
+        String formatNumber(final Object n) {
+            return numberFormat.format(n);
+        }
+
+        String formatDate(final Object d) {
+            if (dateFormat == null) {
+                dateFormat = DateFormat.getDateTimeInstance(
+                        DateFormat.SHORT,
+                        DateFormat.SHORT,
+                        locale);
+            }
+            return dateFormat.format(d);
+        }
+    }
+
+    /**
+     * Collects literals and slots while parsing.
+     */
+    private static final class SlotList {
+        final StringBuilder literal = new StringBuilder();
+        private String[] literals = new String[4];
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(final String text, final int index) {
+            literal.append(text);
+            if (size + 1 >= literals.length) {
+                String[] l = new String[literals.length * 2];
+                System.arraycopy(literals, 0, l, 0, size);
+                literals = l;
+                int[] s = new int[slots.length * 2];
+                System.arraycopy(slots, 0, s, 0, size);
+                slots = s;
+            }
+            literals[size] = literal.toString();
+            slots[size] = index;
+            size++;
+            literal.setLength(0);
+        }
+
+        MessageTemplate toTemplate(final String pattern, final boolean messageFormat) {
+            String[] l = new String[size + 1];
+            System.arraycopy(literals, 0, l, 0, size);
+            l[size] = literal.toString();
+            int[] s = new int[size];
+            System.arraycopy(slots, 0, s, 0, size);
+            return new MessageTemplate(pattern, messageFormat, l, s, null, null);
+        }
+    }
+}
@@ -20,12 +20,7 @@
 
 package org.apache.log4j;
 
-import java.util.Hashtable;
 import java.util.Stack;
-import java.util.Enumeration;
-import java.util.Vector;
-
-import org.apache.log4j.helpers.LogLog;
 
 /**
  * The NDC class implements <i>nested diagnostic contexts</i> as
@@ -81,12 +76,9 @@ import org.apache.log4j.helpers.LogLog;
  * request will have a different NDC tag.
  *
  * <p>Heavy duty systems should call the {@link #remove} method when
- * leaving the run method of a thread. This ensures that the memory
- * used by the thread can be freed by the Java garbage
- * collector. There is a mechanism to lazily remove references to dead
- * threads. In practice, this means that you can be a little sloppy
- * and sometimes forget to call {@link #remove} before exiting a
- * thread.
+ * leaving the run method of a thread, in particular a pooled thread.
+ * The context of a thread is held in a <code>ThreadLocal</code> and is
+ * reclaimed together with the thread.
  *
  * <p>A thread may inherit the nested diagnostic context of another
  * (possibly parent) thread using the {@link #inherit inherit}
@@ -100,42 +92,25 @@ import org.apache.log4j.helpers.LogLog;
 
 public class NDC {
 
-    // The synchronized keyword is not used in this class. This may seem
-    // dangerous, especially since the class will be used by
-    // multiple-threads. In particular, all threads share the same
-    // hashtable (the "ht" variable). This is OK since java hashtables
-    // are thread safe. Same goes for Stacks.
-
-    // More importantly, when inheriting diagnostic contexts the child
-    // thread is handed a clone of the parent's NDC.  It follows that
-    // each thread has its own NDC (i.e. stack).
-
-    static Hashtable ht = new Hashtable();
+    // Each thread holds the innermost frame of its context in a
+    // ThreadLocal. Frames are immutable and point to their parent, so
+    // push and pop only replace the thread's reference and never lock.
+    // Snapshots taken by cloneStack and the joined string returned by
+    // get share the frames of the thread that created them.
 
-    static int pushCounter = 0; // the number of times push has been called
-    // after the latest call to lazyRemove
-
-    // The number of times we allow push to be called before we call lazyRemove
-    // 5 is a relatively small number. As such, lazyRemove is not called too
-    // frequently. We thus avoid the cost of creating an Enumeration too often.
-    // The higher this number, the longer is the avarage period for which all
-    // logging calls in all threads are blocked.
-    static final int REAP_THRESHOLD = 5;
+    private static final ThreadLocal CONTEXT = new ThreadLocal();
 
     // No instances allowed.
     private NDC() {
     }
 
     /**
-     * Get NDC stack for current thread.
+     * Get innermost frame for current thread.
      *
-     * @return NDC stack for current thread.
+     * @return innermost frame, null if the context is empty.
      */
-    private static Stack getCurrentStack() {
-        if (ht != null) {
-            return (Stack) ht.get(Thread.currentThread());
-        }
-        return null;
+    private static DiagnosticContext getCurrentFrame() {
+        return (DiagnosticContext) CONTEXT.get();
     }
 
 
@@ -151,9 +126,8 @@ public class NDC {
      */
     public
     static void clear() {
-        Stack stack = getCurrentStack();
-        if (stack != null)
-            stack.setSize(0);
+        if (getCurrentFrame() != null)
+            CONTEXT.set(null);
     }
 
 
@@ -172,12 +146,15 @@ public class NDC {
      */
     public
     static Stack cloneStack() {
-        Stack stack = getCurrentStack();
-        if (stack == null)
-            return null;
-        else {
-            return (Stack) stack.clone();
+        DiagnosticContext frame = getCurrentFrame();
+        Stack stack = new Stack();
+        if (frame != null) {
+            stack.setSize(frame.depth);
+            for (; frame != null; frame = frame.parent) {
+                stack.set(frame.depth - 1, frame);
+            }
         }
+        return stack;
     }
 
 
@@ -202,8 +179,24 @@ public class NDC {
      */
     public
     static void inherit(Stack stack) {
-        if (stack != null)
-            ht.put(Thread.currentThread(), stack);
+        if (stack != null) {
+            DiagnosticContext frame = null;
+            int size = stack.size();
+            for (int i = 0; i < size; i++) {
+                Object element = stack.get(i);
+                if (element instanceof DiagnosticContext
+                        && ((DiagnosticContext) element).parent == frame) {
+                    //  unchanged frame from cloneStack, share it
+                    frame = (DiagnosticContext) element;
+                } else if (element instanceof DiagnosticContext) {
+                    frame = new DiagnosticContext(
+                            ((DiagnosticContext) element).message, frame);
+                } else {
+                    frame = new DiagnosticContext(String.valueOf(element), frame);
+                }
+            }
+            CONTEXT.set(frame);
+        }
     }
 
 
@@ -213,9 +206,9 @@ public class NDC {
      */
     static
     public String get() {
-        Stack s = getCurrentStack();
-        if (s != null && !s.isEmpty())
-            return ((DiagnosticContext) s.peek()).fullMessage;
+        DiagnosticContext frame = getCurrentFrame();
+        if (frame != null)
+            return frame.getFullMessage();
         else
             return null;
     }
@@ -228,55 +221,11 @@ public class NDC {
      */
     public
     static int getDepth() {
-        Stack stack = getCurrentStack();
-        if (stack == null)
+        DiagnosticContext frame = getCurrentFrame();
+        if (frame == null)
             return 0;
         else
-            return stack.size();
-    }
-
-    private
-    static void lazyRemove() {
-        if (ht == null) return;
-
-        // The synchronization on ht is necessary to prevent JDK 1.2.x from
-        // throwing ConcurrentModificationExceptions at us. This sucks BIG-TIME.
-        // One solution is to write our own hashtable implementation.
-        Vector v;
-
-        synchronized (ht) {
-            // Avoid calling clean-up too often.
-            if (++pushCounter <= REAP_THRESHOLD) {
-                return; // We release the lock ASAP.
-            } else {
-                pushCounter = 0; // OK let's do some work.
-            }
-
-            int misses = 0;
-            v = new Vector();
-            Enumeration enumeration = ht.keys();
-            // We give up after 4 straigt missses. That is 4 consecutive
-            // inspected threads in 'ht' that turn out to be alive.
-            // The higher the proportion on dead threads in ht, the higher the
-            // chances of removal.
-            while (enumeration.hasMoreElements() && (misses <= 4)) {
-                Thread t = (Thread) enumeration.nextElement();
-                if (t.isAlive()) {
-                    misses++;
-                } else {
-                    misses = 0;
-                    v.addElement(t);
-                }
-            }
-        } // synchronized
-
-        int size = v.size();
-        for (int i = 0; i < size; i++) {
-            Thread t = (Thread) v.elementAt(i);
-            LogLog.debug("Lazy NDC removal for thread [" + t.getName() + "] (" +
-                    ht.size() + ").");
-            ht.remove(t);
-        }
+            return frame.depth;
     }
 
     /**
@@ -290,10 +239,11 @@ public class NDC {
      */
     public
     static String pop() {
-        Stack stack = getCurrentStack();
-        if (stack != null && !stack.isEmpty())
-            return ((DiagnosticContext) stack.pop()).message;
-        else
+        DiagnosticContext frame = getCurrentFrame();
+        if (frame != null) {
+            CONTEXT.set(frame.parent);
+            return frame.message;
+        } else
             return "";
     }
 
@@ -308,9 +258,9 @@ public class NDC {
      */
     public
     static String peek() {
-        Stack stack = getCurrentStack();
-        if (stack != null && !stack.isEmpty())
-            return ((DiagnosticContext) stack.peek()).message;
+        DiagnosticContext frame = getCurrentFrame();
+        if (frame != null)
+            return frame.message;
         else
             return "";
     }
@@ -325,49 +275,20 @@ public class NDC {
      */
     public
     static void push(String message) {
-        Stack stack = getCurrentStack();
-
-        if (stack == null) {
-            DiagnosticContext dc = new DiagnosticContext(message, null);
-            stack = new Stack();
-            Thread key = Thread.currentThread();
-            ht.put(key, stack);
-            stack.push(dc);
-        } else if (stack.isEmpty()) {
-            DiagnosticContext dc = new DiagnosticContext(message, null);
-            stack.push(dc);
-        } else {
-            DiagnosticContext parent = (DiagnosticContext) stack.peek();
-            stack.push(new DiagnosticContext(message, parent));
-        }
+        CONTEXT.set(new DiagnosticContext(message, getCurrentFrame()));
     }
 
     /**
      * Remove the diagnostic context for this thread.
      *
      * <p>Each thread that created a diagnostic context by calling
-     * {@link #push} should call this method before exiting. Otherwise,
-     * the memory used by the <b>thread</b> cannot be reclaimed by the
-     * VM.
-     *
-     * <p>As this is such an important problem in heavy duty systems and
-     * because it is difficult to always guarantee that the remove
-     * method is called before exiting a thread, this method has been
-     * augmented to lazily remove references to dead threads. In
-     * practice, this means that you can be a little sloppy and
-     * occasionally forget to call {@link #remove} before exiting a
-     * thread. However, you must call <code>remove</code> sometime. If
-     * you never call it, then your application is sure to run out of
-     * memory.
+     * {@link #push} should call this method before exiting, or before
+     * being returned to a thread pool. Otherwise the context is kept
+     * until the thread itself is garbage collected.
      */
     static
     public void remove() {
-        if (ht != null) {
-            ht.remove(Thread.currentThread());
-
-            // Lazily remove dead-thread references in ht.
-            lazyRemove();
-        }
+        CONTEXT.remove();
     }
 
     /**
@@ -400,25 +321,58 @@ public class NDC {
      */
     static
     public void setMaxDepth(int maxDepth) {
-        Stack stack = getCurrentStack();
-        if (stack != null && maxDepth < stack.size())
-            stack.setSize(maxDepth);
+        DiagnosticContext frame = getCurrentFrame();
+        if (frame != null && maxDepth < frame.depth) {
+            while (frame != null && frame.depth > maxDepth) {
+                frame = frame.parent;
+            }
+            CONTEXT.set(frame);
+        }
     }
 
     // =====================================================================
-    private static class DiagnosticContext {
+    private static final class DiagnosticContext {
+
+        final String message;
+        final DiagnosticContext parent;
+        final int depth;
 
-        String fullMessage;
-        String message;
+        /**
+         * Messages of all frames up to this one, separated by spaces;
+         * computed on first use.
+         */
+        private String fullMessage;
 
         DiagnosticContext(String message, DiagnosticContext parent) {
             this.message = message;
-            if (parent != null) {
-                fullMessage = parent.fullMessage + ' ' + message;
-            } else {
+            this.parent = parent;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+            if (parent == null) {
                 fullMessage = message;
             }
         }
+
+        String getFullMessage() {
+            String full = fullMessage;
+            if (full == null && parent != null) {
+                //  join from the nearest frame that already has its
+                //  string. A race only computes the same string twice.
+                DiagnosticContext[] path = new DiagnosticContext[depth];
+                int n = 0;
+                DiagnosticContext frame = this;
+                while (frame.parent != null && frame.fullMessage == null) {
+                    path[n++] = frame;
+                    frame = frame.parent;
+                }
+                StringBuilder buf = new StringBuilder();
+                buf.append(frame.fullMessage);
+                while (n > 0) {
+                    buf.append(' ').append(path[--n].message);
+                }
+                full = buf.toString();
+                fullMessage = full;
+            }
+            return full;
+        }
     }
 }
-
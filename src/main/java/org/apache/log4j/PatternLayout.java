@@ -17,9 +17,13 @@
 
 package org.apache.log4j;
 
+import org.apache.log4j.spi.ByteLayout;
 import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.helpers.ByteSink;
+import org.apache.log4j.helpers.CompiledPatternConverter;
 import org.apache.log4j.helpers.PatternParser;
 import org.apache.log4j.helpers.PatternConverter;
+import org.apache.log4j.helpers.ThreadLocalStringBuilder;
 
 
 // Contributors:   Nelson Minar <nelson@monkey.org>
@@ -28,11 +32,14 @@ import org.apache.log4j.helpers.PatternConverter;
 /**
  * A flexible layout configurable with pattern string.
  * <p>
- * This code is known to have synchronization and other issues
- * which are not present in org.apache.log4j.EnhancedPatternLayout.
+ * This code is known to have issues which are not present in
+ * org.apache.log4j.EnhancedPatternLayout.
  * EnhancedPatternLayout should be used in preference to PatternLayout.
  * EnhancedPatternLayout is distributed in the log4j extras companion.
  *
+ * <p>PatternLayout may be called concurrently, each thread formats into
+ * its own buffer.
+ *
  * <p>The goal of this class is to {@link #format format} a {@link
  * LoggingEvent} and return the results as a String. The results
  * depend on the <em>conversion pattern</em>.
@@ -394,7 +401,7 @@ import org.apache.log4j.helpers.PatternConverter;
  * @author Ceki G&uuml;lc&uuml;
  * @since 0.8.2
  */
-public class PatternLayout extends Layout {
+public class PatternLayout extends Layout implements ByteLayout {
 
 
     /**
@@ -416,12 +423,13 @@ public class PatternLayout extends Layout {
     protected final int MAX_CAPACITY = 1024;
 
 
-    // output buffer appended to when format() is invoked
-    private StringBuffer sbuf = new StringBuffer(BUF_SIZE);
+    // per thread output buffers appended to when format() is invoked
+    private final ThreadLocalStringBuilder sbuf =
+            new ThreadLocalStringBuilder(BUF_SIZE, MAX_CAPACITY);
 
     private String pattern;
 
-    private PatternConverter head;
+    private volatile PatternConverter head;
 
     /**
      * Constructs a PatternLayout using the DEFAULT_LAYOUT_PATTERN.
@@ -437,8 +445,8 @@ public class PatternLayout extends Layout {
      */
     public PatternLayout(String pattern) {
         this.pattern = pattern;
-        head = createPatternParser((pattern == null) ? DEFAULT_CONVERSION_PATTERN :
-                pattern).parse();
+        head = CompiledPatternConverter.compile(createPatternParser(
+                (pattern == null) ? DEFAULT_CONVERSION_PATTERN : pattern).parse());
     }
 
     /**
@@ -448,7 +456,8 @@ public class PatternLayout extends Layout {
      */
     public void setConversionPattern(String conversionPattern) {
         pattern = conversionPattern;
-        head = createPatternParser(conversionPattern).parse();
+        head = CompiledPatternConverter.compile(
+                createPatternParser(conversionPattern).parse());
     }
 
     /**
@@ -492,19 +501,37 @@ public class PatternLayout extends Layout {
      * Produces a formatted string as specified by the conversion pattern.
      */
     public String format(LoggingEvent event) {
-        // Reset working stringbuffer
-        if (sbuf.capacity() > MAX_CAPACITY) {
-            sbuf = new StringBuffer(BUF_SIZE);
-        } else {
-            sbuf.setLength(0);
+        StringBuilder buf = sbuf.acquire();
+        try {
+            formatTo(buf, event);
+            return buf.toString();
+        } finally {
+            sbuf.release(buf);
+        }
+    }
+
+    /**
+     * Encodes the formatted event into <code>sink</code> without
+     * creating an intermediate String.
+     *
+     * @since 1.2.18
+     */
+    public void format(LoggingEvent event, ByteSink sink) {
+        StringBuilder buf = sbuf.acquire();
+        try {
+            formatTo(buf, event);
+            sink.append(buf);
+        } finally {
+            sbuf.release(buf);
         }
+    }
 
+    private void formatTo(StringBuilder buf, LoggingEvent event) {
         PatternConverter c = head;
 
         while (c != null) {
-            c.format(sbuf, event);
+            c.format(buf, event);
             c = c.next;
         }
-        return sbuf.toString();
     }
 }
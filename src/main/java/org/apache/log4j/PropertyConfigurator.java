@@ -95,6 +95,7 @@ public class PropertyConfigurator implements Configurator {
     static final String RENDERER_PREFIX = "log4j.renderer.";
     static final String THRESHOLD_PREFIX = "log4j.threshold";
     private static final String THROWABLE_RENDERER_PREFIX = "log4j.throwableRenderer";
+    private static final String TURBO_FILTER_PREFIX = "log4j.turboFilter.";
     private static final String LOGGER_REF = "logger-ref";
     private static final String ROOT_REF = "root-ref";
     private static final String APPENDER_REF_TAG = "appender-ref";
@@ -274,6 +275,28 @@ public class PropertyConfigurator implements Configurator {
      * log4j.throwableRenderer=org.apache.log4j.EnhancedThrowableRenderer
      * </pre>
      *
+     * <h3>Turbo Filters</h3>
+     * <p>
+     * {@link org.apache.log4j.spi.TurboFilter Turbo filters} decide on
+     * logging requests before any logging event is created. They are
+     * consulted in the order of their IDs, and replace the turbo filters
+     * of a previous configuration.
+     *
+     * <p>The syntax is:
+     *
+     * <pre>
+     * log4j.turboFilter.ID=fully.qualified.name.of.filter.class
+     * log4j.turboFilter.ID.paramName=paramValue
+     * </pre>
+     * <p>
+     * As in,
+     * <pre>
+     * log4j.turboFilter.1=org.apache.log4j.varia.MDCTurboFilter
+     * log4j.turboFilter.1.Key=audit
+     * log4j.turboFilter.1.Value=off
+     * log4j.turboFilter.1.AcceptOnMatch=false
+     * </pre>
+     *
      * <h3>Logger Factories</h3>
      * <p>
      * The usage of custom logger factories is discouraged and no longer
@@ -480,6 +503,8 @@ public class PropertyConfigurator implements Configurator {
             LogLog.debug("Hierarchy threshold set to [" + hierarchy.getThreshold() + "].");
         }
 
+        parseTurboFilters(properties, hierarchy);
+
         //配置根属性
         configureRootCategory(properties, hierarchy);
         //配置LoggerFactory
@@ -813,10 +838,69 @@ public class PropertyConfigurator implements Configurator {
 
 
     void parseAppenderFilters(Properties props, String appenderName, Appender appender) {
-        // extract filters and filter options from props into a hashtable mapping
-        // the property name defining the filter class to a list of pre-parsed
-        // name-value pairs associated to that filter
         final String filterPrefix = APPENDER_PREFIX + appenderName + ".filter.";
+        Hashtable filters = parseFilterOptions(props, filterPrefix);
+
+        // sort filters by IDs, insantiate filters, set filter options,
+        // add filters to the appender
+        Enumeration g = new SortedKeyEnumeration(filters);
+        while (g.hasMoreElements()) {
+            String key = (String) g.nextElement();
+            String clazz = props.getProperty(key);
+            if (clazz != null) {
+                LogLog.debug("Filter key: [" + key + "] class: [" + props.getProperty(key) + "] props: " + filters.get(key));
+                Filter filter = (Filter) OptionConverter.instantiateByClassName(clazz, Filter.class, null);
+                if (filter != null) {
+                    setFilterOptions(filter, (Vector) filters.get(key));
+                    LogLog.debug("Adding filter of type [" + filter.getClass() + "] to appender named [" + appender.getName() + "].");
+                    appender.addFilter(filter);
+                }
+            } else {
+                LogLog.warn("Missing class definition for filter: [" + key + "]");
+            }
+        }
+    }
+
+    /**
+     * Parse the turbo filters of the repository, see {@link
+     * org.apache.log4j.spi.TurboFilter}.
+     *
+     * @since 1.2.18
+     */
+    void parseTurboFilters(Properties props, LoggerRepository hierarchy) {
+        if (!(hierarchy instanceof TurboFilterSupport)) {
+            return;
+        }
+        Hashtable filters = parseFilterOptions(props, TURBO_FILTER_PREFIX);
+        if (filters.isEmpty()) {
+            return;
+        }
+        TurboFilterSupport support = (TurboFilterSupport) hierarchy;
+        support.clearTurboFilters();
+        Enumeration g = new SortedKeyEnumeration(filters);
+        while (g.hasMoreElements()) {
+            String key = (String) g.nextElement();
+            String clazz = OptionConverter.findAndSubst(key, props);
+            if (clazz != null) {
+                LogLog.debug("Turbo filter key: [" + key + "] class: [" + clazz + "] props: " + filters.get(key));
+                TurboFilter filter = (TurboFilter) OptionConverter.instantiateByClassName(clazz, TurboFilter.class, null);
+                if (filter != null) {
+                    setFilterOptions(filter, (Vector) filters.get(key));
+                    LogLog.debug("Adding turbo filter of type [" + filter.getClass() + "].");
+                    support.addTurboFilter(filter);
+                }
+            } else {
+                LogLog.warn("Missing class definition for turbo filter: [" + key + "]");
+            }
+        }
+    }
+
+    /**
+     * Extract filters and filter options from props into a hashtable
+     * mapping the property name defining the filter class to a list of
+     * pre-parsed name-value pairs associated to that filter.
+     */
+    private Hashtable parseFilterOptions(Properties props, String filterPrefix) {
         int fIdx = filterPrefix.length();
         Hashtable filters = new Hashtable();
         Enumeration e = props.keys();
@@ -841,32 +925,17 @@ public class PropertyConfigurator implements Configurator {
                 }
             }
         }
+        return filters;
+    }
 
-        // sort filters by IDs, insantiate filters, set filter options,
-        // add filters to the appender
-        Enumeration g = new SortedKeyEnumeration(filters);
-        while (g.hasMoreElements()) {
-            String key = (String) g.nextElement();
-            String clazz = props.getProperty(key);
-            if (clazz != null) {
-                LogLog.debug("Filter key: [" + key + "] class: [" + props.getProperty(key) + "] props: " + filters.get(key));
-                Filter filter = (Filter) OptionConverter.instantiateByClassName(clazz, Filter.class, null);
-                if (filter != null) {
-                    PropertySetter propSetter = new PropertySetter(filter);
-                    Vector v = (Vector) filters.get(key);
-                    Enumeration filterProps = v.elements();
-                    while (filterProps.hasMoreElements()) {
-                        NameValue kv = (NameValue) filterProps.nextElement();
-                        propSetter.setProperty(kv.key, kv.value);
-                    }
-                    propSetter.activate();
-                    LogLog.debug("Adding filter of type [" + filter.getClass() + "] to appender named [" + appender.getName() + "].");
-                    appender.addFilter(filter);
-                }
-            } else {
-                LogLog.warn("Missing class definition for filter: [" + key + "]");
-            }
+    private void setFilterOptions(Object filter, Vector options) {
+        PropertySetter propSetter = new PropertySetter(filter);
+        Enumeration filterProps = options.elements();
+        while (filterProps.hasMoreElements()) {
+            NameValue kv = (NameValue) filterProps.nextElement();
+            propSetter.setProperty(kv.key, kv.value);
         }
+        propSetter.activate();
     }
 
 
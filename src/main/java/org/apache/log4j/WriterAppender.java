@@ -17,16 +17,24 @@
 
 package org.apache.log4j;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
+import org.apache.log4j.helpers.ByteLayoutAdapter;
+import org.apache.log4j.helpers.ByteSink;
+import org.apache.log4j.helpers.CountingQuietWriter;
 import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.helpers.QuietWriter;
+import org.apache.log4j.spi.ByteLayout;
+import org.apache.log4j.spi.ErrorCode;
 import org.apache.log4j.spi.ErrorHandler;
 import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
 
 // Contibutors: Jens Uwe Pipka <jens.pipka@gmx.de>
 //              Ben Sandee
@@ -35,6 +43,13 @@ import org.apache.log4j.spi.LoggingEvent;
  * WriterAppender appends log events to a {@link java.io.Writer} or an
  * {@link java.io.OutputStream} depending on the user's choice.
  *
+ * <p>When the writer was created by {@link #createWriter} and the layout
+ * implements {@link ByteLayout}, events are encoded by the layout
+ * directly into a reusable {@link ByteSink} and written to the
+ * underlying stream, bypassing the writer. Layouts that override
+ * <code>format(LoggingEvent)</code> only are used through the writer, see
+ * {@link ByteLayoutAdapter#isNative}.
+ *
  * @author Ceki G&uuml;lc&uuml;
  * @since 1.1
  */
@@ -70,6 +85,40 @@ public class WriterAppender extends AppenderSkeleton {
      */
     protected QuietWriter qw;
 
+    /**
+     * Writer most recently returned by {@link #createWriter} and the
+     * stream it wraps.
+     */
+    private OutputStreamWriter createdWriter;
+    private OutputStream createdStream;
+
+    /**
+     * Buffered stream underneath {@link #qw} used for {@link ByteLayout}
+     * output, null if events must go through the writer.
+     */
+    private OutputStream byteStream;
+
+    /**
+     * Reusable buffer events are encoded into when using {@link #byteStream}.
+     */
+    private ByteSink byteSink;
+
+    /**
+     * True if characters may have been written to {@link #qw} since the
+     * last write to {@link #byteStream}.
+     */
+    private boolean charsPending;
+
+    /**
+     * Layout for which {@link #nativeByteLayout} was determined.
+     */
+    private Layout checkedLayout;
+
+    /**
+     * True if {@link #checkedLayout} may be used as a {@link ByteLayout}.
+     */
+    private boolean nativeByteLayout;
+
 
     /**
      * This default constructor does nothing.
@@ -246,6 +295,8 @@ public class WriterAppender extends AppenderSkeleton {
         if (retval == null) {
             retval = new OutputStreamWriter(os);
         }
+        createdWriter = retval;
+        createdStream = os;
         return retval;
     }
 
@@ -291,9 +342,86 @@ public class WriterAppender extends AppenderSkeleton {
         reset();
         this.qw = new QuietWriter(writer, errorHandler);
         //this.tp = new TracerPrintWriter(qw);
+        bindByteStream(writer, 0);
         writeHeader();
     }
 
+    /**
+     * Routes {@link ByteLayout} output to the stream underneath
+     * <code>writer</code> when <code>writer</code> is the one most recently
+     * returned by {@link #createWriter}, since only then are the stream and
+     * the charset known.
+     *
+     * @param writer     writer just installed as {@link #qw}.
+     * @param bufferSize size of the buffer for the stream, 0 for the default.
+     */
+    void bindByteStream(Writer writer, int bufferSize) {
+        OutputStream os = null;
+        if (writer != null && writer == createdWriter) {
+            os = createdStream;
+        }
+        createdWriter = null;
+        createdStream = null;
+        if (os == null) {
+            return;
+        }
+        Charset charset;
+        try {
+            charset = Charset.forName(((OutputStreamWriter) writer).getEncoding());
+        } catch (RuntimeException e) {
+            LogLog.debug("Unknown charset, events will be written through the writer.", e);
+            return;
+        }
+        if ("UTF-16".equals(charset.name()) || "UTF-32".equals(charset.name())) {
+            //  the writer may emit a byte order mark on first use
+            return;
+        }
+        if (bufferSize > 0) {
+            byteStream = new BufferedOutputStream(os, bufferSize);
+        } else {
+            byteStream = new BufferedOutputStream(os);
+        }
+        if (byteSink == null || !byteSink.getCharset().equals(charset)) {
+            byteSink = new ByteSink(charset);
+        }
+        charsPending = false;
+    }
+
+    /**
+     * Flushes and forgets the stream used for {@link ByteLayout} output.
+     * Called before the underlying writer is closed.
+     */
+    void releaseByteStream() {
+        if (byteStream != null) {
+            try {
+                byteStream.flush();
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+                LogLog.error("Could not flush " + byteStream, e);
+            }
+            byteStream = null;
+        }
+    }
+
+    /**
+     * Flushes bytes written directly to the stream so that characters
+     * written to {@link #qw} afterwards appear after them.
+     */
+    private void flushByteStream() {
+        if (byteStream != null) {
+            try {
+                byteStream.flush();
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+                errorHandler.error("Failed to flush stream,", e, ErrorCode.FLUSH_FAILURE);
+            }
+        }
+    }
+
 
     /**
      * Actual writing occurs here.
@@ -304,15 +432,24 @@ public class WriterAppender extends AppenderSkeleton {
      * @since 0.9.0
      */
     protected void subAppend(LoggingEvent event) {
+        if (byteStream != null && isNativeByteLayout()) {
+            subAppendBytes(event, (ByteLayout) layout);
+            return;
+        }
+        charsPending = true;
         this.qw.write(this.layout.format(event));
 
         if (layout.ignoresThrowable()) {
-            String[] s = event.getThrowableStrRep();
-            if (s != null) {
-                int len = s.length;
-                for (int i = 0; i < len; i++) {
-                    this.qw.write(s[i]);
-                    this.qw.write(Layout.LINE_SEP);
+            ThrowableInformation information = event.getThrowableInformation();
+            if (information != null) {
+                try {
+                    information.appendTo(this.qw, Layout.LINE_SEP);
+                } catch (IOException e) {
+                    if (e instanceof InterruptedIOException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    errorHandler.error("Failed to write throwable.", e,
+                            ErrorCode.WRITE_FAILURE);
                 }
             }
         }
@@ -323,6 +460,59 @@ public class WriterAppender extends AppenderSkeleton {
     }
 
 
+    /**
+     * Returns true if the current layout can encode events itself, the
+     * answer being kept until the layout changes.
+     */
+    private boolean isNativeByteLayout() {
+        if (layout != checkedLayout) {
+            nativeByteLayout = ByteLayoutAdapter.isNative(layout);
+            checkedLayout = layout;
+        }
+        return nativeByteLayout;
+    }
+
+    /**
+     * Encodes the event with <code>byteLayout</code> and writes the bytes
+     * to the stream underneath the writer.
+     */
+    private void subAppendBytes(LoggingEvent event, ByteLayout byteLayout) {
+        if (charsPending) {
+            this.qw.flush();
+            charsPending = false;
+        }
+        ByteSink sink = byteSink;
+        sink.clear();
+        byteLayout.format(event, sink);
+        if (layout.ignoresThrowable()) {
+            ThrowableInformation information = event.getThrowableInformation();
+            if (information != null) {
+                try {
+                    information.appendTo(sink, Layout.LINE_SEP);
+                } catch (IOException e) {
+                    // not thrown by ByteSink
+                }
+            }
+        }
+        try {
+            sink.writeTo(byteStream);
+            if (shouldFlush(event)) {
+                byteStream.flush();
+            }
+        } catch (IOException e) {
+            if (e instanceof InterruptedIOException) {
+                Thread.currentThread().interrupt();
+            }
+            errorHandler.error("Failed to write [" + sink.size() + "] bytes.", e,
+                    ErrorCode.WRITE_FAILURE);
+        }
+        if (this.qw instanceof CountingQuietWriter) {
+            CountingQuietWriter cqw = (CountingQuietWriter) this.qw;
+            cqw.setCount(cqw.getCount() + sink.size());
+        }
+    }
+
+
     /**
      * The WriterAppender requires a layout. Hence, this method returns
      * <code>true</code>.
@@ -338,6 +528,7 @@ public class WriterAppender extends AppenderSkeleton {
      * behavior.
      */
     protected void reset() {
+        releaseByteStream();
         closeWriter();
         this.qw = null;
         //this.tp = null;
@@ -352,6 +543,7 @@ public class WriterAppender extends AppenderSkeleton {
         if (layout != null) {
             String f = layout.getFooter();
             if (f != null && this.qw != null) {
+                flushByteStream();
                 this.qw.write(f);
                 this.qw.flush();
             }
@@ -365,8 +557,11 @@ public class WriterAppender extends AppenderSkeleton {
     protected void writeHeader() {
         if (layout != null) {
             String h = layout.getHeader();
-            if (h != null && this.qw != null)
+            if (h != null && this.qw != null) {
+                flushByteStream();
                 this.qw.write(h);
+                charsPending = true;
+            }
         }
     }
 
@@ -23,6 +23,7 @@ import java.util.TimeZone;
 import java.text.FieldPosition;
 import java.text.ParsePosition;
 import java.text.DateFormat;
+import java.text.NumberFormat;
 
 
 /**
@@ -59,14 +60,19 @@ public class AbsoluteTimeDateFormat extends DateFormat {
 
     public AbsoluteTimeDateFormat() {
         setCalendar(Calendar.getInstance());
+        // unused, but DateFormat.clone() and hashCode() require one
+        setNumberFormat(NumberFormat.getIntegerInstance());
     }
 
     public AbsoluteTimeDateFormat(TimeZone timeZone) {
         setCalendar(Calendar.getInstance(timeZone));
+        setNumberFormat(NumberFormat.getIntegerInstance());
     }
 
-    private static long previousTime;
-    private static char[] previousTimeWithoutMillis = new char[9]; // "HH:mm:ss."
+    /**
+     * Shared formatter for the current time zone of this format.
+     */
+    private transient FixedDateFormatter formatter;
 
     /**
      * Appends to <code>sbuf</code> the time in the format
@@ -78,56 +84,26 @@ public class AbsoluteTimeDateFormat extends DateFormat {
      */
     public StringBuffer format(Date date, StringBuffer sbuf,
                                FieldPosition fieldPosition) {
+        getFormatter().format(date.getTime(), sbuf);
+        return sbuf;
+    }
 
-        long now = date.getTime();
-        int millis = (int) (now % 1000);
-
-        if ((now - millis) != previousTime || previousTimeWithoutMillis[0] == 0) {
-            // We reach this point at most once per second
-            // across all threads instead of each time format()
-            // is called. This saves considerable CPU time.
-
-            calendar.setTime(date);
-
-            int start = sbuf.length();
-
-            int hour = calendar.get(Calendar.HOUR_OF_DAY);
-            if (hour < 10) {
-                sbuf.append('0');
-            }
-            sbuf.append(hour);
-            sbuf.append(':');
-
-            int mins = calendar.get(Calendar.MINUTE);
-            if (mins < 10) {
-                sbuf.append('0');
-            }
-            sbuf.append(mins);
-            sbuf.append(':');
-
-            int secs = calendar.get(Calendar.SECOND);
-            if (secs < 10) {
-                sbuf.append('0');
-            }
-            sbuf.append(secs);
-            sbuf.append(',');
-
-            // store the time string for next time to avoid recomputation
-            sbuf.getChars(start, sbuf.length(), previousTimeWithoutMillis, 0);
-
-            previousTime = now - millis;
-        } else {
-            sbuf.append(previousTimeWithoutMillis);
+    /**
+     * Returns the formatter for the time zone of this format, creating
+     * a new one if the time zone has changed since the last call.
+     */
+    final FixedDateFormatter getFormatter() {
+        FixedDateFormatter f = formatter;
+        TimeZone zone = calendar.getTimeZone();
+        if (f == null || f.getTimeZone() != zone) {
+            f = createFormatter(zone);
+            formatter = f;
         }
+        return f;
+    }
 
-
-        if (millis < 100)
-            sbuf.append('0');
-        if (millis < 10)
-            sbuf.append('0');
-
-        sbuf.append(millis);
-        return sbuf;
+    FixedDateFormatter createFormatter(TimeZone zone) {
+        return FixedDateFormatter.getInstance(ABS_TIME_DATE_FORMAT, zone);
     }
 
     /**
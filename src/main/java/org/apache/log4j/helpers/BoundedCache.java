@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent map of bounded size for memoizing values that are cheap
+ * to recompute, such as abbreviated logger names.
+ *
+ * <p>Lookups do not lock. When an insertion would exceed the maximum
+ * size, all entries are dropped first; the cache then refills with the
+ * entries actually in use. Neither keys nor values may be
+ * <code>null</code>.
+ *
+ * @since 1.2.18
+ */
+public final class BoundedCache {
+
+    private final int maxSize;
+    private final ConcurrentHashMap map;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize maximum number of entries kept.
+     */
+    public BoundedCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap(Math.min(maxSize, 64));
+    }
+
+    /**
+     * Gets the value cached for <code>key</code>.
+     *
+     * @param key key, may not be null.
+     * @return cached value or <code>null</code>.
+     */
+    public Object get(final Object key) {
+        return map.get(key);
+    }
+
+    /**
+     * Caches <code>value</code> for <code>key</code>.
+     *
+     * @param key   key, may not be null.
+     * @param value value, may not be null.
+     */
+    public void put(final Object key, final Object value) {
+        if (map.size() >= maxSize) {
+            map.clear();
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return number of entries.
+     */
+    public int size() {
+        return map.size();
+    }
+}
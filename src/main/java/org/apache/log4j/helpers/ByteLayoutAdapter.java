@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.ByteLayout;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Presents any {@link Layout} as a {@link ByteLayout} by encoding the
+ * <code>String</code> it returns.
+ *
+ * @since 1.2.18
+ */
+public final class ByteLayoutAdapter implements ByteLayout {
+
+    /**
+     * Results of {@link #isNative} by layout class, weakly keyed so that
+     * classes of other applications can be unloaded.
+     */
+    private static final Map NATIVE_CLASSES = new WeakHashMap();
+
+    private final Layout layout;
+
+    private ByteLayoutAdapter(final Layout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Gets a byte layout for <code>layout</code>. Layouts that implement
+     * {@link ByteLayout} natively, as defined by {@link #isNative}, are
+     * returned unchanged.
+     *
+     * @param layout layout, may not be null.
+     * @return byte layout.
+     */
+    public static ByteLayout wrap(final Layout layout) {
+        if (layout == null) {
+            throw new NullPointerException("layout");
+        }
+        if (isNative(layout)) {
+            return (ByteLayout) layout;
+        }
+        return new ByteLayoutAdapter(layout);
+    }
+
+    /**
+     * Determines whether the {@link ByteLayout} implementation of
+     * <code>layout</code> can be used in place of
+     * {@link Layout#format(LoggingEvent)}. This is not the case when a
+     * subclass overrides <code>format(LoggingEvent)</code> without also
+     * overriding <code>format(LoggingEvent, ByteSink)</code>, for instance
+     * to mask parts of the message.
+     *
+     * @param layout layout, may be null.
+     * @return true if the layout may be used as a ByteLayout.
+     */
+    public static boolean isNative(final Layout layout) {
+        if (!(layout instanceof ByteLayout)) {
+            return false;
+        }
+        Class layoutClass = layout.getClass();
+        synchronized (NATIVE_CLASSES) {
+            Boolean result = (Boolean) NATIVE_CLASSES.get(layoutClass);
+            if (result == null) {
+                result = Boolean.valueOf(declaresByteFormat(layoutClass));
+                NATIVE_CLASSES.put(layoutClass, result);
+            }
+            return result.booleanValue();
+        }
+    }
+
+    /**
+     * Returns true if the byte format method is declared by the class
+     * declaring the String format method or by one of its subclasses.
+     */
+    private static boolean declaresByteFormat(final Class layoutClass) {
+        try {
+            Method stringFormat = layoutClass.getMethod("format",
+                    new Class[]{LoggingEvent.class});
+            Method byteFormat = layoutClass.getMethod("format",
+                    new Class[]{LoggingEvent.class, ByteSink.class});
+            return stringFormat.getDeclaringClass().isAssignableFrom(
+                    byteFormat.getDeclaringClass());
+        } catch (NoSuchMethodException e) {
+            return false;
+        } catch (SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the adapted layout.
+     *
+     * @return layout.
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void format(final LoggingEvent event, final ByteSink sink) {
+        sink.append(layout.format(event));
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * ByteSink is a growable byte buffer bound to a fixed charset. Characters
+ * are encoded as they are appended, so that a {@link
+ * org.apache.log4j.spi.ByteLayout ByteLayout} can produce the bytes of a
+ * log record without first building a <code>String</code>.
+ *
+ * <p>US-ASCII, ISO-8859-1 and UTF-8 are encoded inline, other charsets go
+ * through a {@link CharsetEncoder}. Unmappable characters are replaced in
+ * the same way as by {@link java.io.OutputStreamWriter}. UTF-16 and UTF-32
+ * are encoded big-endian without a byte order mark, since each append
+ * would otherwise start with one.
+ *
+ * <p>A ByteSink is meant to be reused, one event after the other, by a
+ * single thread or under the lock of its owner. It is not thread safe.
+ *
+ * @since 1.2.18
+ */
+public final class ByteSink implements Appendable {
+
+    static final int ENCODE_OTHER = 0;
+    static final int ENCODE_ASCII = 1;
+    static final int ENCODE_LATIN1 = 2;
+    static final int ENCODE_UTF8 = 3;
+
+    /**
+     * Buffers larger than this are discarded by {@link #clear}.
+     */
+    static final int MAX_RETAINED_CAPACITY = 32 * 1024;
+
+    private final Charset charset;
+    private final int encoding;
+    private final int initialCapacity;
+    private CharsetEncoder encoder;
+    private byte[] buf;
+    private int count;
+
+    /**
+     * Creates a sink encoding with <code>charset</code>.
+     *
+     * @param charset charset, may not be null.
+     */
+    public ByteSink(final Charset charset) {
+        this(charset, 256);
+    }
+
+    /**
+     * Creates a sink encoding with <code>charset</code>.
+     *
+     * @param charset         charset, may not be null.
+     * @param initialCapacity initial size of the buffer in bytes.
+     */
+    public ByteSink(final Charset charset, final int initialCapacity) {
+        if (charset == null) {
+            throw new NullPointerException("charset");
+        }
+        this.charset = charset;
+        this.initialCapacity = initialCapacity > 0 ? initialCapacity : 256;
+        this.buf = new byte[this.initialCapacity];
+        String name = charset.name();
+        if ("UTF-8".equals(name)) {
+            encoding = ENCODE_UTF8;
+        } else if ("ISO-8859-1".equals(name)) {
+            encoding = ENCODE_LATIN1;
+        } else if ("US-ASCII".equals(name)) {
+            encoding = ENCODE_ASCII;
+        } else {
+            encoding = ENCODE_OTHER;
+        }
+    }
+
+    /**
+     * Gets the charset used to encode appended characters.
+     *
+     * @return charset.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Appends a single character.
+     *
+     * @param c character.
+     * @return this sink.
+     */
+    public ByteSink append(final char c) {
+        if (c < 0x80 && encoding != ENCODE_OTHER) {
+            ensureCapacity(1);
+            buf[count++] = (byte) c;
+        } else {
+            encode(String.valueOf(c), 0, 1);
+        }
+        return this;
+    }
+
+    /**
+     * Appends a character sequence. As with {@link StringBuffer}, a
+     * <code>null</code> sequence is appended as "null".
+     *
+     * @param s character sequence, may be null.
+     * @return this sink.
+     */
+    public ByteSink append(final CharSequence s) {
+        if (s == null) {
+            return append("null", 0, 4);
+        }
+        return append(s, 0, s.length());
+    }
+
+    /**
+     * Appends a sub-sequence of a character sequence.
+     *
+     * @param s     character sequence, may not be null.
+     * @param start index of first character.
+     * @param end   index after last character.
+     * @return this sink.
+     */
+    public ByteSink append(final CharSequence s, final int start, final int end) {
+        switch (encoding) {
+            case ENCODE_UTF8:
+                appendUTF8(s, start, end);
+                break;
+            case ENCODE_LATIN1:
+                appendSingleByte(s, start, end, 0x100);
+                break;
+            case ENCODE_ASCII:
+                appendSingleByte(s, start, end, 0x80);
+                break;
+            default:
+                encode(s, start, end);
+        }
+        return this;
+    }
+
+    /**
+     * Appends bytes that are already encoded.
+     *
+     * @param b   bytes.
+     * @param off offset of first byte.
+     * @param len number of bytes.
+     * @return this sink.
+     */
+    public ByteSink append(final byte[] b, final int off, final int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+        return this;
+    }
+
+    /**
+     * Gets the number of bytes in the sink.
+     *
+     * @return number of bytes.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discards the content of the sink. Buffers that have grown very
+     * large are released.
+     */
+    public void clear() {
+        count = 0;
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[initialCapacity];
+        }
+    }
+
+    /**
+     * Gets the backing array. Only the first {@link #size} bytes are
+     * meaningful and the array is only valid until the next append.
+     *
+     * @return backing array.
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Gets a read only view of the content of the sink.
+     *
+     * @return buffer positioned at zero with limit {@link #size}.
+     */
+    public ByteBuffer getByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets a copy of the content of the sink.
+     *
+     * @return new byte array.
+     */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[count];
+        System.arraycopy(buf, 0, copy, 0, count);
+        return copy;
+    }
+
+    /**
+     * Writes the content of the sink to a stream.
+     *
+     * @param os destination stream.
+     * @throws IOException if thrown by the stream.
+     */
+    public void writeTo(final OutputStream os) throws IOException {
+        os.write(buf, 0, count);
+    }
+
+    private void ensureCapacity(final int n) {
+        if (count + n > buf.length) {
+            int newLength = buf.length * 2;
+            if (newLength < count + n) {
+                newLength = count + n;
+            }
+            byte[] newBuf = new byte[newLength];
+            System.arraycopy(buf, 0, newBuf, 0, count);
+            buf = newBuf;
+        }
+    }
+
+    private void appendSingleByte(final CharSequence s, final int start, final int end,
+                                  final int limit) {
+        ensureCapacity(end - start);
+        byte[] b = buf;
+        int pos = count;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < limit) {
+                b[pos++] = (byte) c;
+            } else {
+                if (Character.isHighSurrogate(c) && i + 1 < end
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    i++;
+                }
+                b[pos++] = (byte) '?';
+            }
+        }
+        count = pos;
+    }
+
+    private void appendUTF8(final CharSequence s, final int start, final int end) {
+        //  worst case is three bytes for each char, surrogate pairs
+        //     take four bytes for two chars.
+        ensureCapacity((end - start) * 3);
+        byte[] b = buf;
+        int pos = count;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                b[pos++] = (byte) (0xC0 | (c >> 6));
+                b[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    b[pos++] = (byte) (0xF0 | (cp >> 18));
+                    b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    b[pos++] = (byte) '?';
+                }
+            } else {
+                b[pos++] = (byte) (0xE0 | (c >> 12));
+                b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        count = pos;
+    }
+
+    private void encode(final CharSequence s, final int start, final int end) {
+        if (encoder == null) {
+            Charset encoderCharset = charset;
+            if ("UTF-16".equals(charset.name())) {
+                encoderCharset = Charset.forName("UTF-16BE");
+            } else if ("UTF-32".equals(charset.name())) {
+                encoderCharset = Charset.forName("UTF-32BE");
+            }
+            encoder = encoderCharset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        } else {
+            encoder.reset();
+        }
+        CharBuffer in = CharBuffer.wrap(s, start, end);
+        ensureCapacity((int) ((end - start) * encoder.averageBytesPerChar()) + 1);
+        boolean flushing = false;
+        for (; ;) {
+            ByteBuffer out = ByteBuffer.wrap(buf, count, buf.length - count);
+            CoderResult result;
+            if (flushing) {
+                result = encoder.flush(out);
+            } else {
+                result = encoder.encode(in, out, true);
+            }
+            count = out.position();
+            if (result.isOverflow()) {
+                ensureCapacity((int) encoder.maxBytesPerChar() + in.remaining() + 16);
+            } else if (!flushing) {
+                flushing = true;
+            } else {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats a complete conversion pattern in a single pass.
+ *
+ * <p>{@link #compile} flattens the chain of converters built by
+ * {@link PatternParser} into a small program. Adjacent literals are
+ * merged, fields without a minimum or maximum width are appended
+ * directly, padded fields are adjusted in place without an intermediate
+ * String, and the standard conversion characters are dispatched through
+ * a switch rather than one virtual call per converter. Converters that
+ * are not known to the compiler, for instance those added by a
+ * PatternParser subclass, are invoked as usual.
+ *
+ * @since 1.2.18
+ */
+public final class CompiledPatternConverter extends PatternConverter {
+
+    private static final int LITERAL = 0;
+    private static final int MESSAGE = 1;
+    private static final int LEVEL = 2;
+    private static final int THREAD = 3;
+    private static final int NDC = 4;
+    private static final int RELATIVE_TIME = 5;
+    private static final int CATEGORY = 6;
+    private static final int CLASS_NAME = 7;
+    private static final int FULL_LOCATION = 8;
+    private static final int METHOD = 9;
+    private static final int LINE = 10;
+    private static final int FILE = 11;
+    private static final int DATE = 12;
+    private static final int MDC = 13;
+    private static final int CONVERTER = 14;
+
+    private final int[] ops;
+    private final Object[] operands;
+    private final int[] mins;
+    private final int[] maxs;
+    private final boolean[] leftAligns;
+    private final boolean[] padded;
+
+    private CompiledPatternConverter(List steps) {
+        int n = steps.size();
+        ops = new int[n];
+        operands = new Object[n];
+        mins = new int[n];
+        maxs = new int[n];
+        leftAligns = new boolean[n];
+        padded = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Step step = (Step) steps.get(i);
+            ops[i] = step.op;
+            operands[i] = step.operand;
+            if (step.converter != null) {
+                mins[i] = step.converter.min;
+                maxs[i] = step.converter.max;
+                leftAligns[i] = step.converter.leftAlign;
+                padded[i] = mins[i] > 0 || maxs[i] != Integer.MAX_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Compiles the converter chain starting at <code>head</code>. The
+     * chain itself is left untouched. Returns <code>null</code> if
+     * <code>head</code> is <code>null</code>.
+     */
+    public static PatternConverter compile(PatternConverter head) {
+        if (head == null) {
+            return null;
+        }
+        List steps = new ArrayList();
+        StringBuilder literal = new StringBuilder();
+        for (PatternConverter c = head; c != null; c = c.next) {
+            if (c.getClass() == PatternParser.LiteralPatternConverter.class) {
+                literal.append(((PatternParser.LiteralPatternConverter) c).literal);
+                continue;
+            }
+            if (literal.length() > 0) {
+                steps.add(new Step(LITERAL, literal.toString(), null));
+                literal.setLength(0);
+            }
+            steps.add(toStep(c));
+        }
+        if (literal.length() > 0) {
+            steps.add(new Step(LITERAL, literal.toString(), null));
+        }
+        return new CompiledPatternConverter(steps);
+    }
+
+    private static Step toStep(PatternConverter c) {
+        Class type = c.getClass();
+        if (type == PatternParser.BasicPatternConverter.class) {
+            switch (((PatternParser.BasicPatternConverter) c).type) {
+                case PatternParser.RELATIVE_TIME_CONVERTER:
+                    return new Step(RELATIVE_TIME, null, c);
+                case PatternParser.THREAD_CONVERTER:
+                    return new Step(THREAD, null, c);
+                case PatternParser.LEVEL_CONVERTER:
+                    return new Step(LEVEL, null, c);
+                case PatternParser.NDC_CONVERTER:
+                    return new Step(NDC, null, c);
+                case PatternParser.MESSAGE_CONVERTER:
+                    return new Step(MESSAGE, null, c);
+                default:
+                    break;
+            }
+        } else if (type == PatternParser.LocationPatternConverter.class) {
+            switch (((PatternParser.LocationPatternConverter) c).type) {
+                case PatternParser.FULL_LOCATION_CONVERTER:
+                    return new Step(FULL_LOCATION, null, c);
+                case PatternParser.METHOD_LOCATION_CONVERTER:
+                    return new Step(METHOD, null, c);
+                case PatternParser.LINE_LOCATION_CONVERTER:
+                    return new Step(LINE, null, c);
+                case PatternParser.FILE_LOCATION_CONVERTER:
+                    return new Step(FILE, null, c);
+                default:
+                    break;
+            }
+        } else if (type == PatternParser.DatePatternConverter.class) {
+            return new Step(DATE, c, c);
+        } else if (type == PatternParser.MDCPatternConverter.class) {
+            return new Step(MDC, c, c);
+        } else if (type == PatternParser.CategoryPatternConverter.class) {
+            return new Step(CATEGORY, c, c);
+        } else if (type == PatternParser.ClassNamePatternConverter.class) {
+            return new Step(CLASS_NAME, c, c);
+        }
+        // Unknown converters format themselves, padding included.
+        return new Step(CONVERTER, c, null);
+    }
+
+    protected String convert(LoggingEvent event) {
+        StringBuilder buf = new StringBuilder();
+        format(buf, event);
+        return buf.toString();
+    }
+
+    public void format(StringBuffer sbuf, LoggingEvent e) {
+        StringBuilder buf = new StringBuilder();
+        format(buf, e);
+        sbuf.append(buf);
+    }
+
+    public void format(StringBuilder sbuf, LoggingEvent e) {
+        final int[] ops = this.ops;
+        for (int i = 0; i < ops.length; i++) {
+            int start = sbuf.length();
+            switch (ops[i]) {
+                case LITERAL:
+                    sbuf.append((String) operands[i]);
+                    continue;
+                case CONVERTER:
+                    ((PatternConverter) operands[i]).format(sbuf, e);
+                    continue;
+                case MESSAGE:
+                    e.appendRenderedMessage(sbuf);
+                    break;
+                case LEVEL:
+                    sbuf.append(e.getLevel().toString());
+                    break;
+                case THREAD:
+                    appendNullable(sbuf, e.getThreadName());
+                    break;
+                case NDC:
+                    appendNullable(sbuf, e.getNDC());
+                    break;
+                case DATE:
+                    ((PatternParser.DatePatternConverter) operands[i]).appendDate(sbuf, e);
+                    break;
+                case MDC:
+                    appendNullable(sbuf,
+                            ((PatternParser.MDCPatternConverter) operands[i]).convert(e));
+                    break;
+                case RELATIVE_TIME:
+                    sbuf.append(e.timeStamp - LoggingEvent.getStartTime());
+                    break;
+                case CATEGORY:
+                    sbuf.append(((PatternParser.NamedPatternConverter) operands[i])
+                            .abbreviate(e.getLoggerName()));
+                    break;
+                case CLASS_NAME:
+                    sbuf.append(((PatternParser.NamedPatternConverter) operands[i])
+                            .abbreviate(e.getLocationInformation().getClassName()));
+                    break;
+                case FULL_LOCATION:
+                    appendNullable(sbuf, e.getLocationInformation().fullInfo);
+                    break;
+                case METHOD:
+                    appendNullable(sbuf, e.getLocationInformation().getMethodName());
+                    break;
+                case LINE:
+                    appendNullable(sbuf, e.getLocationInformation().getLineNumber());
+                    break;
+                case FILE:
+                    appendNullable(sbuf, e.getLocationInformation().getFileName());
+                    break;
+                default:
+                    break;
+            }
+            if (padded[i]) {
+                pad(sbuf, start, mins[i], maxs[i], leftAligns[i]);
+            }
+        }
+    }
+
+    private static void appendNullable(StringBuilder sbuf, String s) {
+        if (s != null) {
+            sbuf.append(s);
+        }
+    }
+
+    /**
+     * Applies the minimum and maximum width to the field appended at
+     * <code>start</code>: a field longer than <code>max</code> keeps its
+     * last characters, a shorter one than <code>min</code> is space padded.
+     */
+    private void pad(StringBuilder sbuf, int start, int min, int max,
+                     boolean leftAlign) {
+        int len = sbuf.length() - start;
+        if (len > max) {
+            sbuf.delete(start, start + len - max);
+        } else if (len < min) {
+            if (leftAlign) {
+                spacePad(sbuf, min - len);
+            } else {
+                int count = min - len;
+                while (count >= 32) {
+                    sbuf.insert(start, SPACES[5]);
+                    count -= 32;
+                }
+                for (int i = 4; i >= 0; i--) {
+                    if ((count & (1 << i)) != 0) {
+                        sbuf.insert(start, SPACES[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Step {
+        final int op;
+        final Object operand;
+        final PatternConverter converter;
+
+        Step(int op, Object operand, PatternConverter converter) {
+            this.op = op;
+            this.operand = operand;
+            this.converter = converter;
+        }
+    }
+}
@@ -132,7 +132,14 @@ abstract public class DateLayout extends Layout {
     }
 
     public void dateFormat(StringBuffer buf, LoggingEvent event) {
-        if (dateFormat != null) {
+        if (dateFormat == null) {
+            return;
+        }
+        FixedDateFormatter fixed = FixedDateFormatter.forFixedFormat(dateFormat);
+        if (fixed != null) {
+            fixed.format(event.timeStamp, buf);
+            buf.append(' ');
+        } else {
             date.setTime(event.timeStamp);
             dateFormat.format(date, buf, this.pos);
             buf.append(' ');
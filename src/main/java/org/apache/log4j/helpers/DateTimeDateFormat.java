@@ -54,22 +54,13 @@ public class DateTimeDateFormat extends AbsoluteTimeDateFormat {
      */
     public StringBuffer format(Date date, StringBuffer sbuf,
                                FieldPosition fieldPosition) {
+        getFormatter().format(date.getTime(), sbuf);
+        return sbuf;
+    }
 
-        calendar.setTime(date);
-
-        int day = calendar.get(Calendar.DAY_OF_MONTH);
-        if (day < 10)
-            sbuf.append('0');
-        sbuf.append(day);
-        sbuf.append(' ');
-        sbuf.append(shortMonths[calendar.get(Calendar.MONTH)]);
-        sbuf.append(' ');
-
-        int year = calendar.get(Calendar.YEAR);
-        sbuf.append(year);
-        sbuf.append(' ');
-
-        return super.format(date, sbuf, fieldPosition);
+    FixedDateFormatter createFormatter(TimeZone zone) {
+        return FixedDateFormatter.getInstance(DATE_AND_TIME_DATE_FORMAT, zone,
+                shortMonths);
     }
 
     /**
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Formats time stamps in one of the fixed layouts used by log4j,
+ * "HH:mm:ss,SSS" (ABSOLUTE), "dd MMM yyyy HH:mm:ss,SSS" (DATE) and
+ * "yyyy-MM-dd HH:mm:ss,SSS" (ISO8601), without going through a
+ * {@link java.text.DateFormat}.
+ *
+ * <p>The date part is computed once per day and kept as a character
+ * array; the time of day is derived arithmetically from the time stamp
+ * and its digits are appended directly to the output buffer. Instances
+ * are immutable apart from that day cache, which is replaced atomically,
+ * so one instance may be shared by any number of threads.
+ *
+ * <p>Use {@link #getInstance(String, TimeZone)} to obtain a formatter
+ * for a pattern. Besides the ABSOLUTE, DATE and ISO8601 names, the
+ * {@link java.text.SimpleDateFormat} patterns of those shapes are
+ * recognized, with either ',' or '.' before the milliseconds and, for
+ * ISO8601, either ' ' or 'T' between date and time.
+ *
+ * @since 1.2.18
+ */
+public final class FixedDateFormatter {
+
+    private static final int NO_DATE = 0;
+    private static final int DATE_DAY_MONTH_YEAR = 1;
+    private static final int DATE_ISO8601 = 2;
+
+    private static final String ISO8601_DATE_PATTERN = "yyyy-MM-dd";
+    private static final String DAY_MONTH_YEAR_PATTERN = "dd MMM yyyy ";
+    private static final String TIME_PATTERN = "HH:mm:ss";
+    private static final String MILLIS_PATTERN = "SSS";
+
+    private static final long SECOND = 1000;
+    private static final long HOUR = 60 * 60 * SECOND;
+    private static final long DAY = 24 * HOUR;
+
+    private final int dateStyle;
+    private final char dateSeparator;
+    private final char millisSeparator;
+    private final TimeZone timeZone;
+    private final String[] shortMonths;
+
+    /**
+     * Date part of the current day, replaced when a time stamp falls
+     * outside of it.
+     */
+    private volatile Day day;
+
+    private FixedDateFormatter(int dateStyle, char dateSeparator,
+                               char millisSeparator, TimeZone timeZone,
+                               String[] shortMonths) {
+        this.dateStyle = dateStyle;
+        this.dateSeparator = dateSeparator;
+        this.millisSeparator = millisSeparator;
+        this.timeZone = timeZone;
+        this.shortMonths = shortMonths;
+    }
+
+    /**
+     * Returns a formatter for <code>pattern</code>, or <code>null</code>
+     * if the pattern is not one of the fixed layouts.
+     *
+     * @param pattern  "ABSOLUTE", "DATE", "ISO8601" or a SimpleDateFormat pattern.
+     * @param timeZone time zone, or <code>null</code> to follow the
+     *                 default time zone. The default is looked up again
+     *                 whenever the cached day is refreshed.
+     */
+    public static FixedDateFormatter getInstance(String pattern, TimeZone timeZone) {
+        return getInstance(pattern, timeZone, null);
+    }
+
+    /**
+     * Same as {@link #getInstance(String, TimeZone)} with the month names
+     * used by the DATE layout.
+     */
+    static FixedDateFormatter getInstance(String pattern, TimeZone timeZone,
+                                          String[] shortMonths) {
+        if (pattern == null) {
+            return null;
+        }
+        if (pattern.equalsIgnoreCase(AbsoluteTimeDateFormat.ABS_TIME_DATE_FORMAT)) {
+            pattern = "HH:mm:ss,SSS";
+        } else if (pattern.equalsIgnoreCase(AbsoluteTimeDateFormat.DATE_AND_TIME_DATE_FORMAT)) {
+            pattern = "dd MMM yyyy HH:mm:ss,SSS";
+        } else if (pattern.equalsIgnoreCase(AbsoluteTimeDateFormat.ISO8601_DATE_FORMAT)) {
+            pattern = "yyyy-MM-dd HH:mm:ss,SSS";
+        }
+
+        int dateStyle = NO_DATE;
+        char dateSeparator = ' ';
+        int pos = 0;
+        if (pattern.startsWith(ISO8601_DATE_PATTERN)) {
+            dateStyle = DATE_ISO8601;
+            pos = ISO8601_DATE_PATTERN.length();
+            if (pattern.startsWith(" ", pos)) {
+                pos += 1;
+            } else if (pattern.startsWith("'T'", pos)) {
+                dateSeparator = 'T';
+                pos += 3;
+            } else {
+                return null;
+            }
+        } else if (pattern.startsWith(DAY_MONTH_YEAR_PATTERN)) {
+            dateStyle = DATE_DAY_MONTH_YEAR;
+            pos = DAY_MONTH_YEAR_PATTERN.length();
+        }
+
+        if (!pattern.startsWith(TIME_PATTERN, pos)) {
+            return null;
+        }
+        pos += TIME_PATTERN.length();
+        if (pattern.length() != pos + 1 + MILLIS_PATTERN.length()
+                || !pattern.startsWith(MILLIS_PATTERN, pos + 1)) {
+            return null;
+        }
+        char millisSeparator = pattern.charAt(pos);
+        if (millisSeparator != ',' && millisSeparator != '.') {
+            return null;
+        }
+
+        if (dateStyle == DATE_DAY_MONTH_YEAR && shortMonths == null) {
+            shortMonths = new DateFormatSymbols().getShortMonths();
+        }
+        return new FixedDateFormatter(dateStyle, dateSeparator,
+                millisSeparator, timeZone, shortMonths);
+    }
+
+    /**
+     * Returns a formatter producing the same output as <code>df</code>,
+     * or <code>null</code> if <code>df</code> is not one of the log4j
+     * fixed formats or a SimpleDateFormat with a fixed layout pattern.
+     */
+    static FixedDateFormatter forDateFormat(DateFormat df) {
+        FixedDateFormatter fixed = forFixedFormat(df);
+        if (fixed == null && df.getClass() == SimpleDateFormat.class) {
+            SimpleDateFormat sdf = (SimpleDateFormat) df;
+            return getInstance(sdf.toPattern(), sdf.getTimeZone(),
+                    sdf.getDateFormatSymbols().getShortMonths());
+        }
+        return fixed;
+    }
+
+    /**
+     * Returns the formatter behind <code>df</code> if it is exactly one
+     * of {@link AbsoluteTimeDateFormat}, {@link ISO8601DateFormat} or
+     * {@link DateTimeDateFormat}, <code>null</code> otherwise. The result
+     * follows later changes to the time zone of <code>df</code> only if
+     * this method is called again.
+     */
+    static FixedDateFormatter forFixedFormat(DateFormat df) {
+        Class type = df.getClass();
+        if (type == AbsoluteTimeDateFormat.class
+                || type == ISO8601DateFormat.class
+                || type == DateTimeDateFormat.class) {
+            return ((AbsoluteTimeDateFormat) df).getFormatter();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the time zone given at construction, <code>null</code> if
+     * this formatter follows the default time zone.
+     */
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Appends the formatted time stamp to <code>buf</code>.
+     */
+    public void format(long timeStamp, StringBuilder buf) {
+        try {
+            append(timeStamp, buf);
+        } catch (IOException e) {
+            // not thrown by StringBuilder
+        }
+    }
+
+    /**
+     * Appends the formatted time stamp to <code>buf</code>.
+     */
+    public void format(long timeStamp, StringBuffer buf) {
+        try {
+            append(timeStamp, buf);
+        } catch (IOException e) {
+            // not thrown by StringBuffer
+        }
+    }
+
+    /**
+     * Appends the formatted time stamp to <code>buf</code>, shared by
+     * the <code>StringBuilder</code> and <code>StringBuffer</code>
+     * variants of {@link #format(long, StringBuilder)}.
+     */
+    private void append(long timeStamp, Appendable buf) throws IOException {
+        Day d = getDay(timeStamp);
+        char[] prefix = d.prefix;
+        for (int i = 0; i < prefix.length; i++) {
+            buf.append(prefix[i]);
+        }
+
+        int millis = (int) (timeStamp - d.midnight);
+        int hour = millis / (int) HOUR;
+        millis -= hour * (int) HOUR;
+        int minute = millis / 60000;
+        millis -= minute * 60000;
+        int second = millis / 1000;
+        millis -= second * 1000;
+
+        buf.append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10));
+        buf.append(':');
+        buf.append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10));
+        buf.append(':');
+        buf.append((char) ('0' + second / 10)).append((char) ('0' + second % 10));
+        buf.append(millisSeparator);
+        buf.append((char) ('0' + millis / 100));
+        buf.append((char) ('0' + (millis / 10) % 10));
+        buf.append((char) ('0' + millis % 10));
+    }
+
+
+    /**
+     * Returns the formatted time stamp.
+     */
+    public String format(long timeStamp) {
+        StringBuilder buf = new StringBuilder(32);
+        format(timeStamp, buf);
+        return buf.toString();
+    }
+
+    private Day getDay(long timeStamp) {
+        Day d = day;
+        if (d == null || timeStamp < d.start || timeStamp >= d.end) {
+            d = newDay(timeStamp);
+            day = d;
+        }
+        return d;
+    }
+
+    /**
+     * Computes the date part of the day containing
+     * <code>timeStamp</code>. The returned range never spans a change of
+     * the zone offset: on a day with a daylight saving transition it is
+     * narrowed to the current hour, or to the current second.
+     */
+    private Day newDay(long timeStamp) {
+        TimeZone zone = (timeZone == null) ? TimeZone.getDefault() : timeZone;
+        int offset = zone.getOffset(timeStamp);
+        long wall = timeStamp + offset;
+        long wallMidnight = wall - floorMod(wall, DAY);
+        long midnight = wallMidnight - offset;
+
+        long start = midnight;
+        long end = midnight + DAY;
+        if (zone.getOffset(start) != offset || zone.getOffset(end - 1) != offset) {
+            start = timeStamp - floorMod(timeStamp, HOUR);
+            end = start + HOUR;
+            if (zone.getOffset(start) != offset || zone.getOffset(end - 1) != offset) {
+                start = timeStamp - floorMod(timeStamp, SECOND);
+                end = start + SECOND;
+            }
+        }
+
+        Calendar calendar = Calendar.getInstance(zone);
+        calendar.setTimeInMillis(timeStamp);
+        StringBuilder prefix = new StringBuilder(16);
+        int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
+        if (dateStyle == DATE_ISO8601) {
+            prefix.append(calendar.get(Calendar.YEAR));
+            int month = calendar.get(Calendar.MONTH) + 1;
+            prefix.append(month < 10 ? "-0" : "-").append(month);
+            prefix.append(dayOfMonth < 10 ? "-0" : "-").append(dayOfMonth);
+            prefix.append(dateSeparator);
+        } else if (dateStyle == DATE_DAY_MONTH_YEAR) {
+            if (dayOfMonth < 10) {
+                prefix.append('0');
+            }
+            prefix.append(dayOfMonth).append(' ');
+            prefix.append(shortMonths[calendar.get(Calendar.MONTH)]).append(' ');
+            prefix.append(calendar.get(Calendar.YEAR)).append(' ');
+        }
+
+        char[] chars = new char[prefix.length()];
+        prefix.getChars(0, chars.length, chars, 0);
+        return new Day(start, end, midnight, chars);
+    }
+
+    private static long floorMod(long x, long y) {
+        long mod = x % y;
+        return (mod < 0) ? mod + y : mod;
+    }
+
+    /**
+     * Date part valid for time stamps in [start, end).
+     */
+    private static final class Day {
+        final long start;
+        final long end;
+        final long midnight;
+        final char[] prefix;
+
+        Day(long start, long end, long midnight, char[] prefix) {
+            this.start = start;
+            this.end = end;
+            this.midnight = midnight;
+            this.prefix = prefix;
+        }
+    }
+}
@@ -37,6 +37,13 @@ public abstract class PatternConverter {
     int max = 0x7FFFFFFF;
     boolean leftAlign = false;
 
+    /**
+     * True if a subclass customizes {@link #format(StringBuffer, LoggingEvent)}
+     * without providing {@link #format(StringBuilder, LoggingEvent)}, in which
+     * case the latter goes through the former.
+     */
+    private final boolean legacyFormat = isLegacyFormat(getClass());
+
     protected PatternConverter() {
     }
 
@@ -81,6 +88,59 @@ public abstract class PatternConverter {
             sbuf.append(s);
     }
 
+    /**
+     * A template method for formatting in a converter specific way
+     * into an unsynchronized buffer.
+     *
+     * @since 1.2.18
+     */
+    public void format(StringBuilder sbuf, LoggingEvent e) {
+        if (legacyFormat) {
+            StringBuffer legacy = new StringBuffer();
+            format(legacy, e);
+            sbuf.append(legacy);
+            return;
+        }
+
+        String s = convert(e);
+
+        if (s == null) {
+            if (0 < min)
+                spacePad(sbuf, min);
+            return;
+        }
+
+        int len = s.length();
+
+        if (len > max)
+            sbuf.append(s, len - max, len);
+        else if (len < min) {
+            if (leftAlign) {
+                sbuf.append(s);
+                spacePad(sbuf, min - len);
+            } else {
+                spacePad(sbuf, min - len);
+                sbuf.append(s);
+            }
+        } else
+            sbuf.append(s);
+    }
+
+    private static boolean isLegacyFormat(Class c) {
+        try {
+            Class bufferOwner = c.getMethod("format",
+                    new Class[]{StringBuffer.class, LoggingEvent.class}).getDeclaringClass();
+            Class builderOwner = c.getMethod("format",
+                    new Class[]{StringBuilder.class, LoggingEvent.class}).getDeclaringClass();
+            return bufferOwner != PatternConverter.class
+                    && builderOwner == PatternConverter.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        } catch (SecurityException e) {
+            return true;
+        }
+    }
+
     static String[] SPACES = {" ", "  ", "    ", "        ", //1,2,4,8 spaces
             "                ", // 16 spaces
             "                                "}; // 32 spaces
@@ -100,4 +160,22 @@ public abstract class PatternConverter {
             }
         }
     }
+
+    /**
+     * Fast space padding method.
+     *
+     * @since 1.2.18
+     */
+    public void spacePad(StringBuilder sbuf, int length) {
+        while (length >= 32) {
+            sbuf.append(SPACES[5]);
+            length -= 32;
+        }
+
+        for (int i = 4; i >= 0; i--) {
+            if ((length & (1 << i)) != 0) {
+                sbuf.append(SPACES[i]);
+            }
+        }
+    }
 }
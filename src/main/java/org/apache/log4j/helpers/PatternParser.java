@@ -368,7 +368,7 @@ public class PatternParser {
     //                      PatternConverters
     // ---------------------------------------------------------------------
 
-    private static class BasicPatternConverter extends PatternConverter {
+    static class BasicPatternConverter extends PatternConverter {
         int type;
 
         BasicPatternConverter(FormattingInfo formattingInfo, int type) {
@@ -395,8 +395,8 @@ public class PatternParser {
         }
     }
 
-    private static class LiteralPatternConverter extends PatternConverter {
-        private String literal;
+    static class LiteralPatternConverter extends PatternConverter {
+        final String literal;
 
         LiteralPatternConverter(String value) {
             literal = value;
@@ -407,34 +407,64 @@ public class PatternParser {
             sbuf.append(literal);
         }
 
+        public
+        final void format(StringBuilder sbuf, LoggingEvent event) {
+            sbuf.append(literal);
+        }
+
         public String convert(LoggingEvent event) {
             return literal;
         }
     }
 
-    private static class DatePatternConverter extends PatternConverter {
+    static class DatePatternConverter extends PatternConverter {
         private DateFormat df;
-        private Date date;
+        // DateFormat is not thread safe, each thread formats with its own clone.
+        private final ThreadLocal formats = new ThreadLocal();
+        // Shared formatter used instead of df for the fixed layouts, or null.
+        private final FixedDateFormatter fixed;
 
         DatePatternConverter(FormattingInfo formattingInfo, DateFormat df) {
             super(formattingInfo);
-            date = new Date();
             this.df = df;
+            this.fixed = FixedDateFormatter.forDateFormat(df);
         }
 
         public String convert(LoggingEvent event) {
-            date.setTime(event.timeStamp);
+            if (fixed != null) {
+                return fixed.format(event.timeStamp);
+            }
+            DateFormat format = (DateFormat) formats.get();
+            if (format == null) {
+                format = (DateFormat) df.clone();
+                formats.set(format);
+            }
             String converted = null;
             try {
-                converted = df.format(date);
+                converted = format.format(new Date(event.timeStamp));
             } catch (Exception ex) {
                 LogLog.error("Error occured while converting date.", ex);
             }
             return converted;
         }
+
+        /**
+         * Appends the date of the event, without an intermediate String
+         * when the format has a fixed layout.
+         */
+        final void appendDate(StringBuilder sbuf, LoggingEvent event) {
+            if (fixed != null) {
+                fixed.format(event.timeStamp, sbuf);
+            } else {
+                String converted = convert(event);
+                if (converted != null) {
+                    sbuf.append(converted);
+                }
+            }
+        }
     }
 
-    private static class MDCPatternConverter extends PatternConverter {
+    static class MDCPatternConverter extends PatternConverter {
         private String key;
 
         MDCPatternConverter(FormattingInfo formattingInfo, String key) {
@@ -471,7 +501,7 @@ public class PatternParser {
     }
 
 
-    private class LocationPatternConverter extends PatternConverter {
+    class LocationPatternConverter extends PatternConverter {
         int type;
 
         LocationPatternConverter(FormattingInfo formattingInfo, int type) {
@@ -496,8 +526,10 @@ public class PatternParser {
         }
     }
 
-    private static abstract class NamedPatternConverter extends PatternConverter {
+    static abstract class NamedPatternConverter extends PatternConverter {
         int precision;
+        // abbreviated names, only used when precision > 0
+        private final BoundedCache abbreviations = new BoundedCache(1024);
 
         NamedPatternConverter(FormattingInfo formattingInfo, int precision) {
             super(formattingInfo);
@@ -507,27 +539,42 @@ public class PatternParser {
         abstract String getFullyQualifiedName(LoggingEvent event);
 
         public String convert(LoggingEvent event) {
-            String n = getFullyQualifiedName(event);
-            if (precision <= 0)
+            return abbreviate(getFullyQualifiedName(event));
+        }
+
+        /**
+         * Returns the last <code>precision</code> elements of
+         * <code>n</code>, looked up in a cache after the first time.
+         * A null name is returned as is.
+         */
+        final String abbreviate(String n) {
+            if (precision <= 0 || n == null)
                 return n;
-            else {
-                int len = n.length();
-
-                // We substract 1 from 'len' when assigning to 'end' to avoid out of
-                // bounds exception in return r.substring(end+1, len). This can happen if
-                // precision is 1 and the category name ends with a dot.
-                int end = len - 1;
-                for (int i = precision; i > 0; i--) {
-                    end = n.lastIndexOf('.', end - 1);
-                    if (end == -1)
-                        return n;
-                }
-                return n.substring(end + 1, len);
+            String abbreviated = (String) abbreviations.get(n);
+            if (abbreviated == null) {
+                abbreviated = computeAbbreviation(n);
+                abbreviations.put(n, abbreviated);
+            }
+            return abbreviated;
+        }
+
+        private String computeAbbreviation(String n) {
+            int len = n.length();
+
+            // We substract 1 from 'len' when assigning to 'end' to avoid out of
+            // bounds exception in return r.substring(end+1, len). This can happen if
+            // precision is 1 and the category name ends with a dot.
+            int end = len - 1;
+            for (int i = precision; i > 0; i--) {
+                end = n.lastIndexOf('.', end - 1);
+                if (end == -1)
+                    return n;
             }
+            return n.substring(end + 1, len);
         }
     }
 
-    private class ClassNamePatternConverter extends NamedPatternConverter {
+    class ClassNamePatternConverter extends NamedPatternConverter {
 
         ClassNamePatternConverter(FormattingInfo formattingInfo, int precision) {
             super(formattingInfo, precision);
@@ -538,7 +585,7 @@ public class PatternParser {
         }
     }
 
-    private class CategoryPatternConverter extends NamedPatternConverter {
+    class CategoryPatternConverter extends NamedPatternConverter {
 
         CategoryPatternConverter(FormattingInfo formattingInfo, int precision) {
             super(formattingInfo, precision);
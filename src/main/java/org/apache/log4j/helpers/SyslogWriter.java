@@ -18,25 +18,53 @@
 package org.apache.log4j.helpers;
 
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.DatagramPacket;
+import java.net.Socket;
 import java.net.UnknownHostException;
 import java.net.SocketException;
 import java.io.IOException;
 import java.net.URL;
 import java.net.MalformedURLException;
+import java.nio.charset.Charset;
 
 /**
  * SyslogWriter is a wrapper around the java.net.DatagramSocket class
  * so that it behaves like a java.io.Writer.
  *
+ * <p>Since 1.2.18 messages may also be sent over TCP, each message being
+ * preceded by its length in bytes and a space as described by the octet
+ * counting framing of RFC 6587. TCP messages are buffered until
+ * {@link #flush} is called or the buffer fills up. A connection is only
+ * attempted when the first message is written. If the connection fails,
+ * messages are discarded until a new connection succeeds, which is
+ * attempted at most every {@link #RECONNECTION_DELAY} milliseconds.
+ *
  * @since 0.7.3
  */
 public class SyslogWriter extends Writer {
 
     final int SYSLOG_PORT = 514;
+
+    /**
+     * Delay in milliseconds between failed TCP connection attempts.
+     */
+    static final int RECONNECTION_DELAY = 30000;
+
+    /**
+     * Timeout in milliseconds of a TCP connection attempt.
+     */
+    static final int CONNECT_TIMEOUT = 5000;
+
+    /**
+     * Size in bytes of the buffer of TCP connections.
+     */
+    static final int TCP_BUFFER_SIZE = 8192;
     /**
      * Host string from last constructed SyslogWriter.
      *
@@ -46,7 +74,18 @@ public class SyslogWriter extends Writer {
 
     private InetAddress address;
     private final int port;
+    private final boolean tcp;
     private DatagramSocket ds;
+    private DatagramPacket packet;
+    private Socket socket;
+    private OutputStream os;
+    private long nextConnectTime;
+    private ByteSink sink;
+
+    /**
+     * Decimal length and separating space of the TCP frame being written.
+     */
+    private final byte[] frameHeader = new byte[11];
 
     /**
      * Constructs a new instance of SyslogWriter.
@@ -58,7 +97,20 @@ public class SyslogWriter extends Writer {
      *                   the colon and decimal port number.
      */
     public SyslogWriter(final String syslogHost) {
+        this(syslogHost, false);
+    }
+
+    /**
+     * Constructs a new instance of SyslogWriter.
+     *
+     * @param syslogHost host name, may not be null, see {@link #SyslogWriter(String)}.
+     * @param tcp        if true, messages are sent over TCP using octet
+     *                   counting framing, otherwise as UDP packets.
+     * @since 1.2.18
+     */
+    public SyslogWriter(final String syslogHost, final boolean tcp) {
         SyslogWriter.syslogHost = syslogHost;
+        this.tcp = tcp;
         if (syslogHost == null) {
             throw new NullPointerException("syslogHost");
         }
@@ -98,45 +150,165 @@ public class SyslogWriter extends Writer {
                     ". All logging will FAIL.", e);
         }
 
-        try {
-            this.ds = new DatagramSocket();
-        } catch (SocketException e) {
-            e.printStackTrace();
-            LogLog.error("Could not instantiate DatagramSocket to " + host +
-                    ". All logging will FAIL.", e);
+        if (!tcp) {
+            try {
+                this.ds = new DatagramSocket();
+            } catch (SocketException e) {
+                e.printStackTrace();
+                LogLog.error("Could not instantiate DatagramSocket to " + host +
+                        ". All logging will FAIL.", e);
+            }
         }
 
     }
 
+    /**
+     * Returns true if messages are sent over TCP.
+     *
+     * @return true if messages are sent over TCP.
+     * @since 1.2.18
+     */
+    public boolean isTcp() {
+        return tcp;
+    }
+
 
     public void write(char[] buf, int off, int len) throws IOException {
         this.write(new String(buf, off, len));
     }
 
-    public void write(final String string) throws IOException {
+    public synchronized void write(final String string) throws IOException {
+
+        if ((this.ds != null || tcp) && this.address != null) {
+            if (sink == null) {
+                sink = new ByteSink(Charset.defaultCharset(), 1024);
+            }
+            sink.clear();
+            sink.append(string);
+            writePacket(sink.getBuffer(), sink.size());
+        }
+
+    }
 
-        if (this.ds != null && this.address != null) {
-            byte[] bytes = string.getBytes();
+    /**
+     * Sends already encoded bytes as a single packet.
+     *
+     * @param bytes  packet content, only read during the call.
+     * @param length number of bytes to send, UDP packets are truncated to
+     *               1024 bytes.
+     * @throws IOException if the packet could not be sent.
+     * @since 1.2.18
+     */
+    public synchronized void writePacket(final byte[] bytes, final int length) throws IOException {
+        if (tcp) {
+            if (this.address != null && (os != null || connect())) {
+                try {
+                    writeFrame(bytes, length);
+                } catch (IOException e) {
+                    disconnect();
+                    throw e;
+                }
+            }
+        } else if (this.ds != null && this.address != null) {
             //
             //  syslog packets must be less than 1024 bytes
             //
-            int bytesLength = bytes.length;
+            int bytesLength = length;
             if (bytesLength >= 1024) {
                 bytesLength = 1024;
             }
-            DatagramPacket packet = new DatagramPacket(bytes, bytesLength,
-                    address, port);
+            if (packet == null) {
+                packet = new DatagramPacket(bytes, bytesLength, address, port);
+            } else {
+                packet.setData(bytes, 0, bytesLength);
+            }
             ds.send(packet);
         }
+    }
+
+    /**
+     * Writes a message preceded by its length and a space.
+     */
+    private void writeFrame(final byte[] bytes, final int length) throws IOException {
+        int pos = frameHeader.length;
+        frameHeader[--pos] = ' ';
+        int n = length;
+        do {
+            frameHeader[--pos] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        os.write(frameHeader, pos, frameHeader.length - pos);
+        os.write(bytes, 0, length);
+    }
+
+    /**
+     * Opens the TCP connection unless the last attempt failed less than
+     * {@link #RECONNECTION_DELAY} milliseconds ago.
+     *
+     * @return true if connected.
+     */
+    private boolean connect() {
+        long now = System.currentTimeMillis();
+        if (now < nextConnectTime) {
+            return false;
+        }
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(address, port), CONNECT_TIMEOUT);
+            socket = s;
+            os = new BufferedOutputStream(s.getOutputStream(), TCP_BUFFER_SIZE);
+            return true;
+        } catch (IOException e) {
+            if (e instanceof java.io.InterruptedIOException) {
+                Thread.currentThread().interrupt();
+            }
+            LogLog.warn("Could not connect to syslog host " + address + ":" + port
+                    + ", messages are discarded for " + RECONNECTION_DELAY + " ms.", e);
+            nextConnectTime = now + RECONNECTION_DELAY;
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
 
+    private void disconnect() {
+        os = null;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            socket = null;
+        }
     }
 
-    public void flush() {
+    /**
+     * Sends the messages buffered for the TCP connection. Messages that
+     * cannot be sent are discarded and the connection is dropped.
+     */
+    public synchronized void flush() {
+        if (os != null) {
+            try {
+                os.flush();
+            } catch (IOException e) {
+                if (e instanceof java.io.InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+                LogLog.error("Could not send messages to syslog host " + address + ":" + port + ".", e);
+                disconnect();
+            }
+        }
     }
 
-    public void close() {
+    public synchronized void close() {
         if (ds != null) {
             ds.close();
         }
+        if (os != null) {
+            flush();
+            disconnect();
+        }
     }
 }
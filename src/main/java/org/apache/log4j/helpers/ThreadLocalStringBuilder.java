@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.helpers;
+
+/**
+ * Hands out one reusable <code>StringBuilder</code> per thread so that
+ * layouts can format events concurrently without sharing a buffer or
+ * paying for the synchronization of <code>StringBuffer</code>.
+ *
+ * <p>A builder obtained by {@link #acquire} must be given back by {@link
+ * #release} once its content has been consumed. A nested acquire on the
+ * same thread, for example when rendering a message logs another event,
+ * gets a fresh builder.
+ *
+ * @since 1.2.18
+ */
+public final class ThreadLocalStringBuilder extends ThreadLocal {
+
+    private final int initialCapacity;
+    private final int maxCapacity;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param initialCapacity initial capacity of each builder.
+     * @param maxCapacity     builders that grew beyond this capacity are
+     *                        discarded rather than kept for the thread.
+     */
+    public ThreadLocalStringBuilder(final int initialCapacity, final int maxCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Gets an empty builder for the current thread.
+     *
+     * @return empty builder.
+     */
+    public StringBuilder acquire() {
+        StringBuilder buf = (StringBuilder) get();
+        if (buf != null && buf.length() != 0) {
+            //  builder is in use further up the stack
+            return new StringBuilder(initialCapacity);
+        }
+        if (buf == null || buf.capacity() > maxCapacity) {
+            buf = new StringBuilder(initialCapacity);
+            set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * Gives a builder back after use.
+     *
+     * @param buf builder obtained from {@link #acquire}.
+     */
+    public void release(final StringBuilder buf) {
+        buf.setLength(0);
+    }
+}
@@ -30,6 +30,7 @@ public class Transform {
     private static final String CDATA_PSEUDO_END = "]]&gt;";
     private static final String CDATA_EMBEDED_END = CDATA_END + CDATA_PSEUDO_END + CDATA_START;
     private static final int CDATA_END_LEN = CDATA_END.length();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
     /**
      * This method takes a string which may contain HTML tags (ie,
@@ -110,4 +111,64 @@ public class Transform {
             }
         }
     }
+
+    /**
+     * Appends <code>str</code> to <code>buf</code> as the content of a
+     * JSON string, escaping quotes, backslashes, control characters and
+     * the U+2028 and U+2029 separators. Runs of characters that need no
+     * escaping are copied in one call.
+     *
+     * @param buf StringBuilder holding the JSON data to this point. The
+     *            enclosing quotes are the responsibility of the calling method.
+     * @param str The String to append, nothing is appended if null.
+     * @since 1.2.18
+     */
+    static public void appendEscapingJSON(final StringBuilder buf,
+                                          final String str) {
+        if (str == null) {
+            return;
+        }
+        int len = str.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char ch = str.charAt(i);
+            if (ch >= ' ' && ch != '"' && ch != '\\'
+                    && ch != '\u2028' && ch != '\u2029') {
+                continue;
+            }
+            buf.append(str, start, i);
+            start = i + 1;
+            switch (ch) {
+                case '"':
+                    buf.append("\\\"");
+                    break;
+                case '\\':
+                    buf.append("\\\\");
+                    break;
+                case '\n':
+                    buf.append("\\n");
+                    break;
+                case '\r':
+                    buf.append("\\r");
+                    break;
+                case '\t':
+                    buf.append("\\t");
+                    break;
+                case '\b':
+                    buf.append("\\b");
+                    break;
+                case '\f':
+                    buf.append("\\f");
+                    break;
+                default:
+                    buf.append("\\u");
+                    buf.append(HEX_DIGITS[(ch >> 12) & 0xF]);
+                    buf.append(HEX_DIGITS[(ch >> 8) & 0xF]);
+                    buf.append(HEX_DIGITS[(ch >> 4) & 0xF]);
+                    buf.append(HEX_DIGITS[ch & 0xF]);
+                    break;
+            }
+        }
+        buf.append(str, start, len);
+    }
 }
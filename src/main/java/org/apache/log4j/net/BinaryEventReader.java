@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.net;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.Loader;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggerRepository;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+
+/**
+ * Server side of the {@link BinaryProtocol}: reads frames from a stream,
+ * or is handed complete frames, and decodes the events they hold.
+ *
+ * <p>Decoded events carry the same data as deserialized ones. MDC values
+ * arrive as strings and, as with serialization, the original message
+ * object and throwable are not available.
+ *
+ * @since 1.2.18
+ */
+final class BinaryEventReader {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final Class[] TO_LEVEL_PARAMS = new Class[]{int.class};
+
+    private static final Hashtable levelMethods = new Hashtable(3);
+
+    private final DataInputStream in;
+    private final LoggerRepository hierarchy;
+    private final Inflater inflater;
+    private final String[] dictionary =
+            new String[BinaryProtocol.DICTIONARY_CAPACITY];
+    private int dictionarySize;
+
+    private byte[] frame = new byte[4096];
+    private byte[] inflated;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private int remainingEvents;
+    private long lastTimeStamp;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param in         stream to read frames from, or <code>null</code>
+     *                   if frames are passed to {@link #setFrame}.
+     * @param hierarchy  repository providing the loggers of decoded events.
+     * @param compressed whether compression was negotiated.
+     */
+    BinaryEventReader(final InputStream in,
+                      final LoggerRepository hierarchy,
+                      final boolean compressed) {
+        this.in = in == null ? null : new DataInputStream(in);
+        this.hierarchy = hierarchy;
+        if (compressed) {
+            inflater = new Inflater();
+            inflated = new byte[4096];
+        } else {
+            inflater = null;
+        }
+    }
+
+    /**
+     * Answers a client's hello.
+     *
+     * @param hello     the hello received, magic bytes included.
+     * @param in        stream positioned after the hello.
+     * @param out       stream to the client.
+     * @param hierarchy repository providing the loggers of decoded events.
+     * @return a reader for the frames that follow.
+     * @throws IOException if the answer could not be sent.
+     */
+    static BinaryEventReader accept(final byte[] hello,
+                                    final InputStream in,
+                                    final OutputStream out,
+                                    final LoggerRepository hierarchy)
+            throws IOException {
+        byte[] answer = answer(hello);
+        out.write(answer);
+        out.flush();
+        return new BinaryEventReader(in, hierarchy, isCompressed(answer));
+    }
+
+    /**
+     * Builds the answer to a client's hello.
+     *
+     * @param hello the hello received, magic bytes included.
+     * @return answer to send back.
+     * @throws IOException if no common protocol version exists; the
+     *                     answer should not be sent then.
+     */
+    static byte[] answer(final byte[] hello) throws IOException {
+        int version = Math.min(hello[4] & 0xFF, BinaryProtocol.VERSION);
+        if (version < 1) {
+            throw new IOException("Unsupported protocol version " + hello[4]);
+        }
+        byte[] answer = new byte[BinaryProtocol.HELLO_LENGTH];
+        System.arraycopy(BinaryProtocol.MAGIC, 0, answer, 0,
+                BinaryProtocol.MAGIC.length);
+        answer[4] = (byte) version;
+        answer[5] = (byte) (hello[5] & BinaryProtocol.FLAG_COMPRESSED);
+        return answer;
+    }
+
+    /**
+     * Determines whether an answer accepts compression.
+     *
+     * @param answer answer built by {@link #answer}.
+     * @return true if frames may be compressed.
+     */
+    static boolean isCompressed(final byte[] answer) {
+        return (answer[5] & BinaryProtocol.FLAG_COMPRESSED) != 0;
+    }
+
+    /**
+     * Reads the next event, blocking until it is available.
+     *
+     * @return next event.
+     * @throws IOException if the stream ended or holds invalid data.
+     */
+    LoggingEvent readEvent() throws IOException {
+        while (remainingEvents == 0) {
+            readFrame();
+        }
+        return nextEvent();
+    }
+
+    /**
+     * Determines whether events of the current frame remain to be read.
+     *
+     * @return true if {@link #nextEvent} may be called.
+     */
+    boolean hasEvent() {
+        return remainingEvents > 0;
+    }
+
+    /**
+     * Decodes the next event of the current frame.
+     *
+     * @return next event.
+     * @throws IOException if the frame holds invalid data.
+     */
+    LoggingEvent nextEvent() throws IOException {
+        LoggingEvent event;
+        try {
+            event = decodeEvent();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated event in frame.");
+        }
+        if (--remainingEvents == 0 && pos != limit) {
+            throw new IOException("Unexpected data after the last event of a frame.");
+        }
+        return event;
+    }
+
+    /**
+     * Releases the resources held by this reader. The stream is left open.
+     */
+    void close() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    private void readFrame() throws IOException {
+        int length = in.readInt();
+        int flags = in.readByte();
+        int events = in.readInt();
+        int rawLength = in.readInt();
+        checkFrameLength(length);
+        if (frame.length < length) {
+            frame = new byte[Math.max(length, frame.length * 2)];
+        }
+        in.readFully(frame, 0, length);
+        setFrame(frame, 0, length, flags, events, rawLength);
+    }
+
+    /**
+     * Checks the payload length found in a frame header.
+     *
+     * @param length payload length.
+     * @throws IOException if the length is not acceptable.
+     */
+    static void checkFrameLength(final int length) throws IOException {
+        if (length < 0 || length > BinaryProtocol.MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length " + length + ".");
+        }
+    }
+
+    /**
+     * Makes a received frame the current one. The data must stay
+     * untouched until all its events have been read.
+     *
+     * @param data      buffer holding the payload.
+     * @param offset    start of the payload in <code>data</code>.
+     * @param length    payload length.
+     * @param flags     frame flags.
+     * @param events    number of events in the frame.
+     * @param rawLength payload length once inflated.
+     * @throws IOException if the frame is invalid.
+     */
+    void setFrame(final byte[] data, final int offset, final int length,
+                  final int flags, final int events, final int rawLength)
+            throws IOException {
+        if (rawLength < 0 || rawLength > BinaryProtocol.MAX_FRAME_LENGTH
+                || events < 0) {
+            throw new IOException("Invalid frame header.");
+        }
+        if ((flags & BinaryProtocol.FLAG_COMPRESSED) != 0) {
+            if (inflater == null) {
+                throw new IOException("Compressed frame on uncompressed connection.");
+            }
+            inflate(data, offset, length, rawLength);
+            buf = inflated;
+            pos = 0;
+        } else {
+            if (length != rawLength) {
+                throw new IOException("Invalid frame header.");
+            }
+            buf = data;
+            pos = offset;
+        }
+        limit = pos + rawLength;
+        remainingEvents = events;
+    }
+
+    private void inflate(final byte[] data, final int offset,
+                         final int length, final int rawLength)
+            throws IOException {
+        // one spare byte detects payloads longer than announced
+        if (inflated.length <= rawLength) {
+            inflated = new byte[Math.max(rawLength + 1, inflated.length * 2)];
+        }
+        inflater.setInput(data, offset, length);
+        int n = 0;
+        try {
+            while (!inflater.needsInput()) {
+                int r = inflater.inflate(inflated, n, inflated.length - n);
+                n += r;
+                if (r == 0 && (n == inflated.length || inflater.finished()
+                        || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed frame: " + e.getMessage());
+        }
+        if (n != rawLength || !inflater.needsInput()) {
+            throw new IOException("Corrupt compressed frame.");
+        }
+    }
+
+    private LoggingEvent decodeEvent() throws IOException {
+        lastTimeStamp += unzigzag(readVarLong());
+        String loggerName = readString();
+        int levelInt = (int) unzigzag(readVarLong());
+        Level level = toLevel(levelInt, readString());
+        String threadName = readString();
+        String message = readString();
+        String ndc = readString();
+        int flags = buf[pos++];
+
+        Map properties = null;
+        int size = readLength();
+        if (size > 0) {
+            properties = new HashMap(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                properties.put(key, readString());
+            }
+        }
+
+        LocationInfo info;
+        if ((flags & 1) != 0) {
+            String file = readString();
+            String className = readString();
+            String method = readString();
+            info = new LocationInfo(file, className, method, readString());
+        } else {
+            // same as a deserialized event: no location info for layouts
+            info = new LocationInfo(null, null);
+        }
+
+        ThrowableInformation throwable = null;
+        if ((flags & 2) != 0) {
+            String[] rep = new String[readLength()];
+            for (int i = 0; i < rep.length; i++) {
+                rep[i] = readString();
+            }
+            throwable = new ThrowableInformation(rep);
+        }
+
+        Logger logger = loggerName == null
+                ? hierarchy.getRootLogger() : hierarchy.getLogger(loggerName);
+        return new LoggingEvent(null, logger, lastTimeStamp, level, message,
+                threadName, throwable, ndc, info, properties);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer.");
+    }
+
+    private int readLength() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > limit - pos) {
+            throw new IOException("Invalid length " + value + " in frame.");
+        }
+        return (int) value;
+    }
+
+    private String readString() throws IOException {
+        long tag = readVarLong();
+        if (tag == BinaryProtocol.STRING_NULL) {
+            return null;
+        }
+        if (tag >= BinaryProtocol.STRING_REFERENCE) {
+            long index = tag - BinaryProtocol.STRING_REFERENCE;
+            if (index >= dictionarySize) {
+                throw new IOException("Unknown string reference " + index + ".");
+            }
+            return dictionary[(int) index];
+        }
+        int len = readLength();
+        String s = new String(buf, pos, len, UTF8);
+        pos += len;
+        if (tag == BinaryProtocol.STRING_DEFINE) {
+            if (dictionarySize == dictionary.length) {
+                throw new IOException("String dictionary overflow.");
+            }
+            dictionary[dictionarySize++] = s;
+        }
+        return s;
+    }
+
+    private static Level toLevel(final int p, final String className) {
+        if (className == null) {
+            return Level.toLevel(p);
+        }
+        try {
+            Method m = (Method) levelMethods.get(className);
+            if (m == null) {
+                // Level subclasses are required to implement toLevel(int),
+                // see LoggingEvent.readLevel
+                m = Loader.loadClass(className).getDeclaredMethod("toLevel",
+                        TO_LEVEL_PARAMS);
+                levelMethods.put(className, m);
+            }
+            return (Level) m.invoke(null, new Object[]{Integer.valueOf(p)});
+        } catch (Exception e) {
+            if (e instanceof InvocationTargetException) {
+                Throwable t = ((InvocationTargetException) e).getTargetException();
+                if (t instanceof InterruptedException
+                        || t instanceof InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            LogLog.warn("Level deserialization failed, reverting to default.", e);
+            return Level.toLevel(p);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.net;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Client side of the {@link BinaryProtocol}: encodes events into frames
+ * and sends them with gathering writes, the frame header and the payload
+ * going out in a single call without being copied together first.
+ *
+ * <p>Events accumulate in the current frame until {@link #flush} is
+ * called. Instances are not thread safe.
+ *
+ * @since 1.2.18
+ */
+final class BinaryEventWriter {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final SocketChannel channel;
+    private final Deflater deflater;
+    private final Map dictionary = new HashMap();
+    private final ByteBuffer header =
+            ByteBuffer.allocate(BinaryProtocol.FRAME_HEADER_LENGTH);
+    private final ByteBuffer[] buffers = new ByteBuffer[2];
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int count;
+    private ByteBuffer bufWrapper = ByteBuffer.wrap(buf);
+    private byte[] deflated;
+    private ByteBuffer deflatedWrapper;
+    private int pendingEvents;
+    private long lastTimeStamp;
+
+    private BinaryEventWriter(final SocketChannel channel,
+                              final boolean compress) {
+        this.channel = channel;
+        if (compress) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+            deflated = new byte[INITIAL_CAPACITY];
+            deflatedWrapper = ByteBuffer.wrap(deflated);
+        } else {
+            deflater = null;
+        }
+        buffers[0] = header;
+    }
+
+    /**
+     * Connects to a server and performs the handshake.
+     *
+     * @param address  server address.
+     * @param port     server port.
+     * @param compress whether to ask for compressed frames.
+     * @param timeout  milliseconds to wait for the server's answer.
+     * @return a writer, or <code>null</code> if the server does not
+     *         speak the binary protocol.
+     * @throws IOException if the server cannot be reached.
+     */
+    static BinaryEventWriter connect(final InetAddress address,
+                                     final int port,
+                                     final boolean compress,
+                                     final int timeout) throws IOException {
+        SocketChannel channel =
+                SocketChannel.open(new InetSocketAddress(address, port));
+        BinaryEventWriter writer = null;
+        try {
+            ByteBuffer hello = ByteBuffer.allocate(BinaryProtocol.HELLO_LENGTH);
+            hello.put(BinaryProtocol.MAGIC);
+            hello.put((byte) BinaryProtocol.VERSION);
+            hello.put((byte) (compress ? BinaryProtocol.FLAG_COMPRESSED : 0));
+            hello.flip();
+            while (hello.hasRemaining()) {
+                channel.write(hello);
+            }
+
+            Socket socket = channel.socket();
+            socket.setSoTimeout(timeout);
+            byte[] answer = new byte[BinaryProtocol.HELLO_LENGTH];
+            try {
+                new DataInputStream(socket.getInputStream()).readFully(answer);
+            } catch (SocketTimeoutException e) {
+                return null;
+            } catch (InterruptedIOException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (EOFException e) {
+                return null;
+            } catch (SocketException e) {
+                // servers unaware of the protocol reset the connection
+                return null;
+            }
+            if (!BinaryProtocol.isMagic(answer) || answer[4] < 1) {
+                return null;
+            }
+            socket.setSoTimeout(0);
+            writer = new BinaryEventWriter(channel,
+                    (answer[5] & BinaryProtocol.FLAG_COMPRESSED) != 0);
+            return writer;
+        } finally {
+            if (writer == null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the current frame. The caller is expected to have
+     * computed whatever lazily initialized event data it wants sent.
+     *
+     * @param event event, may not be null.
+     */
+    void write(final LoggingEvent event) {
+        long timeStamp = event.getTimeStamp();
+        writeVarLong(zigzag(timeStamp - lastTimeStamp));
+        lastTimeStamp = timeStamp;
+
+        writeString(event.getLoggerName(), true);
+        Level level = event.getLevel();
+        writeVarLong(zigzag(level.toInt()));
+        writeString(level.getClass() == Level.class
+                ? null : level.getClass().getName(), true);
+        writeString(event.getThreadName(), true);
+        writeString(event.getRenderedMessage(), false);
+        writeString(event.getNDC(), true);
+
+        LocationInfo info = event.locationInformationExists()
+                ? event.getLocationInformation() : null;
+        if (info != null && info.fullInfo == null) {
+            info = null;
+        }
+        String[] throwable = event.getThrowableStrRep();
+        ensureCapacity(1);
+        buf[count++] = (byte) ((info == null ? 0 : 1)
+                | (throwable == null ? 0 : 2));
+
+        Map properties = event.getProperties();
+        writeVarLong(properties.size());
+        for (Iterator iter = properties.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            writeString(String.valueOf(entry.getKey()), true);
+            Object value = entry.getValue();
+            writeString(value == null ? null : value.toString(), false);
+        }
+
+        if (info != null) {
+            writeString(info.getFileName(), true);
+            writeString(info.getClassName(), true);
+            writeString(info.getMethodName(), true);
+            writeString(info.getLineNumber(), true);
+        }
+        if (throwable != null) {
+            writeVarLong(throwable.length);
+            for (int i = 0; i < throwable.length; i++) {
+                // the first line carries the exception message, the
+                // others are stack frames that recur from one trace to
+                // the next
+                writeString(throwable[i], i > 0);
+            }
+        }
+        pendingEvents++;
+    }
+
+    /**
+     * Gets the number of events in the current frame.
+     *
+     * @return number of events not yet sent.
+     */
+    int getPendingEvents() {
+        return pendingEvents;
+    }
+
+    /**
+     * Sends the current frame, if it holds any event.
+     *
+     * @throws IOException if the connection failed.
+     */
+    void flush() throws IOException {
+        if (pendingEvents == 0) {
+            return;
+        }
+        ByteBuffer payload;
+        int flags = 0;
+        if (deflater != null) {
+            deflater.setInput(buf, 0, count);
+            int n = 0;
+            while (true) {
+                n += deflater.deflate(deflated, n, deflated.length - n,
+                        Deflater.SYNC_FLUSH);
+                if (n < deflated.length) {
+                    break;
+                }
+                byte[] larger = new byte[deflated.length * 2];
+                System.arraycopy(deflated, 0, larger, 0, n);
+                deflated = larger;
+                deflatedWrapper = ByteBuffer.wrap(deflated);
+            }
+            payload = deflatedWrapper;
+            payload.clear();
+            payload.limit(n);
+            flags = BinaryProtocol.FLAG_COMPRESSED;
+        } else {
+            payload = bufWrapper;
+            payload.clear();
+            payload.limit(count);
+        }
+
+        header.clear();
+        header.putInt(payload.limit());
+        header.put((byte) flags);
+        header.putInt(pendingEvents);
+        header.putInt(count);
+        header.flip();
+        buffers[1] = payload;
+        while (payload.hasRemaining()) {
+            channel.write(buffers);
+        }
+        count = 0;
+        pendingEvents = 0;
+    }
+
+    /**
+     * Closes the connection without sending the current frame.
+     *
+     * @throws IOException if the channel could not be closed.
+     */
+    void close() throws IOException {
+        if (deflater != null) {
+            deflater.end();
+        }
+        channel.close();
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (count + extra > buf.length) {
+            byte[] larger = new byte[Math.max(buf.length * 2, count + extra)];
+            System.arraycopy(buf, 0, larger, 0, count);
+            buf = larger;
+            bufWrapper = ByteBuffer.wrap(buf);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[count++] = (byte) value;
+    }
+
+    private void writeString(final String s, final boolean shared) {
+        if (s == null) {
+            writeVarLong(BinaryProtocol.STRING_NULL);
+            return;
+        }
+        int tag = BinaryProtocol.STRING_LITERAL;
+        if (shared) {
+            Integer index = (Integer) dictionary.get(s);
+            if (index != null) {
+                writeVarLong(BinaryProtocol.STRING_REFERENCE + index.intValue());
+                return;
+            }
+            if (dictionary.size() < BinaryProtocol.DICTIONARY_CAPACITY) {
+                dictionary.put(s, Integer.valueOf(dictionary.size()));
+                tag = BinaryProtocol.STRING_DEFINE;
+            }
+        }
+        writeVarLong(tag);
+        writeUTF8(s);
+    }
+
+    /**
+     * Writes the length of the UTF-8 encoding of <code>s</code> followed
+     * by the encoding itself. Unpaired surrogates are written as '?'.
+     */
+    private void writeUTF8(final String s) {
+        int len = s.length();
+        int utfLength = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                utfLength++;
+            } else if (c < 0x800) {
+                utfLength += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                utfLength += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                utfLength++;
+            } else {
+                utfLength += 3;
+            }
+        }
+        writeVarLong(utfLength);
+        ensureCapacity(utfLength);
+        byte[] b = buf;
+        int n = count;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[n++] = (byte) c;
+            } else if (c < 0x800) {
+                b[n++] = (byte) (0xC0 | (c >> 6));
+                b[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[n++] = (byte) (0xF0 | (cp >> 18));
+                b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[n++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                b[n++] = (byte) '?';
+            } else {
+                b[n++] = (byte) (0xE0 | (c >> 12));
+                b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        count = n;
+    }
+}
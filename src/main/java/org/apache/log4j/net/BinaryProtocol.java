@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.net;
+
+/**
+ * Constants of the binary event protocol spoken between a
+ * {@link SocketAppender} and a {@link SocketNode}.
+ *
+ * <p>A connection opens with a six byte <em>hello</em> from the client:
+ * the magic bytes <code>L4JB</code>, the highest protocol version the
+ * client speaks and the option flags it would like to use. The server
+ * answers with the magic bytes, the version both sides will use and the
+ * flags it accepted. A client that receives no answer, for instance
+ * because the server only understands serialized events and drops the
+ * connection, falls back to Java serialization. Since a serialized stream
+ * starts with <code>0xACED</code>, a server tells both formats apart by
+ * looking at the first bytes it receives.
+ *
+ * <p>After the handshake the client sends frames. Each frame starts with
+ * a {@link #FRAME_HEADER_LENGTH} byte header holding the length of the
+ * payload on the wire, the frame flags, the number of events in the frame
+ * and the length of the payload once inflated. The payload holds the
+ * events back to back. Strings that tend to repeat, such as logger and
+ * thread names, are entered into a per connection dictionary the first
+ * time they are sent and referred to by index afterwards. When
+ * compression has been negotiated payloads are deflated with a single
+ * deflater per connection, so that frames also benefit from earlier ones.
+ *
+ * @since 1.2.18
+ */
+final class BinaryProtocol {
+
+    /**
+     * Magic bytes opening the hello and its answer.
+     */
+    static final byte[] MAGIC = {'L', '4', 'J', 'B'};
+
+    /**
+     * Highest protocol version understood by this implementation.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Length of the hello and of its answer.
+     */
+    static final int HELLO_LENGTH = 6;
+
+    /**
+     * Flag requesting, or marking, deflated payloads.
+     */
+    static final int FLAG_COMPRESSED = 1;
+
+    /**
+     * Length of a frame header.
+     */
+    static final int FRAME_HEADER_LENGTH = 13;
+
+    /**
+     * Largest payload accepted by a reader.
+     */
+    static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * Maximum number of entries in a connection's string dictionary.
+     */
+    static final int DICTIONARY_CAPACITY = 4096;
+
+    /**
+     * String tag for <code>null</code>.
+     */
+    static final int STRING_NULL = 0;
+
+    /**
+     * String tag for a string sent in full and not remembered.
+     */
+    static final int STRING_LITERAL = 1;
+
+    /**
+     * String tag for a string sent in full and entered into the dictionary.
+     */
+    static final int STRING_DEFINE = 2;
+
+    /**
+     * Tags from this value on refer to dictionary entry
+     * <code>tag - STRING_REFERENCE</code>.
+     */
+    static final int STRING_REFERENCE = 3;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Determines whether <code>buf</code> starts with the magic bytes.
+     *
+     * @param buf buffer, at least four bytes long.
+     * @return true if the magic bytes are present.
+     */
+    static boolean isMagic(final byte[] buf) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,562 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+import org.apache.log4j.spi.LoggerRepository;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * A {@link SocketServer} serving all its clients from a small, fixed
+ * number of threads.
+ *
+ * <pre>
+ * <b>Usage:</b> java org.apache.log4j.net.SelectorSocketServer port configFile configDir [ioThreads [workerThreads]]
+ * </pre>
+ *
+ * <p>The arguments and the choice of a hierarchy for each client are
+ * the same as for {@link SocketServer}. Connections are read by
+ * <em>ioThreads</em> selector threads, two by default, which decode the
+ * frames of the binary protocol of {@link SocketAppender} as bytes
+ * arrive. The decoded events are logged by a pool of
+ * <em>workerThreads</em> threads, four by default, in the order each
+ * client sent them.
+ *
+ * <p>When more than {@link #MAX_PENDING_EVENTS} events of a client wait
+ * for a worker, the server stops reading from that client until half of
+ * them have been logged. The client then finds its connection full and
+ * slows down, while other clients are not affected.
+ *
+ * <p>Serialized events cannot be decoded piecewise. Clients sending them
+ * are detected from their first bytes and handed to a {@link SocketNode}
+ * running on a thread of its own, as with {@link SocketServer}.
+ *
+ * @since 1.2.18
+ */
+public class SelectorSocketServer extends SocketServer {
+
+    /**
+     * Default number of selector threads.
+     */
+    public static final int DEFAULT_IO_THREADS = 2;
+
+    /**
+     * Default number of threads logging decoded events.
+     */
+    public static final int DEFAULT_WORKER_THREADS = 4;
+
+    /**
+     * Number of events of one client that may wait for a worker before
+     * the server stops reading from it.
+     */
+    public static final int MAX_PENDING_EVENTS = 1024;
+
+    /**
+     * Number of events a worker logs for one client before giving other
+     * clients a turn.
+     */
+    static final int DISPATCH_BATCH = 64;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    static Logger logger = Logger.getLogger(SelectorSocketServer.class);
+
+    private final IoThread[] ioThreads;
+    private final ExecutorService workers;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean closed;
+    private int next;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param directory     directory holding the client configurations.
+     * @param ioThreads     number of selector threads.
+     * @param workerThreads number of threads logging events.
+     * @throws IOException if a selector could not be opened.
+     */
+    public SelectorSocketServer(File directory, int ioThreads,
+                                int workerThreads) throws IOException {
+        super(directory);
+        this.ioThreads = new IoThread[Math.max(1, ioThreads)];
+        for (int i = 0; i < this.ioThreads.length; i++) {
+            this.ioThreads[i] = new IoThread(i);
+        }
+        workers = Executors.newFixedThreadPool(Math.max(1, workerThreads));
+    }
+
+    public static void main(String argv[]) {
+        if (argv.length < 3 || argv.length > 5) {
+            usage("Wrong number of arguments.");
+        }
+        int port = 0;
+        int ioThreads = DEFAULT_IO_THREADS;
+        int workerThreads = DEFAULT_WORKER_THREADS;
+        try {
+            port = Integer.parseInt(argv[0]);
+            if (argv.length > 3) {
+                ioThreads = Integer.parseInt(argv[3]);
+            }
+            if (argv.length > 4) {
+                workerThreads = Integer.parseInt(argv[4]);
+            }
+        } catch (NumberFormatException e) {
+            usage("Could not interpret number [" + e.getMessage() + "].");
+        }
+
+        PropertyConfigurator.configure(argv[1]);
+
+        File dir = new File(argv[2]);
+        if (!dir.isDirectory()) {
+            usage("[" + argv[2] + "] is not a directory.");
+        }
+
+        try {
+            new SelectorSocketServer(dir, ioThreads, workerThreads).listen(port);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    static void usage(String msg) {
+        System.err.println(msg);
+        System.err.println("Usage: java " + SelectorSocketServer.class.getName()
+                + " port configFile directory [ioThreads [workerThreads]]");
+        System.exit(1);
+    }
+
+    /**
+     * Accepts connections on <code>port</code> until {@link #close} is
+     * called. The calling thread is used to accept connections.
+     *
+     * @param port port to listen on.
+     * @throws IOException if the port could not be bound.
+     */
+    public void listen(int port) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().bind(new InetSocketAddress(port));
+            for (int i = 0; i < ioThreads.length; i++) {
+                ioThreads[i].start();
+            }
+        }
+        logger.info("Listening on port " + serverChannel.socket().getLocalPort());
+        try {
+            while (!closed) {
+                SocketChannel channel = serverChannel.accept();
+                Socket socket = channel.socket();
+                logger.info("Connected to client at " + socket.getInetAddress());
+                try {
+                    channel.configureBlocking(false);
+                    LoggerRepository h = getHierarchy(socket.getInetAddress());
+                    IoThread io = ioThreads[next++ % ioThreads.length];
+                    io.register(new Connection(channel, io, h));
+                } catch (IOException e) {
+                    logger.warn("Could not set up connection from "
+                            + socket.getInetAddress(), e);
+                    channel.close();
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // close() was called
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return local port, or -1 if not listening.
+     */
+    public int getLocalPort() {
+        ServerSocketChannel c = serverChannel;
+        return c == null ? -1 : c.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the connections of all
+     * clients. Events already decoded are still logged.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                logger.info("Could not close server channel.", e);
+            }
+        }
+        for (int i = 0; i < ioThreads.length; i++) {
+            ioThreads[i].selector.wakeup();
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * A selector thread reading a share of the connections.
+     */
+    private final class IoThread extends Thread {
+
+        final Selector selector;
+        private final ConcurrentLinkedQueue tasks = new ConcurrentLinkedQueue();
+        private final List handoffs = new ArrayList();
+
+        IoThread(int index) throws IOException {
+            super("SelectorSocketServer-IO-" + index);
+            selector = Selector.open();
+        }
+
+        /**
+         * Runs <code>task</code> on this thread.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void register(final Connection connection) {
+            execute(new Runnable() {
+                public void run() {
+                    try {
+                        connection.key = connection.channel.register(
+                                selector, SelectionKey.OP_READ, connection);
+                    } catch (IOException e) {
+                        logger.warn("Could not register connection.", e);
+                        connection.close();
+                    }
+                }
+            });
+        }
+
+        void handOff(Connection connection) {
+            handoffs.add(connection);
+        }
+
+        public void run() {
+            try {
+                while (!closed) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = (Runnable) tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator iter = selector.selectedKeys().iterator();
+                    while (iter.hasNext()) {
+                        SelectionKey key = (SelectionKey) iter.next();
+                        iter.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).read();
+                        }
+                    }
+                    if (!handoffs.isEmpty()) {
+                        // flush the cancelled keys so the channels can
+                        // be switched back to blocking mode
+                        selector.selectNow();
+                        for (int i = 0; i < handoffs.size(); i++) {
+                            ((Connection) handoffs.get(i)).startNode();
+                        }
+                        handoffs.clear();
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Selector failure, closing connections.", e);
+            } finally {
+                Iterator iter = selector.keys().iterator();
+                while (iter.hasNext()) {
+                    ((Connection) ((SelectionKey) iter.next()).attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    logger.info("Could not close selector.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of one client: bytes received but not decoded yet and events
+     * decoded but not logged yet. The events are logged by a worker, which
+     * runs the connection itself.
+     */
+    private final class Connection implements Runnable {
+
+        final SocketChannel channel;
+        final IoThread io;
+        final LoggerRepository hierarchy;
+        SelectionKey key;
+
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private int needed;
+        private BinaryEventReader reader;
+
+        // guarded by pending
+        private final LinkedList pending = new LinkedList();
+        private boolean scheduled;
+        private boolean paused;
+
+        Connection(SocketChannel channel, IoThread io,
+                   LoggerRepository hierarchy) {
+            this.channel = channel;
+            this.io = io;
+            this.hierarchy = hierarchy;
+        }
+
+        /**
+         * Reads what the client sent and decodes the complete frames.
+         * Runs on the selector thread.
+         */
+        void read() {
+            try {
+                if (channel.read(in) < 0) {
+                    logger.info("Client at " + channel.socket().getInetAddress()
+                            + " closed the connection.");
+                    close();
+                    return;
+                }
+                process();
+            } catch (IOException e) {
+                logger.info("Caught java.io.IOException: " + e);
+                logger.info("Closing connection.");
+                close();
+            }
+        }
+
+        private void process() throws IOException {
+            in.flip();
+            try {
+                decode();
+            } finally {
+                in.compact();
+            }
+            if (needed > in.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, 2 * in.capacity()));
+                in.flip();
+                larger.put(in);
+                in = larger;
+            }
+        }
+
+        private void decode() throws IOException {
+            while (true) {
+                if (reader == null) {
+                    if (in.remaining() < BinaryProtocol.MAGIC.length) {
+                        return;
+                    }
+                    byte[] hello = new byte[BinaryProtocol.HELLO_LENGTH];
+                    for (int i = 0; i < BinaryProtocol.MAGIC.length; i++) {
+                        hello[i] = in.get(in.position() + i);
+                    }
+                    if (!BinaryProtocol.isMagic(hello)) {
+                        handOff();
+                        return;
+                    }
+                    if (in.remaining() < hello.length) {
+                        return;
+                    }
+                    in.get(hello);
+                    byte[] answer = BinaryEventReader.answer(hello);
+                    ByteBuffer out = ByteBuffer.wrap(answer);
+                    // the socket buffer is empty, so this does not spin
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+                    reader = new BinaryEventReader(null, hierarchy,
+                            BinaryEventReader.isCompressed(answer));
+                    continue;
+                }
+
+                if (paused || in.remaining() < BinaryProtocol.FRAME_HEADER_LENGTH) {
+                    return;
+                }
+                int p = in.position();
+                int length = in.getInt(p);
+                BinaryEventReader.checkFrameLength(length);
+                int total = BinaryProtocol.FRAME_HEADER_LENGTH + length;
+                if (in.remaining() < total) {
+                    needed = total;
+                    return;
+                }
+                reader.setFrame(in.array(),
+                        in.arrayOffset() + p + BinaryProtocol.FRAME_HEADER_LENGTH,
+                        length, in.get(p + 4), in.getInt(p + 5), in.getInt(p + 9));
+                List events = new ArrayList();
+                while (reader.hasEvent()) {
+                    events.add(reader.nextEvent());
+                }
+                in.position(p + total);
+                enqueue(events);
+            }
+        }
+
+        private void enqueue(List events) {
+            boolean submit = false;
+            synchronized (pending) {
+                pending.addAll(events);
+                if (pending.size() >= MAX_PENDING_EVENTS && !paused) {
+                    paused = true;
+                    key.interestOps(0);
+                }
+                if (!scheduled && !pending.isEmpty()) {
+                    scheduled = true;
+                    submit = true;
+                }
+            }
+            if (submit) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            try {
+                workers.execute(this);
+            } catch (RuntimeException e) {
+                // the server is shutting down
+                synchronized (pending) {
+                    pending.clear();
+                    scheduled = false;
+                }
+            }
+        }
+
+        /**
+         * Logs pending events. Runs on a worker thread.
+         */
+        public void run() {
+            for (int i = 0; i < DISPATCH_BATCH; i++) {
+                LoggingEvent event;
+                boolean resume = false;
+                synchronized (pending) {
+                    event = (LoggingEvent) pending.poll();
+                    if (event == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (paused && pending.size() <= MAX_PENDING_EVENTS / 2) {
+                        paused = false;
+                        resume = true;
+                    }
+                }
+                if (resume) {
+                    io.execute(new Runnable() {
+                        public void run() {
+                            resume();
+                        }
+                    });
+                }
+                try {
+                    Logger remoteLogger = (Logger) event.getLogger();
+                    if (event.getLevel().isGreaterOrEqual(remoteLogger.getEffectiveLevel())) {
+                        remoteLogger.callAppenders(event);
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Unexpected exception while logging a remote event.", e);
+                }
+            }
+            // let other clients have a turn
+            schedule();
+        }
+
+        private void resume() {
+            if (!key.isValid()) {
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            try {
+                // frames received before the pause
+                process();
+            } catch (IOException e) {
+                logger.info("Caught java.io.IOException: " + e);
+                logger.info("Closing connection.");
+                close();
+            }
+        }
+
+        /**
+         * Prepares to pass a client sending serialized events to a
+         * {@link SocketNode}, once its key has been flushed.
+         */
+        private void handOff() {
+            key.cancel();
+            io.handOff(this);
+        }
+
+        void startNode() {
+            try {
+                channel.configureBlocking(true);
+                in.flip();
+                byte[] received = new byte[in.remaining()];
+                in.get(received);
+                final Socket socket = channel.socket();
+                final InputStream stream = new SequenceInputStream(
+                        new ByteArrayInputStream(received), socket.getInputStream());
+                logger.info("Starting new socket node for serialized events from "
+                        + socket.getInetAddress());
+                new Thread(new Runnable() {
+                    public void run() {
+                        new SocketNode(socket, hierarchy, stream).run();
+                    }
+                }).start();
+            } catch (IOException e) {
+                logger.warn("Could not hand connection to a socket node.", e);
+                close();
+            }
+        }
+
+        void close() {
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.info("Could not close connection.", e);
+            }
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+    }
+}
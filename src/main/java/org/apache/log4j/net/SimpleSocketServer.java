@@ -37,6 +37,9 @@ import org.apache.log4j.xml.DOMConfigurator;
  * PropertyConfigurator} or to {@link DOMConfigurator} if an XML file.
  * </pre>
  *
+ * <p>Clients may send serialized events or use the binary protocol of
+ * {@link SocketAppender}, see {@link SocketNode}.
+ *
  * @author Ceki G&uuml;lc&uuml;
  * @since 0.8.4
  */
@@ -24,6 +24,12 @@ import java.io.ObjectOutputStream;
 import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.helpers.LogLog;
@@ -47,6 +53,13 @@ import org.apache.log4j.spi.LoggingEvent;
  * <p><li>SocketAppenders do not use a layout. They ship a
  * serialized {@link LoggingEvent} object to the server side.
  *
+ * <p><li>With the <b>Protocol</b> option set to <code>binary</code>,
+ * events are sent in a compact binary format instead of being
+ * serialized. Frames may then be compressed and, with a positive
+ * <b>BufferSize</b>, hold up to <b>BatchSize</b> queued events. Servers that do
+ * not understand the binary format are detected when connecting, in
+ * which case serialized events are sent.
+ *
  * <p><li>Remote logging uses the TCP protocol. Consequently, if
  * the server is reachable, then log events will eventually arrive
  * at the server.
@@ -56,6 +69,17 @@ import org.apache.log4j.spi.LoggingEvent;
  * then event transmission is resumed transparently. This
  * transparent reconneciton is performed by a <em>connector</em>
  * thread which periodically attempts to connect to the server.
+ * When <b>MaxReconnectionDelay</b> is set, the delay between attempts
+ * doubles after each failure, up to that value.
+ *
+ * <p><li>With a positive <b>BufferSize</b>, events are instead queued
+ * and sent by a dedicated <em>sender</em> thread, which also takes care
+ * of reconnecting. Events queued while the server is unreachable are
+ * sent once the connection is back, and callers never wait for the
+ * network. When the queue is full, events are discarded unless
+ * <b>Blocking</b> is set and the server is reachable. Events being sent when a connection fails
+ * are sent again on the next connection, so the server may receive
+ * them twice.
  *
  * <p><li>Logging events are automatically <em>buffered</em> by the
  * native TCP implementation. This means that if the link to server
@@ -125,9 +149,36 @@ public class SocketAppender extends AppenderSkeleton {
      */
     public static final String ZONE = "_log4j_obj_tcpconnect_appender.local.";
 
+    /**
+     * Value of the <b>Protocol</b> option selecting Java serialization.
+     *
+     * @since 1.2.18
+     */
+    public static final String PROTOCOL_SERIALIZED = "serialized";
+
+    /**
+     * Value of the <b>Protocol</b> option selecting the binary protocol.
+     *
+     * @since 1.2.18
+     */
+    public static final String PROTOCOL_BINARY = "binary";
+
+    /**
+     * Milliseconds to wait for the server to answer a binary protocol
+     * hello before falling back to serialization.
+     */
+    static final int HANDSHAKE_TIMEOUT = 10000;
+
+    /**
+     * Milliseconds {@link #close} waits for the sender thread to send the
+     * events still queued.
+     */
+    static final int SHUTDOWN_TIMEOUT = 5000;
+
     InetAddress address;
     int port = DEFAULT_PORT;
     ObjectOutputStream oos;
+    BinaryEventWriter writer;
     int reconnectionDelay = DEFAULT_RECONNECTION_DELAY;
     boolean locationInfo = false;
     private String application;
@@ -141,6 +192,29 @@ public class SocketAppender extends AppenderSkeleton {
     private static final int RESET_FREQUENCY = 1;
     private boolean advertiseViaMulticastDNS;
     private ZeroConfSupport zeroConf;
+    private String protocol = PROTOCOL_SERIALIZED;
+    private boolean compression;
+    private int batchSize = 1;
+    private boolean binaryRefused;
+    private int maxReconnectionDelay;
+    private int bufferSize;
+    private boolean blocking;
+    private volatile BlockingQueue queue;
+    private volatile Sender sender;
+
+    /**
+     * Set by {@link #close} before it waits for the appender lock, so
+     * that callers waiting for room in the queue give up.
+     */
+    private volatile boolean closing;
+
+    /**
+     * Socket underneath {@link #oos}, closed by {@link #stopSender} to
+     * abort a write to a server that stopped reading.
+     */
+    private volatile Socket oosSocket;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
 
     public SocketAppender() {
     }
@@ -169,11 +243,24 @@ public class SocketAppender extends AppenderSkeleton {
      * Connect to the specified <b>RemoteHost</b> and <b>Port</b>.
      */
     public void activateOptions() {
+        closing = false;
+        binaryRefused = false;
         if (advertiseViaMulticastDNS) {
             zeroConf = new ZeroConfSupport(ZONE, port, getName());
             zeroConf.advertise();
         }
-        connect(address, port);
+        if (bufferSize > 0) {
+            stopSender();
+            cleanUp();
+            if (address != null) {
+                queue = new ArrayBlockingQueue(bufferSize);
+                sender = new Sender(queue);
+                sender.setDaemon(true);
+                sender.start();
+            }
+        } else {
+            connect(address, port);
+        }
     }
 
     /**
@@ -181,17 +268,61 @@ public class SocketAppender extends AppenderSkeleton {
      *
      * <p>This will mark the appender as closed and call then {@link
      * #cleanUp} method.
+     *
+     * <p>The sender thread, if any, is stopped before taking the lock of
+     * the appender, which a caller waiting for room in the queue holds.
      */
-    synchronized public void close() {
-        if (closed)
-            return;
+    public void close() {
+        closing = true;
+        stopSender();
+        synchronized (this) {
+            if (closed)
+                return;
 
-        this.closed = true;
-        if (advertiseViaMulticastDNS) {
-            zeroConf.unadvertise();
+            this.closed = true;
+            if (advertiseViaMulticastDNS) {
+                zeroConf.unadvertise();
+            }
+
+            cleanUp();
         }
+    }
 
-        cleanUp();
+    /**
+     * Lets the sender thread, if any, send the queued events and waits
+     * at most {@link #SHUTDOWN_TIMEOUT} milliseconds for it to finish.
+     */
+    private void stopSender() {
+        Sender s = sender;
+        if (s != null) {
+            s.closing = true;
+            try {
+                s.join(SHUTDOWN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (s.isAlive()) {
+                LogLog.warn("Sender thread of SocketAppender named \""
+                        + name + "\" did not finish in time, "
+                        + s.queue.size() + " events not sent.");
+                s.interrupt();
+                // interrupting does not abort a write to a plain socket
+                Socket socket = oosSocket;
+                if (socket != null) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+                try {
+                    s.join(SHUTDOWN_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sender = null;
+            queue = null;
+        }
     }
 
     /**
@@ -199,6 +330,25 @@ public class SocketAppender extends AppenderSkeleton {
      * connector thread if it has been created
      */
     public void cleanUp() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+                LogLog.error("Could not send pending events.", e);
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException) {
+                    Thread.currentThread().interrupt();
+                }
+                LogLog.error("Could not close connection.", e);
+            }
+            writer = null;
+        }
         if (oos != null) {
             try {
                 oos.close();
@@ -209,6 +359,7 @@ public class SocketAppender extends AppenderSkeleton {
                 LogLog.error("Could not close oos.", e);
             }
             oos = null;
+            oosSocket = null;
         }
         if (connector != null) {
             //LogLog.debug("Interrupting the connector.");
@@ -223,7 +374,7 @@ public class SocketAppender extends AppenderSkeleton {
         try {
             // First, close the previous connection if any.
             cleanUp();
-            oos = new ObjectOutputStream(new Socket(address, port).getOutputStream());
+            openConnection();
         } catch (IOException e) {
             if (e instanceof InterruptedIOException) {
                 Thread.currentThread().interrupt();
@@ -252,36 +403,33 @@ public class SocketAppender extends AppenderSkeleton {
             return;
         }
 
-        if (oos != null) {
-            try {
+        prepare(event);
+        BlockingQueue q = queue;
+        if (q != null) {
+            if (!enqueue(q, event)) {
+                droppedCount.incrementAndGet();
+            }
+            return;
+        }
 
-                if (locationInfo) {
-                    event.getLocationInformation();
-                }
-                if (application != null) {
-                    event.setProperty("application", application);
-                }
-                event.getNDC();
-                event.getThreadName();
-                event.getMDCCopy();
-                event.getRenderedMessage();
-                event.getThrowableStrRep();
-
-                oos.writeObject(event);
-                //LogLog.debug("=========Flushing.");
-                oos.flush();
-                if (++counter >= RESET_FREQUENCY) {
-                    counter = 0;
-                    // Failing to reset the object output stream every now and
-                    // then creates a serious memory leak.
-                    //System.err.println("Doing oos.reset()");
-                    oos.reset();
+        if (oos != null || writer != null) {
+            try {
+                if (writer != null) {
+                    // frames are only batched by the sender thread, which
+                    // flushes them as soon as the queue is empty
+                    writer.write(event);
+                    writer.flush();
+                } else {
+                    writeObject(event);
+                    oos.flush();
                 }
+                sentCount.incrementAndGet();
             } catch (IOException e) {
                 if (e instanceof InterruptedIOException) {
                     Thread.currentThread().interrupt();
                 }
-                oos = null;
+                droppedCount.incrementAndGet();
+                dropConnection();
                 LogLog.warn("Detected problem with connection: " + e);
                 if (reconnectionDelay > 0) {
                     fireConnector();
@@ -290,7 +438,101 @@ public class SocketAppender extends AppenderSkeleton {
                             ErrorCode.GENERIC_FAILURE);
                 }
             }
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Queues an event for the sender thread. With <b>Blocking</b>, waits
+     * for room in the queue until the appender is closing or the server
+     * is found unreachable. The caller holds the lock of the appender and
+     * of its loggers, which {@link #close} and
+     * {@link org.apache.log4j.LogManager#shutdown} need.
+     *
+     * @return true if the event was queued.
+     */
+    private boolean enqueue(BlockingQueue q, LoggingEvent event) {
+        if (closing) {
+            return false;
+        }
+        if (!blocking) {
+            return q.offer(event);
+        }
+        try {
+            while (!closing) {
+                if (q.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                Sender s = sender;
+                if (s == null || s.unreachable) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        return false;
+    }
+
+    /**
+     * Computes the lazily initialized event data that has to be sent,
+     * while still on the thread that logged the event.
+     */
+    private void prepare(LoggingEvent event) {
+        if (locationInfo) {
+            event.getLocationInformation();
+        }
+        if (application != null) {
+            event.setProperty("application", application);
+        }
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+    }
+
+    private void writeObject(LoggingEvent event) throws IOException {
+        oos.writeObject(event);
+        if (++counter >= RESET_FREQUENCY) {
+            counter = 0;
+            // Failing to reset the object output stream every now and
+            // then creates a serious memory leak.
+            oos.reset();
+        }
+    }
+
+    /**
+     * Closes the current connection, if any, without sending anything.
+     */
+    private void dropConnection() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+            writer = null;
+        }
+        if (oos != null) {
+            try {
+                oos.close();
+            } catch (IOException ignored) {
+            }
+            oos = null;
+            oosSocket = null;
+        }
+    }
+
+    /**
+     * Returns the delay to wait after a failed connection attempt that
+     * followed a wait of <code>delay</code> milliseconds.
+     */
+    int nextReconnectionDelay(int delay) {
+        if (maxReconnectionDelay <= reconnectionDelay) {
+            return reconnectionDelay;
+        }
+        return (int) Math.min(2L * delay, maxReconnectionDelay);
     }
 
     public void setAdvertiseViaMulticastDNS(boolean advertiseViaMulticastDNS) {
@@ -301,6 +543,28 @@ public class SocketAppender extends AppenderSkeleton {
         return advertiseViaMulticastDNS;
     }
 
+    /**
+     * Opens a connection to the remote host, negotiating the binary
+     * protocol if it was requested and the server has not refused it yet.
+     */
+    private void openConnection() throws IOException {
+        if (PROTOCOL_BINARY.equalsIgnoreCase(protocol) && !binaryRefused) {
+            BinaryEventWriter w = BinaryEventWriter.connect(address, port,
+                    compression, HANDSHAKE_TIMEOUT);
+            if (w != null) {
+                writer = w;
+                return;
+            }
+            binaryRefused = true;
+            LogLog.warn("Remote log4j server at [" + address.getHostName()
+                    + "] does not support the binary protocol,"
+                    + " sending serialized events instead.");
+        }
+        Socket socket = new Socket(address, port);
+        oosSocket = socket;
+        oos = new ObjectOutputStream(socket.getOutputStream());
+    }
+
     void fireConnector() {
         if (connector == null) {
             LogLog.debug("Starting a new connector thread.");
@@ -419,6 +683,174 @@ public class SocketAppender extends AppenderSkeleton {
         return reconnectionDelay;
     }
 
+    /**
+     * The <b>Protocol</b> option selects how events are sent, either
+     * <code>serialized</code>, the default, or <code>binary</code>.
+     * The binary protocol is only used with servers that accept it,
+     * others receive serialized events.
+     *
+     * @param protocol protocol name.
+     * @since 1.2.18
+     */
+    public void setProtocol(String protocol) {
+        this.protocol = protocol;
+    }
+
+    /**
+     * Returns value of the <b>Protocol</b> option.
+     *
+     * @since 1.2.18
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * The <b>Compression</b> option takes a boolean value. If true,
+     * frames of the binary protocol are deflated, provided the server
+     * agrees. The default is false.
+     *
+     * @param compression whether to compress frames.
+     * @since 1.2.18
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Returns value of the <b>Compression</b> option.
+     *
+     * @since 1.2.18
+     */
+    public boolean getCompression() {
+        return compression;
+    }
+
+    /**
+     * The <b>BatchSize</b> option sets the maximum number of events
+     * grouped into one frame of the binary protocol. It only applies
+     * with a positive <b>BufferSize</b>: the sender thread groups the
+     * events waiting in the queue and sends a partial frame as soon as
+     * the queue is empty, so events are never held back. Without a
+     * sender thread, every event is sent in its own frame as soon as it
+     * is appended.
+     *
+     * @param batchSize events per frame, at least 1.
+     * @since 1.2.18
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Returns value of the <b>BatchSize</b> option.
+     *
+     * @since 1.2.18
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The <b>MaxReconnectionDelay</b> option sets the longest wait, in
+     * milliseconds, between connection attempts. After each failed
+     * attempt the delay doubles, starting from <b>ReconnectionDelay</b>,
+     * until it reaches this value. The default of 0 keeps the delay at
+     * <b>ReconnectionDelay</b>.
+     *
+     * @param delay maximum delay in milliseconds.
+     * @since 1.2.18
+     */
+    public void setMaxReconnectionDelay(int delay) {
+        this.maxReconnectionDelay = delay;
+    }
+
+    /**
+     * Returns value of the <b>MaxReconnectionDelay</b> option.
+     *
+     * @since 1.2.18
+     */
+    public int getMaxReconnectionDelay() {
+        return maxReconnectionDelay;
+    }
+
+    /**
+     * The <b>BufferSize</b> option sets the number of events that can
+     * wait for the sender thread. The default of 0 sends events on the
+     * calling thread and uses no sender thread.
+     *
+     * @param size queue capacity.
+     * @since 1.2.18
+     */
+    public void setBufferSize(int size) {
+        this.bufferSize = size;
+    }
+
+    /**
+     * Returns value of the <b>BufferSize</b> option.
+     *
+     * @since 1.2.18
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * The <b>Blocking</b> option takes a boolean value. If true, callers
+     * wait for room in a full queue; by default events that do not fit
+     * are discarded and counted by {@link #getDroppedCount}. Callers do
+     * not wait once the appender is closing, nor while the server is
+     * unreachable, so that a server that is down cannot block the
+     * application or {@link org.apache.log4j.LogManager#shutdown}.
+     *
+     * @param blocking whether to wait for room in the queue.
+     * @since 1.2.18
+     */
+    public void setBlocking(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    /**
+     * Returns value of the <b>Blocking</b> option.
+     *
+     * @since 1.2.18
+     */
+    public boolean getBlocking() {
+        return blocking;
+    }
+
+    /**
+     * Gets the number of events waiting for the sender thread.
+     *
+     * @return queued events, 0 without a sender thread.
+     * @since 1.2.18
+     */
+    public int getQueueSize() {
+        BlockingQueue q = queue;
+        return q == null ? 0 : q.size();
+    }
+
+    /**
+     * Gets the number of events handed to the connection so far.
+     *
+     * @return events sent.
+     * @since 1.2.18
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * Gets the number of events lost so far because there was no
+     * connection or no room in the queue.
+     *
+     * @return events dropped.
+     * @since 1.2.18
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
     /**
      * The Connector will reconnect when the server becomes available
      * again.  It does this by attempting to open a new connection every
@@ -436,14 +868,14 @@ public class SocketAppender extends AppenderSkeleton {
         boolean interrupted = false;
 
         public void run() {
-            Socket socket;
+            int delay = reconnectionDelay;
             while (!interrupted) {
                 try {
-                    sleep(reconnectionDelay);
+                    sleep(delay);
+                    delay = nextReconnectionDelay(delay);
                     LogLog.debug("Attempting connection to " + address.getHostName());
-                    socket = new Socket(address, port);
+                    openConnection();
                     synchronized (this) {
-                        oos = new ObjectOutputStream(socket.getOutputStream());
                         connector = null;
                         LogLog.debug("Connection established. Exiting connector thread.");
                         break;
@@ -473,4 +905,121 @@ public class SocketAppender extends AppenderSkeleton {
          */
     }
 
+    /**
+     * Sends queued events, connecting and reconnecting as needed.
+     */
+    class Sender extends Thread {
+
+        volatile boolean closing = false;
+
+        /**
+         * True while the last connection attempt failed.
+         */
+        volatile boolean unreachable = false;
+
+        private final BlockingQueue queue;
+        private final List batch = new ArrayList();
+
+        Sender(BlockingQueue queue) {
+            super("SocketAppender-Sender-" + name);
+            this.queue = queue;
+        }
+
+        public void run() {
+            int delay = reconnectionDelay;
+            boolean givenUp = false;
+            try {
+                while (true) {
+                    if (batch.isEmpty()) {
+                        Object event = closing
+                                ? queue.poll() : queue.poll(1, TimeUnit.SECONDS);
+                        if (event == null) {
+                            if (closing) {
+                                break;
+                            }
+                            continue;
+                        }
+                        batch.add(event);
+                        queue.drainTo(batch, bufferSize);
+                    }
+                    if (givenUp) {
+                        droppedCount.addAndGet(batch.size());
+                        batch.clear();
+                        continue;
+                    }
+                    if (oos == null && writer == null) {
+                        try {
+                            openConnection();
+                            unreachable = false;
+                            delay = reconnectionDelay;
+                        } catch (IOException e) {
+                            if (e instanceof InterruptedIOException) {
+                                throw new InterruptedException();
+                            }
+                            unreachable = true;
+                            if (reconnectionDelay <= 0) {
+                                givenUp = true;
+                                errorHandler.error("Could not connect to remote log4j server at ["
+                                        + address.getHostName() + "]. We are not retrying.",
+                                        e, ErrorCode.GENERIC_FAILURE);
+                            } else if (closing) {
+                                break;
+                            } else {
+                                LogLog.debug("Could not connect to " + address.getHostName()
+                                        + ". Exception is " + e);
+                                sleep(delay);
+                                delay = nextReconnectionDelay(delay);
+                            }
+                            continue;
+                        }
+                    }
+                    try {
+                        send();
+                    } catch (IOException e) {
+                        if (e instanceof InterruptedIOException) {
+                            throw new InterruptedException();
+                        }
+                        dropConnection();
+                        LogLog.warn("Detected problem with connection: " + e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                LogLog.debug("Sender interrupted. Leaving loop.");
+            }
+            droppedCount.addAndGet(batch.size() + queue.size());
+            batch.clear();
+            queue.clear();
+            dropConnection();
+        }
+
+        /**
+         * Sends the current batch, removing the events that were sent
+         * even if the connection fails part way.
+         */
+        private void send() throws IOException {
+            int size = batch.size();
+            int sent = 0;
+            try {
+                if (writer != null) {
+                    for (int i = 0; i < size; i++) {
+                        writer.write((LoggingEvent) batch.get(i));
+                        if (writer.getPendingEvents() >= batchSize || i == size - 1) {
+                            writer.flush();
+                            sent = i + 1;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        writeObject((LoggingEvent) batch.get(i));
+                    }
+                    oos.flush();
+                    sent = size;
+                }
+            } finally {
+                sentCount.addAndGet(sent);
+                batch.subList(0, sent).clear();
+            }
+        }
+    }
+
 }
@@ -17,14 +17,21 @@
 
 package org.apache.log4j.net;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.helpers.CyclicBuffer;
@@ -72,24 +79,18 @@ import org.apache.log4j.spi.LoggingEvent;
  * <p><li>If no remote clients are attached, the logging requests are
  * simply dropped.
  *
- * <p><li>Logging events are automatically <em>buffered</em> by the
- * native TCP implementation. This means that if the link to remote
- * client is slow but still faster than the rate of (log) event
- * production, the application will not be affected by the slow network
- * connection. However, if the network connection is slower then the
- * rate of event production, then the local application can only
- * progress at the network rate. In particular, if the network link to
- * the the remote client is down, the application will be blocked.
+ * <p><li>Each event is serialized once and the resulting bytes are
+ * queued for every connected client. A thread per client writes its
+ * queue to the network, so the application never waits for a client.
+ * When a client falls more than <b>ClientQueueSize</b> events behind,
+ * its oldest queued events are dropped, or, if
+ * <b>DisconnectOnLag</b> is set, the client is disconnected.
  *
  * <p>On the other hand, if the network link is up, but the remote
  * client is down, the client will not be blocked when making log
  * requests but the log events will be lost due to client
  * unavailability.
  *
- * <p>The single remote client case extends to multiple clients
- * connections. The rate of logging will be determined by the slowest
- * link.
- *
  * <p><li>If the JVM hosting the <code>SocketHubAppender</code> exits
  * before the <code>SocketHubAppender</code> is closed either
  * explicitly or subsequent to garbage collection, then there might
@@ -113,8 +114,21 @@ public class SocketHubAppender extends AppenderSkeleton {
      */
     static final int DEFAULT_PORT = 4560;
 
+    /**
+     * The default number of events queued for a client (1024).
+     *
+     * @since 1.2.18
+     */
+    public static final int DEFAULT_CLIENT_QUEUE_SIZE = 1024;
+
+    private static final int STREAM_HEADER_LENGTH = 4;
+
     private int port = DEFAULT_PORT;
-    private Vector oosList = new Vector();
+    private Vector clients = new Vector();
+    private int clientQueueSize = DEFAULT_CLIENT_QUEUE_SIZE;
+    private boolean disconnectOnLag;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final EventBytes eventBytes = new EventBytes();
     private ServerMonitor serverMonitor = null;
     private boolean locationInfo = false;
     private CyclicBuffer buffer = null;
@@ -183,20 +197,8 @@ public class SocketHubAppender extends AppenderSkeleton {
 
         // close all of the connections
         LogLog.debug("closing client connections");
-        while (oosList.size() != 0) {
-            ObjectOutputStream oos = (ObjectOutputStream) oosList.elementAt(0);
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (InterruptedIOException e) {
-                    Thread.currentThread().interrupt();
-                    LogLog.error("could not close oos.", e);
-                } catch (IOException e) {
-                    LogLog.error("could not close oos.", e);
-                }
-
-                oosList.removeElementAt(0);
-            }
+        while (clients.size() != 0) {
+            ((Client) clients.elementAt(0)).close();
         }
     }
 
@@ -218,50 +220,36 @@ public class SocketHubAppender extends AppenderSkeleton {
             event.getRenderedMessage();
             event.getThrowableStrRep();
 
-            if (buffer != null) {
-                buffer.add(event);
+            synchronized (clients) {
+                if (buffer != null) {
+                    buffer.add(event);
+                }
+                fanOut(event);
             }
         }
+    }
 
-        // if no event or no open connections, exit now
-        if ((event == null) || (oosList.size() == 0)) {
+    /**
+     * Serializes <code>event</code> once and queues the bytes for every
+     * client. The caller must hold the lock of the client list.
+     */
+    private void fanOut(LoggingEvent event) {
+        if (clients.size() == 0) {
             return;
         }
-
-        // loop through the current set of open connections, appending the event to each
-        for (int streamCount = 0; streamCount < oosList.size(); streamCount++) {
-
-            ObjectOutputStream oos = null;
-            try {
-                oos = (ObjectOutputStream) oosList.elementAt(streamCount);
-            } catch (ArrayIndexOutOfBoundsException e) {
-                // catch this, but just don't assign a value
-                // this should not really occur as this method is
-                // the only one that can remove oos's (besides cleanUp).
-            }
-
-            // list size changed unexpectedly? Just exit the append.
-            if (oos == null)
-                break;
-
-            try {
-                oos.writeObject(event);
-                oos.flush();
-                // Failing to reset the object output stream every now and
-                // then creates a serious memory leak.
-                // right now we always reset. TODO - set up frequency counter per oos?
-                oos.reset();
-            } catch (IOException e) {
-                if (e instanceof InterruptedIOException) {
-                    Thread.currentThread().interrupt();
-                }
-                // there was an io exception so just drop the connection
-                oosList.removeElementAt(streamCount);
-                LogLog.debug("dropped connection");
-
-                // decrement to keep the counter in place (for loop always increments)
-                streamCount--;
+        byte[] bytes;
+        try {
+            bytes = eventBytes.serialize(event);
+        } catch (IOException e) {
+            if (e instanceof InterruptedIOException) {
+                Thread.currentThread().interrupt();
             }
+            LogLog.error("could not serialize event.", e);
+            return;
+        }
+        // iterate backwards, clients may be removed along the way
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            ((Client) clients.elementAt(i)).offer(bytes);
         }
     }
 
@@ -346,11 +334,63 @@ public class SocketHubAppender extends AppenderSkeleton {
         return advertiseViaMulticastDNS;
     }
 
+    /**
+     * The <b>ClientQueueSize</b> option sets the number of events that
+     * may wait to be sent to one client. The default is 1024.
+     *
+     * @param size queue capacity per client.
+     * @since 1.2.18
+     */
+    public void setClientQueueSize(int size) {
+        clientQueueSize = Math.max(1, size);
+    }
+
+    /**
+     * Returns value of the <b>ClientQueueSize</b> option.
+     *
+     * @since 1.2.18
+     */
+    public int getClientQueueSize() {
+        return clientQueueSize;
+    }
+
+    /**
+     * The <b>DisconnectOnLag</b> option takes a boolean value. If true,
+     * a client whose queue is full is disconnected. By default the oldest
+     * event of the queue is dropped instead.
+     *
+     * @param disconnect whether to disconnect lagging clients.
+     * @since 1.2.18
+     */
+    public void setDisconnectOnLag(boolean disconnect) {
+        disconnectOnLag = disconnect;
+    }
+
+    /**
+     * Returns value of the <b>DisconnectOnLag</b> option.
+     *
+     * @since 1.2.18
+     */
+    public boolean getDisconnectOnLag() {
+        return disconnectOnLag;
+    }
+
+    /**
+     * Gets the number of events dropped so far from the queues of
+     * lagging clients.
+     *
+     * @return events dropped.
+     * @since 1.2.18
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
     /**
      * Start the ServerMonitor thread.
      */
     private void startServer() {
-        serverMonitor = new ServerMonitor(port, oosList);
+        serverMonitor = new ServerMonitor(port, clients);
     }
 
     /**
@@ -371,16 +411,16 @@ public class SocketHubAppender extends AppenderSkeleton {
      */
     private class ServerMonitor implements Runnable {
         private int port;
-        private Vector oosList;
+        private Vector clients;
         private boolean keepRunning;
         private Thread monitorThread;
 
         /**
          * Create a thread and start the monitor.
          */
-        public ServerMonitor(int _port, Vector _oosList) {
+        public ServerMonitor(int _port, Vector _clients) {
             port = _port;
-            oosList = _oosList;
+            clients = _clients;
             keepRunning = true;
             monitorThread = new Thread(this);
             monitorThread.setDaemon(true);
@@ -417,13 +457,11 @@ public class SocketHubAppender extends AppenderSkeleton {
             }
         }
 
-        private void sendCachedEvents(ObjectOutputStream stream) throws IOException {
+        private void sendCachedEvents(Client client) throws IOException {
             if (buffer != null) {
                 for (int i = 0; i < buffer.length(); i++) {
-                    stream.writeObject(buffer.get(i));
+                    client.offer(eventBytes.serialize(buffer.get(i)));
                 }
-                stream.flush();
-                stream.reset();
             }
         }
 
@@ -473,14 +511,16 @@ public class SocketHubAppender extends AppenderSkeleton {
                             LogLog.debug("accepting connection from " + remoteAddress.getHostName()
                                     + " (" + remoteAddress.getHostAddress() + ")");
 
-                            // create an ObjectOutputStream
-                            ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
-                            if (buffer != null && buffer.length() > 0) {
-                                sendCachedEvents(oos);
+                            Client client = new Client(socket);
+                            // no event may be appended between the
+                            // cached ones and the registration
+                            synchronized (clients) {
+                                if (buffer != null && buffer.length() > 0) {
+                                    sendCachedEvents(client);
+                                }
+                                clients.addElement(client);
                             }
-
-                            // add it to the oosList.  OK since Vector is synchronized.
-                            oosList.addElement(oos);
+                            client.start();
                         } catch (IOException e) {
                             if (e instanceof InterruptedIOException) {
                                 Thread.currentThread().interrupt();
@@ -501,5 +541,102 @@ public class SocketHubAppender extends AppenderSkeleton {
             }
         }
     }
-}
 
+    /**
+     * Serializes events into standalone records. A record written to a
+     * stream that has already received the serialization stream header
+     * reads back as the event; it ends with a reset so that the reading
+     * side does not carry over references from one event to the next,
+     * exactly as when each client had its own
+     * <code>ObjectOutputStream</code>.
+     */
+    private static final class EventBytes extends ByteArrayOutputStream {
+
+        EventBytes() {
+            super(1024);
+        }
+
+        byte[] serialize(LoggingEvent event) throws IOException {
+            reset();
+            ObjectOutputStream oos = new ObjectOutputStream(this);
+            oos.writeObject(event);
+            oos.reset();
+            oos.flush();
+            byte[] bytes = new byte[count - STREAM_HEADER_LENGTH];
+            System.arraycopy(buf, STREAM_HEADER_LENGTH, bytes, 0, bytes.length);
+            return bytes;
+        }
+    }
+
+    /**
+     * A connected client, with the queue of serialized events waiting
+     * for it and the thread writing them.
+     */
+    private final class Client extends Thread {
+
+        private final Socket socket;
+        private final BlockingQueue queue;
+        private volatile boolean done;
+
+        Client(Socket socket) {
+            super("SocketHubAppender-Client-" + socket.getInetAddress().getHostAddress()
+                    + ":" + socket.getPort());
+            setDaemon(true);
+            this.socket = socket;
+            this.queue = new ArrayBlockingQueue(clientQueueSize);
+        }
+
+        /**
+         * Queues a serialized event, applying the overflow policy when the
+         * client lags behind.
+         */
+        void offer(byte[] bytes) {
+            if (done || queue.offer(bytes)) {
+                return;
+            }
+            if (disconnectOnLag) {
+                LogLog.debug("disconnecting lagging client " + getName());
+                close();
+                return;
+            }
+            queue.poll();
+            droppedCount.incrementAndGet();
+            queue.offer(bytes);
+        }
+
+        public void run() {
+            try {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(socket.getOutputStream(), 8192));
+                out.writeShort(ObjectStreamConstants.STREAM_MAGIC);
+                out.writeShort(ObjectStreamConstants.STREAM_VERSION);
+                out.flush();
+                while (!done) {
+                    out.write((byte[]) queue.take());
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } catch (IOException e) {
+                if (!done) {
+                    LogLog.debug("dropped connection");
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            done = true;
+            clients.removeElement(this);
+            interrupt();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LogLog.debug("could not close client socket.", e);
+            }
+        }
+    }
+}
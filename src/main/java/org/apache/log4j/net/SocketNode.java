@@ -18,7 +18,9 @@
 package org.apache.log4j.net;
 
 import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
 import java.net.Socket;
@@ -37,6 +39,11 @@ import org.apache.log4j.spi.LoggingEvent;
  * <p>For example, the socket node might decide to log events to a
  * local file and also resent them to a second socket node.
  *
+ * <p>Clients may either send serialized events or use the binary
+ * protocol selected by the <b>Protocol</b> option of
+ * {@link SocketAppender}. The format is recognized from the first bytes
+ * received on the connection.
+ *
  * @author Ceki G&uuml;lc&uuml;
  * @since 0.8.4
  */
@@ -45,15 +52,49 @@ public class SocketNode implements Runnable {
     Socket socket;
     LoggerRepository hierarchy;
     ObjectInputStream ois;
+    BinaryEventReader reader;
 
     static Logger logger = Logger.getLogger(SocketNode.class);
 
     public SocketNode(Socket socket, LoggerRepository hierarchy) {
+        this(socket, hierarchy, null);
+    }
+
+    /**
+     * Creates a node reading from <code>in</code> rather than from the
+     * socket's own stream, for connections whose first bytes were already
+     * consumed by the caller.
+     *
+     * @param socket    client socket.
+     * @param hierarchy repository events are logged to.
+     * @param in        stream replaying the consumed bytes before the
+     *                  rest of the socket's input, or <code>null</code>.
+     * @since 1.2.18
+     */
+    SocketNode(Socket socket, LoggerRepository hierarchy, InputStream in) {
         this.socket = socket;
         this.hierarchy = hierarchy;
         try {
-            ois = new ObjectInputStream(
-                    new BufferedInputStream(socket.getInputStream()));
+            if (in == null) {
+                in = socket.getInputStream();
+            }
+            in = new BufferedInputStream(in);
+            byte[] hello = new byte[BinaryProtocol.HELLO_LENGTH];
+            // serialized streams open with a four byte header of their
+            // own, so looking at four bytes never blocks legacy clients
+            in.mark(hello.length);
+            if (readFully(in, hello, 0, BinaryProtocol.MAGIC.length)
+                    && BinaryProtocol.isMagic(hello)) {
+                if (!readFully(in, hello, BinaryProtocol.MAGIC.length,
+                        hello.length - BinaryProtocol.MAGIC.length)) {
+                    throw new EOFException("Incomplete protocol hello.");
+                }
+                reader = BinaryEventReader.accept(hello, in,
+                        socket.getOutputStream(), hierarchy);
+            } else {
+                in.reset();
+                ois = new ObjectInputStream(in);
+            }
         } catch (InterruptedIOException e) {
             Thread.currentThread().interrupt();
             logger.error("Could not open ObjectInputStream to " + socket, e);
@@ -64,6 +105,20 @@ public class SocketNode implements Runnable {
         }
     }
 
+    private static boolean readFully(final InputStream in, final byte[] buf,
+                                     final int off, final int len)
+            throws IOException {
+        int n = 0;
+        while (n < len) {
+            int r = in.read(buf, off + n, len - n);
+            if (r < 0) {
+                return false;
+            }
+            n += r;
+        }
+        return true;
+    }
+
     //public
     //void finalize() {
     //System.err.println("-------------------------Finalize called");
@@ -75,10 +130,14 @@ public class SocketNode implements Runnable {
         Logger remoteLogger;
 
         try {
-            if (ois != null) {
+            if (ois != null || reader != null) {
                 while (true) {
                     // read an event from the wire
-                    event = (LoggingEvent) ois.readObject();
+                    if (reader != null) {
+                        event = reader.readEvent();
+                    } else {
+                        event = (LoggingEvent) ois.readObject();
+                    }
                     // get a logger from the hierarchy. The name of the logger is taken to be the name contained in the event.
                     remoteLogger = hierarchy.getLogger(event.getLoggerName());
                     //event.logger = remoteLogger;
@@ -103,6 +162,9 @@ public class SocketNode implements Runnable {
         } catch (Exception e) {
             logger.error("Unexpected exception. Closing conneciton.", e);
         } finally {
+            if (reader != null) {
+                reader.close();
+            }
             if (ois != null) {
                 try {
                     ois.close();
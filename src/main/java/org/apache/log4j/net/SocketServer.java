@@ -44,6 +44,9 @@ import org.apache.log4j.spi.RootLogger;
  * <b>configDir</b> is a path to a directory containing configuration files, possibly one for each client host.
  * </pre>
  *
+ * <p>Clients may send serialized events or use the binary protocol of
+ * {@link SocketAppender}, see {@link SocketNode}.
+ *
  * <p>The <code>configFile</code> is used to configure the log4j
  * default hierarchy that the <code>SocketServer</code> will use to
  * report on its actions.
@@ -114,10 +117,7 @@ public class SocketServer {
                 InetAddress inetAddress = socket.getInetAddress();
                 cat.info("Connected to client at " + inetAddress);
 
-                LoggerRepository h = (LoggerRepository) server.hierarchyMap.get(inetAddress);
-                if (h == null) {
-                    h = server.configureHierarchy(inetAddress);
-                }
+                LoggerRepository h = server.getHierarchy(inetAddress);
 
                 cat.info("Starting new socket node.");
                 new Thread(new SocketNode(socket, h)).start();
@@ -158,6 +158,22 @@ public class SocketServer {
         hierarchyMap = new Hashtable(11);
     }
 
+    /**
+     * Gets the hierarchy events from <code>inetAddress</code> are logged
+     * to, configuring it on first use.
+     *
+     * @param inetAddress client address.
+     * @return hierarchy for the client.
+     * @since 1.2.18
+     */
+    synchronized LoggerRepository getHierarchy(InetAddress inetAddress) {
+        LoggerRepository h = (LoggerRepository) hierarchyMap.get(inetAddress);
+        if (h == null) {
+            h = configureHierarchy(inetAddress);
+        }
+        return h;
+    }
+
     // This method assumes that there is no hiearchy for inetAddress
     // yet. It will configure one and return it.
     LoggerRepository configureHierarchy(InetAddress inetAddress) {
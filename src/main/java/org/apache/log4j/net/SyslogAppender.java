@@ -19,13 +19,20 @@ package org.apache.log4j.net;
 
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.Layout;
+import org.apache.log4j.helpers.ByteLayoutAdapter;
+import org.apache.log4j.helpers.ByteSink;
 import org.apache.log4j.helpers.SyslogQuietWriter;
 import org.apache.log4j.helpers.SyslogWriter;
+import org.apache.log4j.spi.ByteLayout;
+import org.apache.log4j.spi.ErrorCode;
 import org.apache.log4j.spi.LoggingEvent;
 
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.io.IOException;
@@ -36,6 +43,14 @@ import java.io.IOException;
 /**
  * Use SyslogAppender to send log messages to a remote syslog daemon.
  *
+ * <p>Messages are sent as UDP packets in the format of RFC 3164 by
+ * default. The <b>Format</b> option selects the format of RFC 5424
+ * instead, where the MDC of each event is sent as structured data, and
+ * the <b>Protocol</b> option selects TCP with the octet counting framing
+ * of RFC 6587. Packets are encoded into a buffer reused from one event to
+ * the next and the timestamp of the header is only formatted once per
+ * second.
+ *
  * @author Ceki G&uuml;lc&uuml;
  * @author Anders Kristensen
  */
@@ -131,6 +146,42 @@ public class SyslogAppender extends AppenderSkeleton {
     protected static final int SYSLOG_HOST_OI = 0;
     protected static final int FACILITY_OI = 1;
 
+    /**
+     * Value of the <b>Protocol</b> option sending messages as UDP packets.
+     *
+     * @since 1.2.18
+     */
+    public static final String PROTOCOL_UDP = "udp";
+
+    /**
+     * Value of the <b>Protocol</b> option sending messages over TCP.
+     *
+     * @since 1.2.18
+     */
+    public static final String PROTOCOL_TCP = "tcp";
+
+    /**
+     * Value of the <b>Format</b> option selecting the BSD syslog format of
+     * RFC 3164.
+     *
+     * @since 1.2.18
+     */
+    public static final String FORMAT_RFC3164 = "rfc3164";
+
+    /**
+     * Value of the <b>Format</b> option selecting the syslog format of
+     * RFC 5424.
+     *
+     * @since 1.2.18
+     */
+    public static final String FORMAT_RFC5424 = "rfc5424";
+
+    /**
+     * Default SD-ID of the structured data holding the MDC, registered
+     * under the private enterprise number of the ASF.
+     */
+    static final String DEFAULT_STRUCTURED_DATA_ID = "mdc@18060";
+
     static final String TAB = "    ";
 
     // Have LOG_USER as default
@@ -142,6 +193,22 @@ public class SyslogAppender extends AppenderSkeleton {
     SyslogQuietWriter sqw;
     String syslogHost;
 
+    /**
+     * Writer wrapped by sqw, used to send encoded packets.
+     */
+    private SyslogWriter syslogWriter;
+
+    /**
+     * Reusable buffer packets are encoded into.
+     */
+    private ByteSink packetSink;
+
+    private String protocol = PROTOCOL_UDP;
+    private boolean rfc5424 = false;
+    private String appName;
+    private String structuredDataId = DEFAULT_STRUCTURED_DATA_ID;
+    private boolean immediateFlush = true;
+
     /**
      * If true, the appender will generate the HEADER (timestamp and host name)
      * part of the syslog packet.
@@ -155,6 +222,28 @@ public class SyslogAppender extends AppenderSkeleton {
      * @since 1.2.15
      */
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd HH:mm:ss ", Locale.ENGLISH);
+    /**
+     * Date format of RFC 5424 timestamps.
+     */
+    private final SimpleDateFormat timestampFormat =
+            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", Locale.ENGLISH);
+    /**
+     * Second of the cached header or timestamp.
+     */
+    private long cachedSecond = Long.MIN_VALUE;
+    /**
+     * HEADER part of RFC 3164 packets for cachedSecond.
+     */
+    private String cachedHeader;
+    /**
+     * RFC 5424 timestamp for cachedSecond, only the milliseconds are
+     * updated for each event.
+     */
+    private final StringBuffer cachedTimestamp = new StringBuffer(32);
+    /**
+     * HOSTNAME, APP-NAME, PROCID and MSGID of RFC 5424 packets.
+     */
+    private String headerSuffix;
     /**
      * Host name used to identify messages from this appender.
      *
@@ -203,6 +292,7 @@ public class SyslogAppender extends AppenderSkeleton {
             } catch (IOException e) {
                 sqw = null;
             }
+            syslogWriter = null;
         }
     }
 
@@ -367,41 +457,176 @@ public class SyslogAppender extends AppenderSkeleton {
             layoutHeaderChecked = true;
         }
 
-        String hdr = getPacketHeader(event.timeStamp);
-        String packet;
-        if (layout == null) {
-            packet = String.valueOf(event.getMessage());
+        int level = event.getLevel().getSyslogEquivalent();
+        ByteSink sink = getPacketSink();
+        beginPacket(sink, level, event.timeStamp, event, facilityPrinting);
+        String packet = null;
+        if (ByteLayoutAdapter.isNative(layout)) {
+            ((ByteLayout) layout).format(event, sink);
         } else {
-            packet = layout.format(event);
-        }
-        if (facilityPrinting || hdr.length() > 0) {
-            StringBuffer buf = new StringBuffer(hdr);
-            if (facilityPrinting) {
-                buf.append(facilityStr);
+            if (layout == null) {
+                packet = String.valueOf(event.getMessage());
+            } else {
+                packet = layout.format(event);
             }
-            buf.append(packet);
-            packet = buf.toString();
+            sink.append(packet);
         }
 
-        sqw.setLevel(event.getLevel().getSyslogEquivalent());
         //
-        //   if message has a remote likelihood of exceeding 1024 bytes
-        //      when encoded, consider splitting message into multiple packets
-        if (packet.length() > 256) {
+        //   messages too large for a single RFC 3164 datagram
+        //      are split into multiple packets
+        if (sink.size() > 1024 && !rfc5424 && !syslogWriter.isTcp()) {
+            if (packet == null) {
+                packet = layout.format(event);
+            }
+            String hdr = getPacketHeader(event.timeStamp);
+            if (facilityPrinting || hdr.length() > 0) {
+                StringBuffer buf = new StringBuffer(hdr);
+                if (facilityPrinting) {
+                    buf.append(facilityStr);
+                }
+                buf.append(packet);
+                packet = buf.toString();
+            }
+            sqw.setLevel(level);
             splitPacket(hdr, packet);
         } else {
-            sqw.write(packet);
+            sendPacket(sink);
+        }
+
+        appendThrowable(event, level);
+        if (immediateFlush) {
+            syslogWriter.flush();
+        }
+    }
+
+    /**
+     * Gets the reusable buffer packets are encoded into.
+     */
+    private ByteSink getPacketSink() {
+        if (packetSink == null) {
+            //  RFC 5424 messages are UTF-8, SyslogWriter otherwise
+            //      encodes with the platform default charset
+            Charset charset;
+            if (rfc5424) {
+                charset = Charset.forName("UTF-8");
+            } else {
+                charset = Charset.defaultCharset();
+            }
+            packetSink = new ByteSink(charset, 1024);
+        }
+        return packetSink;
+    }
+
+    /**
+     * Clears <code>sink</code> and appends the PRI and HEADER parts of a
+     * packet, followed by the structured data of <code>event</code> for
+     * RFC 5424 messages.
+     *
+     * @param event    event providing structured data, may be null.
+     * @param facility if true, the facility name is appended.
+     */
+    private void beginPacket(final ByteSink sink, final int level, final long timeStamp,
+                             final LoggingEvent event, final boolean facility) {
+        sink.clear();
+        sink.append('<');
+        int priority = syslogFacility | level;
+        if (priority >= 100) {
+            sink.append((char) ('0' + priority / 100));
+        }
+        if (priority >= 10) {
+            sink.append((char) ('0' + priority / 10 % 10));
+        }
+        sink.append((char) ('0' + priority % 10));
+        sink.append('>');
+        if (rfc5424) {
+            sink.append("1 ");
+            sink.append(getTimestamp(timeStamp));
+            sink.append(getHeaderSuffix());
+            appendStructuredData(sink, event);
+            sink.append(' ');
+        } else {
+            sink.append(getPacketHeader(timeStamp));
         }
+        if (facility) {
+            sink.append(facilityStr);
+        }
+    }
 
+    /**
+     * Appends the MDC of <code>event</code> as a single SD-ELEMENT, or the
+     * NILVALUE if it is empty.
+     */
+    private void appendStructuredData(final ByteSink sink, final LoggingEvent event) {
+        Map properties = null;
+        if (event != null) {
+            properties = event.getProperties();
+        }
+        if (properties == null || properties.isEmpty()) {
+            sink.append('-');
+            return;
+        }
+        sink.append('[');
+        sink.append(structuredDataId);
+        for (Iterator iter = properties.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            String key = String.valueOf(entry.getKey());
+            if (key.length() == 0) {
+                continue;
+            }
+            sink.append(' ');
+            //  PARAM-NAME is at most 32 printable US-ASCII characters
+            //      other than '=', ']', '"' and space
+            int length = Math.min(key.length(), 32);
+            for (int i = 0; i < length; i++) {
+                char c = key.charAt(i);
+                if (c <= ' ' || c >= 127 || c == '=' || c == ']' || c == '"') {
+                    c = '_';
+                }
+                sink.append(c);
+            }
+            sink.append("=\"");
+            String value = String.valueOf(entry.getValue());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\' || c == ']') {
+                    sink.append('\\');
+                }
+                sink.append(c);
+            }
+            sink.append('"');
+        }
+        sink.append(']');
+    }
+
+    /**
+     * Sends the content of <code>sink</code> as a single packet.
+     */
+    private void sendPacket(final ByteSink sink) {
+        try {
+            syslogWriter.writePacket(sink.getBuffer(), sink.size());
+        } catch (java.io.InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+            errorHandler.error("Failed to write packet.", e, ErrorCode.WRITE_FAILURE);
+        } catch (IOException e) {
+            errorHandler.error("Failed to write packet.", e, ErrorCode.WRITE_FAILURE);
+        }
+    }
+
+    private void appendThrowable(final LoggingEvent event, final int level) {
         if (layout == null || layout.ignoresThrowable()) {
             String[] s = event.getThrowableStrRep();
             if (s != null) {
+                ByteSink sink = getPacketSink();
                 for (int i = 0; i < s.length; i++) {
+                    beginPacket(sink, level, event.timeStamp, event, false);
                     if (s[i].startsWith("\t")) {
-                        sqw.write(hdr + TAB + s[i].substring(1));
+                        sink.append(TAB);
+                        sink.append(s[i], 1, s[i].length());
                     } else {
-                        sqw.write(hdr + s[i]);
+                        sink.append(s[i]);
                     }
+                    sendPacket(sink);
                 }
             }
         }
@@ -412,7 +637,7 @@ public class SyslogAppender extends AppenderSkeleton {
      * are set.
      */
     public void activateOptions() {
-        if (header) {
+        if (header || rfc5424) {
             getLocalHostname();
         }
         if (layout != null && layout.getHeader() != null) {
@@ -441,7 +666,8 @@ public class SyslogAppender extends AppenderSkeleton {
      * will fail.
      */
     public void setSyslogHost(final String syslogHost) {
-        this.sqw = new SyslogQuietWriter(new SyslogWriter(syslogHost),
+        this.syslogWriter = new SyslogWriter(syslogHost, PROTOCOL_TCP.equalsIgnoreCase(protocol));
+        this.sqw = new SyslogQuietWriter(syslogWriter,
                 syslogFacility, errorHandler);
         //this.stp = new SyslogTracerPrintWriter(sqw);
         this.syslogHost = syslogHost;
@@ -506,6 +732,127 @@ public class SyslogAppender extends AppenderSkeleton {
         return facilityPrinting;
     }
 
+    /**
+     * The <b>Protocol</b> option selects how messages are sent, either
+     * <code>udp</code>, the default, or <code>tcp</code>. Over TCP each
+     * message is preceded by its length in bytes and a space, messages
+     * are neither split nor truncated and a lost connection is retried at
+     * most every 30 seconds, messages being discarded in the meantime.
+     *
+     * @param protocol protocol name.
+     * @since 1.2.18
+     */
+    public void setProtocol(final String protocol) {
+        boolean tcp = PROTOCOL_TCP.equalsIgnoreCase(protocol);
+        this.protocol = protocol;
+        if (syslogWriter != null && syslogWriter.isTcp() != tcp) {
+            syslogWriter.close();
+            setSyslogHost(syslogHost);
+        }
+    }
+
+    /**
+     * Returns the value of the <b>Protocol</b> option.
+     *
+     * @since 1.2.18
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * The <b>Format</b> option selects the format of messages, either
+     * <code>rfc3164</code>, the default, or <code>rfc5424</code>.
+     *
+     * <p>RFC 5424 messages always have a header, with a timestamp in
+     * milliseconds, the host name and the <b>AppName</b>, and carry the MDC
+     * of the event as structured data. They are encoded in UTF-8 and, over
+     * UDP, truncated rather than split when larger than 1024 bytes.
+     *
+     * @param format format name.
+     * @since 1.2.18
+     */
+    public void setFormat(final String format) {
+        rfc5424 = FORMAT_RFC5424.equalsIgnoreCase(format);
+        packetSink = null;
+        cachedSecond = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the value of the <b>Format</b> option.
+     *
+     * @since 1.2.18
+     */
+    public String getFormat() {
+        return rfc5424 ? FORMAT_RFC5424 : FORMAT_RFC3164;
+    }
+
+    /**
+     * The <b>AppName</b> option sets the APP-NAME field of RFC 5424
+     * messages. It is the NILVALUE by default.
+     *
+     * @param appName application name.
+     * @since 1.2.18
+     */
+    public void setAppName(final String appName) {
+        this.appName = appName;
+        headerSuffix = null;
+    }
+
+    /**
+     * Returns the value of the <b>AppName</b> option.
+     *
+     * @since 1.2.18
+     */
+    public String getAppName() {
+        return appName;
+    }
+
+    /**
+     * The <b>StructuredDataId</b> option sets the SD-ID of the structured
+     * data holding the MDC in RFC 5424 messages. The default is
+     * <code>mdc@18060</code>.
+     *
+     * @param structuredDataId SD-ID.
+     * @since 1.2.18
+     */
+    public void setStructuredDataId(final String structuredDataId) {
+        if (structuredDataId != null && structuredDataId.length() > 0) {
+            this.structuredDataId = structuredDataId;
+        }
+    }
+
+    /**
+     * Returns the value of the <b>StructuredDataId</b> option.
+     *
+     * @since 1.2.18
+     */
+    public String getStructuredDataId() {
+        return structuredDataId;
+    }
+
+    /**
+     * If the <b>ImmediateFlush</b> option is true, the default, messages
+     * sent over TCP are flushed at the end of each append. Otherwise they
+     * are written in batches when the buffer of the connection fills up
+     * and when the appender is closed.
+     *
+     * @param value whether to flush after each event.
+     * @since 1.2.18
+     */
+    public void setImmediateFlush(final boolean value) {
+        immediateFlush = value;
+    }
+
+    /**
+     * Returns the value of the <b>ImmediateFlush</b> option.
+     *
+     * @since 1.2.18
+     */
+    public boolean getImmediateFlush() {
+        return immediateFlush;
+    }
+
     /**
      * If true, the appender will generate the HEADER part (that is, timestamp and host name)
      * of the syslog packet.  Default value is false for compatibility with existing behavior,
@@ -554,18 +901,82 @@ public class SyslogAppender extends AppenderSkeleton {
      */
     private String getPacketHeader(final long timeStamp) {
         if (header) {
-            StringBuffer buf = new StringBuffer(dateFormat.format(new Date(timeStamp)));
-            //  RFC 3164 says leading space, not leading zero on days 1-9
-            if (buf.charAt(4) == '0') {
-                buf.setCharAt(4, ' ');
+            long second = timeStamp / 1000;
+            if (second != cachedSecond || cachedHeader == null) {
+                StringBuffer buf = new StringBuffer(dateFormat.format(new Date(second * 1000)));
+                //  RFC 3164 says leading space, not leading zero on days 1-9
+                if (buf.charAt(4) == '0') {
+                    buf.setCharAt(4, ' ');
+                }
+                buf.append(getLocalHostname());
+                buf.append(' ');
+                cachedHeader = buf.toString();
+                cachedSecond = second;
             }
-            buf.append(getLocalHostname());
-            buf.append(' ');
-            return buf.toString();
+            return cachedHeader;
         }
         return "";
     }
 
+    /**
+     * Gets the TIMESTAMP of an RFC 5424 packet.
+     *
+     * @param timeStamp number of milliseconds after the standard base time.
+     * @return timestamp, only valid until the next call.
+     */
+    private CharSequence getTimestamp(final long timeStamp) {
+        long second = timeStamp / 1000;
+        if (second != cachedSecond || cachedTimestamp.length() == 0) {
+            cachedTimestamp.setLength(0);
+            cachedTimestamp.append(timestampFormat.format(new Date(second * 1000)));
+            cachedSecond = second;
+        }
+        //  milliseconds follow "yyyy-MM-ddTHH:mm:ss."
+        int millis = (int) (timeStamp - second * 1000);
+        cachedTimestamp.setCharAt(20, (char) ('0' + millis / 100));
+        cachedTimestamp.setCharAt(21, (char) ('0' + millis / 10 % 10));
+        cachedTimestamp.setCharAt(22, (char) ('0' + millis % 10));
+        return cachedTimestamp;
+    }
+
+    /**
+     * Gets the part of the RFC 5424 header following the timestamp.
+     *
+     * @return HOSTNAME, APP-NAME, PROCID and MSGID, each preceded
+     * and followed by a space.
+     */
+    private String getHeaderSuffix() {
+        if (headerSuffix == null) {
+            StringBuffer buf = new StringBuffer(" ");
+            appendHeaderField(buf, getLocalHostname(), 255);
+            buf.append(' ');
+            appendHeaderField(buf, appName, 48);
+            buf.append(" - - ");
+            headerSuffix = buf.toString();
+        }
+        return headerSuffix;
+    }
+
+    /**
+     * Appends a header field, replacing characters other than printable
+     * US-ASCII by underscores, or the NILVALUE if the field is empty.
+     */
+    private static void appendHeaderField(final StringBuffer buf, final String field,
+                                          final int maxLength) {
+        if (field == null || field.length() == 0) {
+            buf.append('-');
+        } else {
+            int length = Math.min(field.length(), maxLength);
+            for (int i = 0; i < length; i++) {
+                char c = field.charAt(i);
+                if (c <= ' ' || c >= 127) {
+                    c = '_';
+                }
+                buf.append(c);
+            }
+        }
+    }
+
     /**
      * Set header or footer of layout.
      *
@@ -573,18 +984,11 @@ public class SyslogAppender extends AppenderSkeleton {
      */
     private void sendLayoutMessage(final String msg) {
         if (sqw != null) {
-            String packet = msg;
-            String hdr = getPacketHeader(new Date().getTime());
-            if (facilityPrinting || hdr.length() > 0) {
-                StringBuffer buf = new StringBuffer(hdr);
-                if (facilityPrinting) {
-                    buf.append(facilityStr);
-                }
-                buf.append(msg);
-                packet = buf.toString();
-            }
-            sqw.setLevel(6);
-            sqw.write(packet);
+            ByteSink sink = getPacketSink();
+            beginPacket(sink, 6, System.currentTimeMillis(), null, facilityPrinting);
+            sink.append(msg);
+            sendPacket(sink);
+            syslogWriter.flush();
         }
     }
 }
@@ -18,17 +18,21 @@
 package org.apache.log4j.net;
 
 import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
 import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.spi.LoggingEvent;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.InterruptedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Enumeration;
-import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>The TelnetAppender is a log4j appender that specializes in
@@ -53,15 +57,54 @@ import java.util.Vector;
  * <td>optional</td>
  * <td>This parameter determines the port to use for announcing log events.  The default port is 23 (telnet).</td>
  * <td>5875</td>
+ * </tr>
+ *
+ * <tr>
+ * <td>ClientBufferSize</td>
+ * <td>optional</td>
+ * <td>The number of formatted events that may wait to be written to one client. When a client is too slow,
+ * its oldest waiting events are dropped and the client is told how many were lost. The default is 1000.</td>
+ * <td>5000</td>
+ * </tr>
  * </table>
  *
+ * <p>Each client is served by a thread of its own, so that a slow
+ * terminal does not hold up logging. By default clients receive every
+ * event. A client may restrict what it receives by typing one of the
+ * following commands:
+ *
+ * <dl>
+ * <dt><code>logger</code> <em>name</em></dt>
+ * <dd>only events of the named logger and of its descendants.</dd>
+ * <dt><code>level</code> <em>level</em></dt>
+ * <dd>only events at or above the given level.</dd>
+ * <dt><code>mdc</code> <em>key</em>=<em>value</em></dt>
+ * <dd>only events whose MDC maps the key to the value.</dd>
+ * <dt><code>clear</code></dt>
+ * <dd>all events again.</dd>
+ * <dt><code>show</code></dt>
+ * <dd>prints the current subscription.</dd>
+ * </dl>
+ *
+ * <p>Events are matched against the subscriptions before they are
+ * formatted, and an event is formatted only once whatever the number of
+ * clients receiving it.
+ *
  * @author <a HREF="mailto:jay@v-wave.com">Jay Funnell</a>
  */
 
 public class TelnetAppender extends AppenderSkeleton {
 
+    /**
+     * The default number of events queued for a client (1000).
+     *
+     * @since 1.2.18
+     */
+    public static final int DEFAULT_CLIENT_BUFFER_SIZE = 1000;
+
     private SocketHandler sh;
     private int port = 23;
+    private int clientBufferSize = DEFAULT_CLIENT_BUFFER_SIZE;
 
     /**
      * This appender requires a layout to format the text to the
@@ -98,6 +141,26 @@ public class TelnetAppender extends AppenderSkeleton {
         this.port = port;
     }
 
+    /**
+     * Returns value of the <b>ClientBufferSize</b> option.
+     *
+     * @since 1.2.18
+     */
+    public int getClientBufferSize() {
+        return clientBufferSize;
+    }
+
+    /**
+     * Sets the number of formatted events that may wait to be written to
+     * one client.
+     *
+     * @param size queue capacity per client.
+     * @since 1.2.18
+     */
+    public void setClientBufferSize(int size) {
+        this.clientBufferSize = Math.max(1, size);
+    }
+
 
     /**
      * shuts down the appender.
@@ -119,19 +182,27 @@ public class TelnetAppender extends AppenderSkeleton {
      */
     protected void append(LoggingEvent event) {
         if (sh != null) {
-            sh.send(layout.format(event));
-            if (layout.ignoresThrowable()) {
-                String[] s = event.getThrowableStrRep();
-                if (s != null) {
-                    StringBuffer buf = new StringBuffer();
-                    for (int i = 0; i < s.length; i++) {
-                        buf.append(s[i]);
-                        buf.append("\r\n");
-                    }
-                    sh.send(buf.toString());
+            sh.send(event);
+        }
+    }
+
+    /**
+     * Formats an event, adding its throwable if the layout ignores it.
+     */
+    String format(LoggingEvent event) {
+        String text = layout.format(event);
+        if (layout.ignoresThrowable()) {
+            String[] s = event.getThrowableStrRep();
+            if (s != null) {
+                StringBuffer buf = new StringBuffer(text);
+                for (int i = 0; i < s.length; i++) {
+                    buf.append(s[i]);
+                    buf.append("\r\n");
                 }
+                text = buf.toString();
             }
         }
+        return text;
     }
 
     //---------------------------------------------------------- SocketHandler:
@@ -143,8 +214,7 @@ public class TelnetAppender extends AppenderSkeleton {
      */
     protected class SocketHandler extends Thread {
 
-        private Vector writers = new Vector();
-        private Vector connections = new Vector();
+        private Vector clients = new Vector();
         private ServerSocket serverSocket;
         private int MAX_CONNECTIONS = 20;
 
@@ -159,14 +229,9 @@ public class TelnetAppender extends AppenderSkeleton {
          */
         public void close() {
             synchronized (this) {
-                for (Enumeration e = connections.elements(); e.hasMoreElements(); ) {
-                    try {
-                        ((Socket) e.nextElement()).close();
-                    } catch (InterruptedIOException ex) {
-                        Thread.currentThread().interrupt();
-                    } catch (IOException ex) {
-                    } catch (RuntimeException ex) {
-                    }
+                // each client removes itself from the list
+                while (!clients.isEmpty()) {
+                    ((Client) clients.elementAt(0)).close();
                 }
             }
 
@@ -183,14 +248,27 @@ public class TelnetAppender extends AppenderSkeleton {
          * sends a message to each of the clients in telnet-friendly output.
          */
         public synchronized void send(final String message) {
-            Iterator ce = connections.iterator();
-            for (Iterator e = writers.iterator(); e.hasNext(); ) {
-                ce.next();
-                PrintWriter writer = (PrintWriter) e.next();
-                writer.print(message);
-                if (writer.checkError()) {
-                    ce.remove();
-                    e.remove();
+            for (int i = clients.size() - 1; i >= 0; i--) {
+                ((Client) clients.elementAt(i)).offer(message);
+            }
+        }
+
+        /**
+         * Sends an event to the clients subscribed to it, formatting it
+         * only if there is at least one.
+         *
+         * @param event event to send.
+         * @since 1.2.18
+         */
+        public synchronized void send(final LoggingEvent event) {
+            String message = null;
+            for (int i = clients.size() - 1; i >= 0; i--) {
+                Client client = (Client) clients.elementAt(i);
+                if (client.subscription.matches(event)) {
+                    if (message == null) {
+                        message = format(event);
+                    }
+                    client.offer(message);
                 }
             }
         }
@@ -204,13 +282,15 @@ public class TelnetAppender extends AppenderSkeleton {
                 try {
                     Socket newClient = serverSocket.accept();
                     PrintWriter pw = new PrintWriter(newClient.getOutputStream());
-                    if (connections.size() < MAX_CONNECTIONS) {
+                    if (clients.size() < MAX_CONNECTIONS) {
                         synchronized (this) {
-                            connections.addElement(newClient);
-                            writers.addElement(pw);
-                            pw.print("TelnetAppender v1.0 (" + connections.size()
-                                    + " active connections)\r\n\r\n");
+                            Client client = new Client(newClient, pw);
+                            clients.addElement(client);
+                            pw.print("TelnetAppender v1.0 (" + clients.size()
+                                    + " active connections)\r\n"
+                                    + "Type help to filter events.\r\n\r\n");
                             pw.flush();
+                            client.start();
                         }
                     } else {
                         pw.print("Too many connections.\r\n");
@@ -241,5 +321,180 @@ public class TelnetAppender extends AppenderSkeleton {
             setName("TelnetAppender-" + getName() + "-" + port);
         }
 
+        /**
+         * A connected client. Its thread writes the queued events and
+         * executes the commands the client types.
+         */
+        private final class Client extends Thread {
+
+            private final Socket socket;
+            private final PrintWriter writer;
+            private final InputStream in;
+            private final BlockingQueue queue;
+            private final AtomicInteger dropped = new AtomicInteger();
+            private final StringBuffer line = new StringBuffer();
+            private volatile boolean done;
+            volatile Subscription subscription = Subscription.ALL;
+
+            Client(Socket socket, PrintWriter writer) throws IOException {
+                super("TelnetAppender-Client-" + socket.getInetAddress().getHostAddress()
+                        + ":" + socket.getPort());
+                setDaemon(true);
+                this.socket = socket;
+                this.writer = writer;
+                this.in = socket.getInputStream();
+                this.queue = new ArrayBlockingQueue(clientBufferSize);
+            }
+
+            /**
+             * Queues a message, dropping the oldest one if the client
+             * lags behind.
+             */
+            void offer(String message) {
+                while (!done && !queue.offer(message)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+
+            public void run() {
+                try {
+                    while (!done) {
+                        readCommands();
+                        String message = (String) queue.poll(200, TimeUnit.MILLISECONDS);
+                        if (message == null) {
+                            continue;
+                        }
+                        int lost = dropped.getAndSet(0);
+                        if (lost > 0) {
+                            writer.print("*** " + lost + " events dropped ***\r\n");
+                        }
+                        writer.print(message);
+                        if (queue.isEmpty()) {
+                            writer.flush();
+                        }
+                        if (writer.checkError()) {
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // closed
+                } catch (IOException e) {
+                    // connection lost
+                } finally {
+                    close();
+                }
+            }
+
+            /**
+             * Executes the complete command lines received so far,
+             * without blocking.
+             */
+            private void readCommands() throws IOException {
+                while (in.available() > 0) {
+                    int c = in.read();
+                    if (c < 0) {
+                        throw new IOException("Connection closed by client.");
+                    }
+                    if (c == '\n' || c == '\r') {
+                        if (line.length() > 0) {
+                            execute(line.toString().trim());
+                            line.setLength(0);
+                        }
+                    } else if (c >= ' ' && c < 0x7F && line.length() < 1024) {
+                        // telnet option negotiation is ignored
+                        line.append((char) c);
+                    }
+                }
+            }
+
+            private void execute(String command) {
+                int space = command.indexOf(' ');
+                String name = space < 0 ? command : command.substring(0, space);
+                String arg = space < 0 ? "" : command.substring(space + 1).trim();
+                Subscription s = subscription;
+                if ("logger".equalsIgnoreCase(name) && arg.length() > 0) {
+                    subscription = new Subscription(arg, s.level, s.mdcKey, s.mdcValue);
+                } else if ("level".equalsIgnoreCase(name) && arg.length() > 0) {
+                    subscription = new Subscription(s.logger,
+                            Level.toLevel(arg, Level.ALL), s.mdcKey, s.mdcValue);
+                } else if ("mdc".equalsIgnoreCase(name) && arg.indexOf('=') > 0) {
+                    int eq = arg.indexOf('=');
+                    subscription = new Subscription(s.logger, s.level,
+                            arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+                } else if ("clear".equalsIgnoreCase(name)) {
+                    subscription = Subscription.ALL;
+                } else if (!"show".equalsIgnoreCase(name)) {
+                    writer.print("Commands: logger <name>, level <level>,"
+                            + " mdc <key>=<value>, clear, show\r\n");
+                    writer.flush();
+                    return;
+                }
+                writer.print("Subscription: " + subscription + "\r\n");
+                writer.flush();
+            }
+
+            void close() {
+                done = true;
+                clients.removeElement(this);
+                interrupt();
+                try {
+                    socket.close();
+                } catch (InterruptedIOException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException ex) {
+                } catch (RuntimeException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * What a client wants to receive. Instances are immutable.
+     */
+    private static final class Subscription {
+
+        static final Subscription ALL = new Subscription(null, Level.ALL, null, null);
+
+        final String logger;
+        final String loggerPrefix;
+        final Level level;
+        final String mdcKey;
+        final String mdcValue;
+
+        Subscription(String logger, Level level, String mdcKey, String mdcValue) {
+            this.logger = logger;
+            this.loggerPrefix = logger == null ? null : logger + ".";
+            this.level = level;
+            this.mdcKey = mdcKey;
+            this.mdcValue = mdcValue;
+        }
+
+        boolean matches(LoggingEvent event) {
+            if (!event.getLevel().isGreaterOrEqual(level)) {
+                return false;
+            }
+            if (logger != null) {
+                String name = event.getLoggerName();
+                if (name == null
+                        || !(name.equals(logger) || name.startsWith(loggerPrefix))) {
+                    return false;
+                }
+            }
+            if (mdcKey != null) {
+                Object value = event.getMDC(mdcKey);
+                if (value == null || !mdcValue.equals(value.toString())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public String toString() {
+            return "logger=" + (logger == null ? "*" : logger)
+                    + " level=" + level
+                    + " mdc=" + (mdcKey == null ? "*" : mdcKey + "=" + mdcValue);
+        }
     }
 }
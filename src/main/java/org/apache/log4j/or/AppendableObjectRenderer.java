@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.or;
+
+/**
+ * An {@link ObjectRenderer} that can write its output directly into a
+ * caller supplied buffer, sparing the temporary <code>String</code> that
+ * {@link ObjectRenderer#doRender(Object)} has to return.
+ *
+ * <p>Implementations must produce the same text from both methods.
+ * Renderers that only implement {@link ObjectRenderer} can be wrapped
+ * with {@link AppendableRendererAdapter}.
+ *
+ * @since 1.2.18
+ */
+public interface AppendableObjectRenderer extends ObjectRenderer {
+
+    /**
+     * Render the object passed as parameter at the end of
+     * <code>buf</code>.
+     *
+     * @param o   object to render, not null.
+     * @param buf buffer receiving the rendered text.
+     */
+    public void doRender(Object o, StringBuilder buf);
+}
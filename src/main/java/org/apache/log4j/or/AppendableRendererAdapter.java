@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.or;
+
+/**
+ * Presents a plain {@link ObjectRenderer} as an {@link
+ * AppendableObjectRenderer} by appending the string it returns.
+ *
+ * @since 1.2.18
+ */
+public final class AppendableRendererAdapter implements AppendableObjectRenderer {
+
+    private final ObjectRenderer renderer;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param renderer renderer to wrap, may not be null.
+     */
+    public AppendableRendererAdapter(final ObjectRenderer renderer) {
+        if (renderer == null) {
+            throw new NullPointerException("renderer");
+        }
+        this.renderer = renderer;
+    }
+
+    /**
+     * Returns <code>renderer</code> itself if it already renders into a
+     * buffer, otherwise wraps it.
+     *
+     * @param renderer renderer, may not be null.
+     * @return appendable renderer.
+     */
+    public static AppendableObjectRenderer adapt(final ObjectRenderer renderer) {
+        if (renderer instanceof AppendableObjectRenderer) {
+            return (AppendableObjectRenderer) renderer;
+        }
+        return new AppendableRendererAdapter(renderer);
+    }
+
+    /**
+     * Gets the wrapped renderer.
+     *
+     * @return wrapped renderer.
+     */
+    public ObjectRenderer getRenderer() {
+        return renderer;
+    }
+
+    public String doRender(final Object o) {
+        return renderer.doRender(o);
+    }
+
+    public void doRender(final Object o, final StringBuilder buf) {
+        buf.append(renderer.doRender(o));
+    }
+}
@@ -21,7 +21,9 @@ import org.apache.log4j.spi.RendererSupport;
 import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.helpers.Loader;
 import org.apache.log4j.helpers.OptionConverter;
+import org.apache.log4j.helpers.ThreadLocalStringBuilder;
 
+import java.lang.ref.WeakReference;
 import java.util.Hashtable;
 
 /**
@@ -36,6 +38,35 @@ public class RendererMap {
 
     static ObjectRenderer defaultRenderer = new DefaultRenderer();
 
+    /**
+     * Renderers found by {@link #get(Class)}, keyed by the class looked
+     * up. Keys are weak so that the cache does not keep classes, and
+     * their class loaders, reachable once an application is unloaded.
+     * The table is never modified once published: readers need no
+     * lock, and new entries are added to a copy that replaces it.
+     * Replaced by an empty table whenever the map changes, so readers
+     * never see a stale entry.
+     */
+    private volatile Resolved resolved = Resolved.EMPTY;
+
+    /**
+     * Incremented by {@link #put} and {@link #clear}, so that a search
+     * that raced with a change is not added to the new table.
+     */
+    private volatile int generation;
+
+    /**
+     * Guards replacement of {@link #resolved}.
+     */
+    private final Object resolvedLock = new Object();
+
+    /**
+     * Scratch buffers for {@link AppendableObjectRenderer} output that
+     * has to be returned as a <code>String</code>.
+     */
+    private static final ThreadLocalStringBuilder BUFFERS =
+            new ThreadLocalStringBuilder(256, 4096);
+
     public RendererMap() {
         map = new Hashtable();
     }
@@ -76,8 +107,39 @@ public class RendererMap {
     public String findAndRender(Object o) {
         if (o == null)
             return null;
-        else
-            return get(o.getClass()).doRender(o);
+        ObjectRenderer r = get(o.getClass());
+        if (r instanceof AppendableObjectRenderer) {
+            StringBuilder buf = BUFFERS.acquire();
+            try {
+                ((AppendableObjectRenderer) r).doRender(o, buf);
+                return buf.toString();
+            } finally {
+                BUFFERS.release(buf);
+            }
+        }
+        return r.doRender(o);
+    }
+
+    /**
+     * Like {@link #findAndRender(Object)} but appends the rendered text
+     * to <code>buf</code>. Renderers implementing {@link
+     * AppendableObjectRenderer} write into <code>buf</code> directly,
+     * others are called through {@link ObjectRenderer#doRender}. A null
+     * <code>o</code> leaves <code>buf</code> untouched.
+     *
+     * @since 1.2.18
+     */
+    public void findAndRender(Object o, StringBuilder buf) {
+        if (o == null)
+            return;
+        ObjectRenderer r = get(o.getClass());
+        if (r instanceof AppendableObjectRenderer) {
+            ((AppendableObjectRenderer) r).doRender(o, buf);
+        } else {
+            String s = r.doRender(o);
+            if (s != null)
+                buf.append(s);
+        }
     }
 
 
@@ -140,8 +202,26 @@ public class RendererMap {
      * <em>may</em> implement a more intuitive search
      * algorithm. However, the present algorithm should be acceptable in
      * the vast majority of circumstances.
+     *
+     * <p>The result of the search is remembered for <code>clazz</code>
+     * until the next call to {@link #put} or {@link #clear}.
      */
     public ObjectRenderer get(Class clazz) {
+        ObjectRenderer r = resolved.get(clazz);
+        if (r != null) {
+            return r;
+        }
+        int expected = generation;
+        r = search(clazz);
+        synchronized (resolvedLock) {
+            if (generation == expected) {
+                resolved = resolved.with(clazz, r);
+            }
+        }
+        return r;
+    }
+
+    private ObjectRenderer search(Class clazz) {
         //System.out.println("\nget: "+clazz);
         ObjectRenderer r = null;
         for (Class c = clazz; c != null; c = c.getSuperclass()) {
@@ -182,6 +262,7 @@ public class RendererMap {
 
     public void clear() {
         map.clear();
+        invalidate();
     }
 
     /**
@@ -189,5 +270,82 @@ public class RendererMap {
      */
     public void put(Class clazz, ObjectRenderer or) {
         map.put(clazz, or);
+        invalidate();
+    }
+
+    private void invalidate() {
+        synchronized (resolvedLock) {
+            generation++;
+            resolved = Resolved.EMPTY;
+        }
+    }
+
+    /**
+     * Immutable open addressing table from weakly referenced classes to
+     * their renderers. Entries whose class has been collected are
+     * dropped when the table is copied.
+     */
+    private static final class Resolved {
+
+        static final Resolved EMPTY = new Resolved(new WeakReference[1],
+                new ObjectRenderer[1]);
+
+        private final WeakReference[] keys;
+        private final ObjectRenderer[] values;
+
+        private Resolved(WeakReference[] keys, ObjectRenderer[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        ObjectRenderer get(Class clazz) {
+            int mask = keys.length - 1;
+            for (int i = System.identityHashCode(clazz) & mask; ; i = (i + 1) & mask) {
+                WeakReference key = keys[i];
+                if (key == null) {
+                    return null;
+                }
+                if (key.get() == clazz) {
+                    return values[i];
+                }
+            }
+        }
+
+        /**
+         * Returns a copy of this table with <code>clazz</code> mapped to
+         * <code>r</code>, kept at most half full.
+         */
+        Resolved with(Class clazz, ObjectRenderer r) {
+            int live = 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && keys[i].get() != null) {
+                    live++;
+                }
+            }
+            int capacity = 16;
+            while (capacity < live * 2) {
+                capacity <<= 1;
+            }
+            Resolved copy = new Resolved(new WeakReference[capacity],
+                    new ObjectRenderer[capacity]);
+            for (int i = 0; i < keys.length; i++) {
+                Class c = keys[i] == null ? null : (Class) keys[i].get();
+                if (c != null && c != clazz) {
+                    copy.insert(keys[i], c, values[i]);
+                }
+            }
+            copy.insert(new WeakReference(clazz), clazz, r);
+            return copy;
+        }
+
+        private void insert(WeakReference key, Class clazz, ObjectRenderer r) {
+            int mask = keys.length - 1;
+            int i = System.identityHashCode(clazz) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = r;
+        }
     }
 }
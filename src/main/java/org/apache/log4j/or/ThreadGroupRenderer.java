@@ -27,7 +27,7 @@ import org.apache.log4j.Layout;
  * @author Ceki G&uuml;lc&uuml;
  * @since 1.0
  */
-public class ThreadGroupRenderer implements ObjectRenderer {
+public class ThreadGroupRenderer implements AppendableObjectRenderer {
 
     public ThreadGroupRenderer() {
     }
@@ -48,7 +48,27 @@ public class ThreadGroupRenderer implements ObjectRenderer {
      */
     public String doRender(Object o) {
         if (o instanceof ThreadGroup) {
-            StringBuffer sbuf = new StringBuffer();
+            StringBuilder sbuf = new StringBuilder();
+            doRender(o, sbuf);
+            return sbuf.toString();
+        } else {
+            try {
+                // this is the best we can do
+                return o.toString();
+            } catch (Exception ex) {
+                return ex.toString();
+            }
+        }
+    }
+
+    /**
+     * Render a {@link ThreadGroup} object into <code>sbuf</code>, see
+     * {@link #doRender(Object)}.
+     *
+     * @since 1.2.18
+     */
+    public void doRender(Object o, StringBuilder sbuf) {
+        if (o instanceof ThreadGroup) {
             ThreadGroup tg = (ThreadGroup) o;
             sbuf.append("java.lang.ThreadGroup[name=");
             sbuf.append(tg.getName());
@@ -67,14 +87,8 @@ public class ThreadGroupRenderer implements ObjectRenderer {
                 sbuf.append(t[i].isDaemon());
                 sbuf.append("]");
             }
-            return sbuf.toString();
         } else {
-            try {
-                // this is the best we can do
-                return o.toString();
-            } catch (Exception ex) {
-                return ex.toString();
-            }
+            sbuf.append(doRender(o));
         }
     }
 }  
@@ -17,7 +17,7 @@
 
 package org.apache.log4j.or.sax;
 
-import org.apache.log4j.or.ObjectRenderer;
+import org.apache.log4j.or.AppendableObjectRenderer;
 
 import org.xml.sax.Attributes;
 
@@ -27,7 +27,7 @@ import org.xml.sax.Attributes;
  * @author Ceki G&uuml;lc&uuml;
  * @since 1.2
  */
-public class AttributesRenderer implements ObjectRenderer {
+public class AttributesRenderer implements AppendableObjectRenderer {
 
     public AttributesRenderer() {
     }
@@ -38,7 +38,25 @@ public class AttributesRenderer implements ObjectRenderer {
      */
     public String doRender(Object o) {
         if (o instanceof Attributes) {
-            StringBuffer sbuf = new StringBuffer();
+            StringBuilder sbuf = new StringBuilder();
+            doRender(o, sbuf);
+            return sbuf.toString();
+        } else {
+            try {
+                return o.toString();
+            } catch (Exception ex) {
+                return ex.toString();
+            }
+        }
+    }
+
+    /**
+     * Render a {@link org.xml.sax.Attributes} into <code>sbuf</code>.
+     *
+     * @since 1.2.18
+     */
+    public void doRender(Object o, StringBuilder sbuf) {
+        if (o instanceof Attributes) {
             Attributes a = (Attributes) o;
             int len = a.getLength();
             boolean first = true;
@@ -52,13 +70,8 @@ public class AttributesRenderer implements ObjectRenderer {
                 sbuf.append('=');
                 sbuf.append(a.getValue(i));
             }
-            return sbuf.toString();
         } else {
-            try {
-                return o.toString();
-            } catch (Exception ex) {
-                return ex.toString();
-            }
+            sbuf.append(doRender(o));
         }
     }
 }
@@ -39,7 +39,8 @@ public final class BridgePatternConverter
     private LoggingEventPatternConverter[] patternConverters;
 
     /**
-     * Field widths and alignment corresponding to pattern converters.
+     * Field widths and alignment corresponding to pattern converters,
+     * null where the field is not padded or truncated.
      */
     private FormattingInfo[] patternFields;
 
@@ -92,6 +93,53 @@ public final class BridgePatternConverter
 
             i++;
         }
+
+        compact();
+    }
+
+    /**
+     * Merges adjacent unpadded literals into one converter and drops the
+     * formatting step of fields that use the default width, so that
+     * format only pays for padding where the pattern asks for it.
+     */
+    private void compact() {
+        List converters = new ArrayList();
+        List fields = new ArrayList();
+        StringBuilder literal = null;
+
+        for (int i = 0; i < patternConverters.length; i++) {
+            LoggingEventPatternConverter converter = patternConverters[i];
+            FormattingInfo field = patternFields[i];
+            boolean padded = field.getMinLength() > 0
+                    || field.getMaxLength() != Integer.MAX_VALUE;
+
+            if (!padded && converter instanceof LiteralPatternConverter) {
+                if (literal == null) {
+                    literal = new StringBuilder();
+                }
+                literal.append(((LiteralPatternConverter) converter).getLiteral());
+                continue;
+            }
+
+            if (literal != null) {
+                converters.add(new LiteralPatternConverter(literal.toString()));
+                fields.add(null);
+                literal = null;
+            }
+
+            converters.add(converter);
+            fields.add(padded ? field : null);
+        }
+
+        if (literal != null) {
+            converters.add(new LiteralPatternConverter(literal.toString()));
+            fields.add(null);
+        }
+
+        patternConverters = (LoggingEventPatternConverter[]) converters.toArray(
+                new LoggingEventPatternConverter[converters.size()]);
+        patternFields = (FormattingInfo[]) fields.toArray(
+                new FormattingInfo[fields.size()]);
     }
 
     /**
@@ -101,7 +149,7 @@ public final class BridgePatternConverter
         //
         //  code should be unreachable.
         //
-        StringBuffer sbuf = new StringBuffer();
+        StringBuilder sbuf = new StringBuilder();
         format(sbuf, event);
 
         return sbuf.toString();
@@ -114,10 +162,28 @@ public final class BridgePatternConverter
      * @param e    event to format, may not be null.
      */
     public void format(final StringBuffer sbuf, final LoggingEvent e) {
+        StringBuilder buf = new StringBuilder();
+        format(buf, e);
+        sbuf.append(buf);
+    }
+
+    /**
+     * Format event to string builder.
+     *
+     * @param sbuf string builder to receive formatted event, may not be null.
+     * @param e    event to format, may not be null.
+     */
+    public void format(final StringBuilder sbuf, final LoggingEvent e) {
         for (int i = 0; i < patternConverters.length; i++) {
-            int startField = sbuf.length();
-            patternConverters[i].format(e, sbuf);
-            patternFields[i].format(startField, sbuf);
+            FormattingInfo field = patternFields[i];
+
+            if (field == null) {
+                patternConverters[i].format(e, sbuf);
+            } else {
+                int startField = sbuf.length();
+                patternConverters[i].format(e, sbuf);
+                field.format(startField, sbuf);
+            }
         }
     }
 
@@ -240,14 +240,39 @@ public final class CachedDateFormat extends DateFormat {
      * @return the formatted time string.
      */
     public StringBuffer format(long now, StringBuffer buf) {
+        update(now);
+        buf.append(cache);
+
+        return buf;
+    }
+
+    /**
+     * Formats a millisecond count into a date/time string.
+     *
+     * @param now Number of milliseconds after midnight 1 Jan 1970 GMT.
+     * @param buf the string builder to write to.
+     * @return the formatted time string.
+     * @since 1.2.18
+     */
+    public StringBuilder format(long now, StringBuilder buf) {
+        update(now);
+        buf.append(cache);
+
+        return buf;
+    }
+
+    /**
+     * Brings the cached conversion up to date with the requested time.
+     *
+     * @param now Number of milliseconds after midnight 1 Jan 1970 GMT.
+     */
+    private void update(long now) {
         //
         // If the current requested time is identical to the previously
-        //     requested time, then append the cache contents.
+        //     requested time, then the cache contents are current.
         //
         if (now == previousTime) {
-            buf.append(cache);
-
-            return buf;
+            return;
         }
 
         //
@@ -271,9 +296,8 @@ public final class CachedDateFormat extends DateFormat {
             //   update the previously requested time
             //      (the slot begin should be unchanged)
             previousTime = now;
-            buf.append(cache);
 
-            return buf;
+            return;
         }
 
         //
@@ -282,7 +306,6 @@ public final class CachedDateFormat extends DateFormat {
         cache.setLength(0);
         tmpDate.setTime(now);
         cache.append(formatter.format(tmpDate));
-        buf.append(cache);
         previousTime = now;
         slotBegin = (previousTime / 1000) * 1000;
 
@@ -298,8 +321,6 @@ public final class CachedDateFormat extends DateFormat {
             millisecondStart =
                     findMillisecondStart(now, cache.toString(), formatter);
         }
-
-        return buf;
     }
 
     /**
@@ -54,16 +54,13 @@ public final class ClassNamePatternConverter extends NamePatternConverter {
      * @param event      event to format.
      * @param toAppendTo string buffer to which class name will be appended.
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
-        final int initialLength = toAppendTo.length();
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
         LocationInfo li = event.getLocationInformation();
 
         if (li == null) {
-            toAppendTo.append(LocationInfo.NA);
+            appendAbbreviated(LocationInfo.NA, toAppendTo);
         } else {
-            toAppendTo.append(li.getClassName());
+            appendAbbreviated(li.getClassName(), toAppendTo);
         }
-
-        abbreviate(initialLength, toAppendTo);
     }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.log4j.pattern;
 
+import org.apache.log4j.helpers.FixedDateFormatter;
 import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.spi.LoggingEvent;
 
@@ -29,7 +30,7 @@ import java.util.TimeZone;
 
 
 /**
- * Convert and format the event's date in a StringBuffer.
+ * Convert and format the event's date in a StringBuilder.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -62,9 +63,25 @@ public final class DatePatternConverter extends LoggingEventPatternConverter {
      */
     private static final String ISO8601_PATTERN = "yyyy-MM-dd HH:mm:ss,SSS";
     /**
-     * Date format.
+     * Date format, never used directly. Since date formats are not
+     * thread safe, each thread formats with its own copy.
      */
-    private final CachedDateFormat df;
+    private final DateFormat prototype;
+
+    /**
+     * Maximum validity of the cache of each per thread formatter.
+     */
+    private final int maximumCacheValidity;
+
+    /**
+     * Per thread formatters.
+     */
+    private final ThreadLocal formats = new ThreadLocal();
+
+    /**
+     * Shared formatter used for the fixed date layouts, null otherwise.
+     */
+    private final FixedDateFormatter fixed;
 
     /**
      * This class wraps a DateFormat and forces the time zone to the
@@ -104,6 +121,13 @@ public final class DatePatternConverter extends LoggingEventPatternConverter {
             dateFormat.setTimeZone(TimeZone.getDefault());
             return dateFormat.parse(source, pos);
         }
+
+        /**
+         * @{inheritDoc}
+         */
+        public Object clone() {
+            return new DefaultZoneDateFormat((DateFormat) dateFormat.clone());
+        }
     }
 
     /**
@@ -150,18 +174,38 @@ public final class DatePatternConverter extends LoggingEventPatternConverter {
                             + patternOption, e);
 
             // default to the ISO8601 format
-            simpleFormat = new SimpleDateFormat(ISO8601_PATTERN);
+            pattern = ISO8601_PATTERN;
+            simpleFormat = new SimpleDateFormat(pattern);
         }
 
         // if the option list contains a TZ option, then set it.
+        TimeZone tz = null;
         if ((options != null) && (options.length > 1)) {
-            TimeZone tz = TimeZone.getTimeZone((String) options[1]);
+            tz = TimeZone.getTimeZone((String) options[1]);
             simpleFormat.setTimeZone(tz);
         } else {
             simpleFormat = new DefaultZoneDateFormat(simpleFormat);
         }
 
-        df = new CachedDateFormat(simpleFormat, maximumCacheValidity);
+        // ISO8601, ABSOLUTE, DATE and alike are written by a shared formatter.
+        fixed = FixedDateFormatter.getInstance(pattern, tz);
+
+        prototype = simpleFormat;
+        this.maximumCacheValidity = maximumCacheValidity;
+    }
+
+    /**
+     * Gets the formatter of the current thread.
+     *
+     * @return formatter.
+     */
+    private CachedDateFormat getDateFormat() {
+        CachedDateFormat df = (CachedDateFormat) formats.get();
+        if (df == null) {
+            df = new CachedDateFormat((DateFormat) prototype.clone(), maximumCacheValidity);
+            formats.set(df);
+        }
+        return df;
     }
 
     /**
@@ -178,16 +222,18 @@ public final class DatePatternConverter extends LoggingEventPatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer output) {
-        synchronized (this) {
-            df.format(event.timeStamp, output);
+    public void format(final LoggingEvent event, final StringBuilder output) {
+        if (fixed != null) {
+            fixed.format(event.timeStamp, output);
+        } else {
+            getDateFormat().format(event.timeStamp, output);
         }
     }
 
     /**
      * {@inheritDoc}
      */
-    public void format(final Object obj, final StringBuffer output) {
+    public void format(final Object obj, final StringBuilder output) {
         if (obj instanceof Date) {
             format((Date) obj, output);
         }
@@ -202,8 +248,25 @@ public final class DatePatternConverter extends LoggingEventPatternConverter {
      * @param toAppendTo buffer to which formatted date is appended.
      */
     public void format(final Date date, final StringBuffer toAppendTo) {
-        synchronized (this) {
-            df.format(date.getTime(), toAppendTo);
+        if (fixed != null) {
+            fixed.format(date.getTime(), toAppendTo);
+        } else {
+            getDateFormat().format(date.getTime(), toAppendTo);
+        }
+    }
+
+    /**
+     * Append formatted date to string builder.
+     *
+     * @param date       date
+     * @param toAppendTo builder to which formatted date is appended.
+     * @since 1.2.18
+     */
+    public void format(final Date date, final StringBuilder toAppendTo) {
+        if (fixed != null) {
+            fixed.format(date.getTime(), toAppendTo);
+        } else {
+            getDateFormat().format(date.getTime(), toAppendTo);
         }
     }
 }
@@ -22,7 +22,7 @@ import org.apache.log4j.spi.LoggingEvent;
 
 
 /**
- * Return the event's line location information in a StringBuffer.
+ * Return the event's line location information in a StringBuilder.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -55,7 +55,7 @@ public final class FileLocationPatternConverter
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer output) {
+    public void format(final LoggingEvent event, final StringBuilder output) {
         LocationInfo locationInfo = event.getLocationInformation();
 
         if (locationInfo != null) {
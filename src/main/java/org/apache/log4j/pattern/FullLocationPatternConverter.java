@@ -55,7 +55,7 @@ public final class FullLocationPatternConverter
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer output) {
+    public void format(final LoggingEvent event, final StringBuilder output) {
         LocationInfo locationInfo = event.getLocationInformation();
 
         if (locationInfo != null) {
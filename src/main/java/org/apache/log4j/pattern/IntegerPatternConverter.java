@@ -53,7 +53,7 @@ public final class IntegerPatternConverter extends PatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(Object obj, final StringBuffer toAppendTo) {
+    public void format(Object obj, final StringBuilder toAppendTo) {
         if (obj instanceof Integer) {
             toAppendTo.append(obj.toString());
         }
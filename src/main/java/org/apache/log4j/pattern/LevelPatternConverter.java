@@ -22,7 +22,7 @@ import org.apache.log4j.spi.LoggingEvent;
 
 
 /**
- * Return the event's level in a StringBuffer.
+ * Return the event's level in a StringBuilder.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -59,7 +59,7 @@ public final class LevelPatternConverter extends LoggingEventPatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer output) {
+    public void format(final LoggingEvent event, final StringBuilder output) {
         output.append(event.getLevel().toString());
     }
 
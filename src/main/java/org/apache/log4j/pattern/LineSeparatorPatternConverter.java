@@ -61,14 +61,14 @@ public final class LineSeparatorPatternConverter
     /**
      * {@inheritDoc}
      */
-    public void format(LoggingEvent event, final StringBuffer toAppendTo) {
+    public void format(LoggingEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(lineSep);
     }
 
     /**
      * {@inheritDoc}
      */
-    public void format(final Object obj, final StringBuffer toAppendTo) {
+    public void format(final Object obj, final StringBuilder toAppendTo) {
         toAppendTo.append(lineSep);
     }
 }
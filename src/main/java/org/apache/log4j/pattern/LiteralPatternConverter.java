@@ -41,17 +41,26 @@ public final class LiteralPatternConverter extends LoggingEventPatternConverter
         this.literal = literal;
     }
 
+    /**
+     * Gets the literal text.
+     *
+     * @return literal text.
+     */
+    String getLiteral() {
+        return literal;
+    }
+
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(literal);
     }
 
     /**
      * {@inheritDoc}
      */
-    public void format(final Object obj, final StringBuffer toAppendTo) {
+    public void format(final Object obj, final StringBuilder toAppendTo) {
         toAppendTo.append(literal);
     }
 }
@@ -59,9 +59,7 @@ public final class LoggerPatternConverter extends NamePatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
-        final int initialLength = toAppendTo.length();
-        toAppendTo.append(event.getLoggerName());
-        abbreviate(initialLength, toAppendTo);
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
+        appendAbbreviated(event.getLoggerName(), toAppendTo);
     }
 }
@@ -40,12 +40,39 @@ public abstract class LoggingEventPatternConverter extends PatternConverter {
 
     /**
      * Formats an event into a string buffer.
+     * <p>
+     * Kept for compatibility, the default implementation formats through
+     * {@link #format(LoggingEvent, StringBuilder)}. Subclasses must override
+     * at least one of the two methods, which is checked on construction.
      *
      * @param event      event to format, may not be null.
      * @param toAppendTo string buffer to which the formatted event will be appended.  May not be null.
      */
-    public abstract void format(
-            final LoggingEvent event, final StringBuffer toAppendTo);
+    public void format(
+            final LoggingEvent event, final StringBuffer toAppendTo) {
+        StringBuilder buf = new StringBuilder();
+        format(event, buf);
+        toAppendTo.append(buf);
+    }
+
+    /**
+     * Formats an event into a string builder. Layouts call this method,
+     * possibly from several threads at once.
+     * <p>
+     * The default implementation formats through
+     * {@link #format(LoggingEvent, StringBuffer)} so that converters written
+     * against that method keep working.
+     *
+     * @param event      event to format, may not be null.
+     * @param toAppendTo string builder to which the formatted event will be appended.  May not be null.
+     * @since 1.2.18
+     */
+    public void format(
+            final LoggingEvent event, final StringBuilder toAppendTo) {
+        StringBuffer buf = new StringBuffer();
+        format(event, buf);
+        toAppendTo.append(buf);
+    }
 
     /**
      * {@inheritDoc}
@@ -56,6 +83,15 @@ public abstract class LoggingEventPatternConverter extends PatternConverter {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void format(final Object obj, final StringBuilder output) {
+        if (obj instanceof LoggingEvent) {
+            format((LoggingEvent) obj, output);
+        }
+    }
+
     /**
      * Normally pattern converters are not meant to handle Exceptions although
      * few pattern converters might.
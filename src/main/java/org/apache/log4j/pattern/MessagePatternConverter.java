@@ -21,7 +21,7 @@ import org.apache.log4j.spi.LoggingEvent;
 
 
 /**
- * Return the event's rendered message in a StringBuffer.
+ * Return the event's rendered message in a StringBuilder.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -53,7 +53,11 @@ public final class MessagePatternConverter extends LoggingEventPatternConverter
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
-        toAppendTo.append(event.getRenderedMessage());
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
+        if (event.getMessage() == null) {
+            toAppendTo.append("null");
+        } else {
+            event.appendRenderedMessage(toAppendTo);
+        }
     }
 }
@@ -21,7 +21,7 @@ import org.apache.log4j.spi.LoggingEvent;
 
 
 /**
- * Return the event's NDC in a StringBuffer.
+ * Return the event's NDC in a StringBuilder.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -53,7 +53,7 @@ public final class NDCPatternConverter extends LoggingEventPatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(event.getNDC());
     }
 }
@@ -127,6 +127,16 @@ public abstract class NameAbbreviator {
         return DEFAULT;
     }
 
+    /**
+     * Creates a new abbreviator.
+     *
+     * @throws IllegalStateException if the subclass overrides neither
+     *                               variant of <code>abbreviate</code>.
+     */
+    protected NameAbbreviator() {
+        PatternConverter.checkOverride(getClass(), "abbreviate", int.class);
+    }
+
     /**
      * Gets default abbreviator.
      *
@@ -138,11 +148,37 @@ public abstract class NameAbbreviator {
 
     /**
      * Abbreviates a name in a StringBuffer.
+     * <p>
+     * Kept for compatibility, the default implementation abbreviates
+     * through {@link #abbreviate(int, StringBuilder)}. Subclasses must
+     * override at least one of the two methods, which is checked on
+     * construction.
      *
      * @param nameStart starting position of name in buf.
      * @param buf       buffer, may not be null.
      */
-    public abstract void abbreviate(final int nameStart, final StringBuffer buf);
+    public void abbreviate(final int nameStart, final StringBuffer buf) {
+        StringBuilder name = new StringBuilder(buf.length() - nameStart);
+        name.append(buf, nameStart, buf.length());
+        abbreviate(0, name);
+        buf.setLength(nameStart);
+        buf.append(name);
+    }
+
+    /**
+     * Abbreviates a name in a StringBuilder.
+     *
+     * @param nameStart starting position of name in buf.
+     * @param buf       builder, may not be null.
+     * @since 1.2.18
+     */
+    public void abbreviate(final int nameStart, final StringBuilder buf) {
+        StringBuffer name = new StringBuffer(buf.length() - nameStart);
+        name.append(buf.substring(nameStart));
+        abbreviate(0, name);
+        buf.setLength(nameStart);
+        buf.append(name);
+    }
 
     /**
      * Abbreviator that simply appends full name to buffer.
@@ -159,6 +195,12 @@ public abstract class NameAbbreviator {
          */
         public void abbreviate(final int nameStart, final StringBuffer buf) {
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void abbreviate(final int nameStart, final StringBuilder buf) {
+        }
     }
 
     /**
@@ -185,7 +227,7 @@ public abstract class NameAbbreviator {
          * @param buf       buffer to append abbreviation.
          * @param nameStart start of name to abbreviate.
          */
-        public void abbreviate(final int nameStart, final StringBuffer buf) {
+        public void abbreviate(final int nameStart, final StringBuilder buf) {
             // We substract 1 from 'len' when assigning to 'end' to avoid out of
             // bounds exception in return r.substring(end+1, len). This can happen if
             // precision is 1 and the category name ends with a dot.
@@ -228,7 +270,7 @@ public abstract class NameAbbreviator {
          * @param buf       buffer to append abbreviation.
          * @param nameStart start of name to abbreviate.
          */
-        public void abbreviate(final int nameStart, final StringBuffer buf) {
+        public void abbreviate(final int nameStart, final StringBuilder buf) {
             int i = count;
             for (int pos = buf.indexOf(".", nameStart);
                  pos != -1;
@@ -277,8 +319,8 @@ public abstract class NameAbbreviator {
          * @param startPos starting index of name element.
          * @return starting index of next element.
          */
-        public int abbreviate(final StringBuffer buf, final int startPos) {
-            int nextDot = buf.toString().indexOf(".", startPos);
+        public int abbreviate(final StringBuilder buf, final int startPos) {
+            int nextDot = buf.indexOf(".", startPos);
 
             if (nextDot != -1) {
                 if ((nextDot - startPos) > charCount) {
@@ -328,7 +370,7 @@ public abstract class NameAbbreviator {
          * @param buf       buffer that abbreviated name is appended.
          * @param nameStart start of name.
          */
-        public void abbreviate(final int nameStart, final StringBuffer buf) {
+        public void abbreviate(final int nameStart, final StringBuilder buf) {
             //
             //  all non-terminal patterns are executed once
             //
@@ -17,6 +17,7 @@
 
 package org.apache.log4j.pattern;
 
+import org.apache.log4j.helpers.BoundedCache;
 
 /**
  * Base class for other pattern converters which can return only parts of their name.
@@ -31,6 +32,11 @@ public abstract class NamePatternConverter
      */
     private final NameAbbreviator abbreviator;
 
+    /**
+     * Abbreviated names keyed by full name, null if names are not abbreviated.
+     */
+    private final BoundedCache abbreviations;
+
     /**
      * Constructor.
      *
@@ -47,6 +53,12 @@ public abstract class NamePatternConverter
         } else {
             abbreviator = NameAbbreviator.getDefaultAbbreviator();
         }
+
+        if (abbreviator == NameAbbreviator.getDefaultAbbreviator()) {
+            abbreviations = null;
+        } else {
+            abbreviations = new BoundedCache(1024);
+        }
     }
 
     /**
@@ -58,4 +70,49 @@ public abstract class NamePatternConverter
     protected final void abbreviate(final int nameStart, final StringBuffer buf) {
         abbreviator.abbreviate(nameStart, buf);
     }
+
+    /**
+     * Abbreviate name in string builder.
+     *
+     * @param nameStart starting position of name to abbreviate.
+     * @param buf       string builder containing name.
+     * @since 1.2.18
+     */
+    protected final void abbreviate(final int nameStart, final StringBuilder buf) {
+        abbreviator.abbreviate(nameStart, buf);
+    }
+
+    /**
+     * Append abbreviated name to string builder. The abbreviation of
+     * each name is computed once and then reused.
+     *
+     * @param name name to abbreviate, may be null.
+     * @param buf  string builder to which the abbreviated name is appended.
+     * @since 1.2.18
+     */
+    protected final void appendAbbreviated(final String name, final StringBuilder buf) {
+        if (abbreviations == null) {
+            buf.append(name);
+            return;
+        }
+
+        if (name == null) {
+            // not cached, abbreviated as the text "null"
+            final int nameStart = buf.length();
+            buf.append((String) null);
+            abbreviator.abbreviate(nameStart, buf);
+            return;
+        }
+
+        String abbreviated = (String) abbreviations.get(name);
+
+        if (abbreviated == null) {
+            final int nameStart = buf.length();
+            buf.append(name);
+            abbreviator.abbreviate(nameStart, buf);
+            abbreviations.put(name, buf.substring(nameStart));
+        } else {
+            buf.append(abbreviated);
+        }
+    }
 }
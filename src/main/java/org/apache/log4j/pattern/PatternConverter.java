@@ -17,6 +17,11 @@
 
 package org.apache.log4j.pattern;
 
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * <p>PatternConverter is an abstract class that provides the
@@ -42,6 +47,12 @@ public abstract class PatternConverter {
      */
     private final String style;
 
+    /**
+     * Classes found to override one of the format methods, see
+     * {@link #checkOverride}.
+     */
+    private static final Map CHECKED_CLASSES = new WeakHashMap();
+
     /**
      * Create a new pattern converter.
      *
@@ -51,15 +62,91 @@ public abstract class PatternConverter {
     protected PatternConverter(final String name, final String style) {
         this.name = name;
         this.style = style;
+        if (this instanceof LoggingEventPatternConverter) {
+            checkOverride(getClass(), "format", LoggingEvent.class);
+        } else {
+            checkOverride(getClass(), "format", Object.class);
+        }
+    }
+
+    /**
+     * Checks that <code>subclass</code> overrides the
+     * <code>StringBuffer</code> or the <code>StringBuilder</code> variant
+     * of method <code>name</code>, whose default implementations call
+     * each other. The result is remembered per class.
+     *
+     * @param subclass  class to check.
+     * @param name      method name.
+     * @param firstType type of the first parameter of the method.
+     * @throws IllegalStateException if neither variant is overridden.
+     */
+    static void checkOverride(final Class subclass, final String name, final Class firstType) {
+        synchronized (CHECKED_CLASSES) {
+            if (CHECKED_CLASSES.containsKey(subclass)) {
+                return;
+            }
+        }
+        try {
+            Method legacy = subclass.getMethod(name, new Class[]{firstType, StringBuffer.class});
+            Method current = subclass.getMethod(name, new Class[]{firstType, StringBuilder.class});
+            if (isBaseClass(legacy.getDeclaringClass())
+                    && isBaseClass(current.getDeclaringClass())) {
+                throw new IllegalStateException(subclass.getName() + " must override "
+                        + name + "(" + firstType.getName() + ", StringBuilder) or "
+                        + name + "(" + firstType.getName() + ", StringBuffer).");
+            }
+        } catch (NoSuchMethodException e) {
+            // not one of the checked methods
+        } catch (SecurityException e) {
+            // cannot check, assume an override
+        }
+        synchronized (CHECKED_CLASSES) {
+            CHECKED_CLASSES.put(subclass, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Returns true for the classes providing the default, mutually
+     * recursive, implementations of the checked methods.
+     */
+    private static boolean isBaseClass(final Class declaringClass) {
+        return declaringClass == PatternConverter.class
+                || declaringClass == LoggingEventPatternConverter.class
+                || declaringClass == NameAbbreviator.class;
     }
 
     /**
      * Formats an object into a string buffer.
+     * <p>
+     * Kept for compatibility, the default implementation formats through
+     * {@link #format(Object, StringBuilder)}. Subclasses must override at
+     * least one of the two methods, which is checked on construction.
      *
      * @param obj        event to format, may not be null.
      * @param toAppendTo string buffer to which the formatted event will be appended.  May not be null.
      */
-    public abstract void format(final Object obj, final StringBuffer toAppendTo);
+    public void format(final Object obj, final StringBuffer toAppendTo) {
+        StringBuilder buf = new StringBuilder();
+        format(obj, buf);
+        toAppendTo.append(buf);
+    }
+
+    /**
+     * Formats an object into a string builder.
+     * <p>
+     * The default implementation formats through
+     * {@link #format(Object, StringBuffer)} so that converters written
+     * against that method keep working.
+     *
+     * @param obj        event to format, may not be null.
+     * @param toAppendTo string builder to which the formatted event will be appended.  May not be null.
+     * @since 1.2.18
+     */
+    public void format(final Object obj, final StringBuilder toAppendTo) {
+        StringBuffer buf = new StringBuffer();
+        format(obj, buf);
+        toAppendTo.append(buf);
+    }
 
     /**
      * This method returns the name of the conversion pattern.
@@ -53,7 +53,7 @@ public class ThreadPatternConverter extends LoggingEventPatternConverter {
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
         toAppendTo.append(event.getThreadName());
     }
 }
@@ -20,6 +20,8 @@ package org.apache.log4j.pattern;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.log4j.spi.ThrowableInformation;
 
+import java.io.IOException;
+
 
 /**
  * Outputs the ThrowableInformation portion of the LoggingEvent.
@@ -77,11 +79,17 @@ public class ThrowableInformationPatternConverter
     /**
      * {@inheritDoc}
      */
-    public void format(final LoggingEvent event, final StringBuffer toAppendTo) {
+    public void format(final LoggingEvent event, final StringBuilder toAppendTo) {
         if (maxLines != 0) {
             ThrowableInformation information = event.getThrowableInformation();
 
-            if (information != null) {
+            if (information != null && maxLines == Integer.MAX_VALUE) {
+                try {
+                    information.appendTo(toAppendTo, "\n");
+                } catch (IOException ex) {
+                    // not thrown by StringBuilder
+                }
+            } else if (information != null) {
                 String[] stringRep = information.getThrowableStrRep();
 
                 int length = stringRep.length;
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.spi;
+
+import org.apache.log4j.helpers.ByteSink;
+
+/**
+ * Implemented by layouts that can encode a logging event directly into
+ * a {@link ByteSink}, bypassing the <code>String</code> returned by
+ * {@link org.apache.log4j.Layout#format}.
+ *
+ * <p>Appenders check for this interface on their layout and use it when
+ * they know the charset of their destination. Use {@link
+ * org.apache.log4j.helpers.ByteLayoutAdapter} to obtain a ByteLayout for
+ * any other layout.
+ *
+ * @since 1.2.18
+ */
+public interface ByteLayout {
+    /**
+     * Appends the formatted event to <code>sink</code>. The bytes must be
+     * the same as those obtained by encoding the result of
+     * {@link org.apache.log4j.Layout#format} with the charset of the sink.
+     *
+     * @param event logging event, may not be null.
+     * @param sink  destination, may not be null.
+     */
+    void format(LoggingEvent event, ByteSink sink);
+}
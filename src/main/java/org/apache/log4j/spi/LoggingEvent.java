@@ -35,6 +35,8 @@ import org.apache.log4j.NDC;
 import org.apache.log4j.Priority;
 import org.apache.log4j.helpers.Loader;
 import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.or.AppendableObjectRenderer;
+import org.apache.log4j.or.ObjectRenderer;
 
 // Contributors:   Nelson Minar <nelson@monkey.org>
 //                 Wolf Siberski
@@ -123,6 +125,13 @@ public class LoggingEvent implements java.io.Serializable {
      */
     private boolean mdcCopyLookupRequired = true;
 
+    /**
+     * True while {@link #mdcCopy} is the read-only snapshot returned by
+     * {@link MDC#getSnapshot}, which must be copied before the event
+     * changes its properties.
+     */
+    transient private boolean mdcCopyShared;
+
     /**
      * The application supplied message of logging event.
      */
@@ -134,6 +143,13 @@ public class LoggingEvent implements java.io.Serializable {
      */
     private String renderedMessage;
 
+    /**
+     * True once {@link #appendRenderedMessage} has streamed the message,
+     * so that a later consumer renders it to {@link #renderedMessage}
+     * once instead of streaming it again.
+     */
+    transient private boolean messageStreamed;
+
     /**
      * The name of thread in which this logging event was generated.
      */
@@ -370,11 +386,13 @@ public class LoggingEvent implements java.io.Serializable {
     public void getMDCCopy() {
         if (mdcCopyLookupRequired) {
             mdcCopyLookupRequired = false;
-            // the clone call is required for asynchronous logging.
-            // See also bug #5932.
-            Hashtable t = (Hashtable) MDC.getContext();
+            // MDC.getSnapshot returns an immutable copy, which is
+            // safe to keep for asynchronous logging (see also bug #5932)
+            // and shared with other events until a property changes.
+            Hashtable t = MDC.getSnapshot();
             if (t != null) {
-                mdcCopy = (Hashtable) t.clone();
+                mdcCopy = t;
+                mdcCopyShared = true;
             }
         }
     }
@@ -397,6 +415,40 @@ public class LoggingEvent implements java.io.Serializable {
         return renderedMessage;
     }
 
+    /**
+     * Appends the rendered message to <code>buf</code>, appending
+     * nothing if the message is null.
+     *
+     * <p>When the message has not been rendered yet and its renderer is
+     * an {@link AppendableObjectRenderer}, the first call lets the
+     * renderer write straight into <code>buf</code> without creating a
+     * <code>String</code>. Any later call, for example from a second
+     * appender, renders the message through {@link #getRenderedMessage}
+     * and the resulting <code>String</code> is shared from then on.
+     *
+     * @param buf buffer to append to.
+     * @since 1.2.18
+     */
+    public void appendRenderedMessage(final StringBuilder buf) {
+        if (renderedMessage == null && !messageStreamed && message != null
+                && !(message instanceof String)) {
+            LoggerRepository repository = logger.getLoggerRepository();
+            if (repository instanceof RendererSupport) {
+                ObjectRenderer r =
+                        ((RendererSupport) repository).getRendererMap().get(message);
+                if (r instanceof AppendableObjectRenderer) {
+                    messageStreamed = true;
+                    ((AppendableObjectRenderer) r).doRender(message, buf);
+                    return;
+                }
+            }
+        }
+        String msg = getRenderedMessage();
+        if (msg != null) {
+            buf.append(msg);
+        }
+    }
+
     /**
      * Returns the time when the application started, in milliseconds
      * elapsed since 01.01.1970.
@@ -546,6 +598,9 @@ public class LoggingEvent implements java.io.Serializable {
         }
         if (mdcCopy == null) {
             mdcCopy = new Hashtable();
+        } else if (mdcCopyShared) {
+            mdcCopy = new Hashtable(mdcCopy);
+            mdcCopyShared = false;
         }
         mdcCopy.put(propName, propValue);
     }
@@ -655,6 +710,9 @@ public class LoggingEvent implements java.io.Serializable {
         }
         if (mdcCopy == null) {
             mdcCopy = new Hashtable();
+        } else if (mdcCopyShared) {
+            mdcCopy = new Hashtable(mdcCopy);
+            mdcCopyShared = false;
         }
         return mdcCopy.remove(propName);
     }
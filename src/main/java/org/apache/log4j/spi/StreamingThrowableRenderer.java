@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.spi;
+
+import java.io.IOException;
+
+/**
+ * A {@link ThrowableRenderer} that can also write the representation of
+ * a throwable directly to the output of a layout or an appender, without
+ * building the <code>String[]</code> form first.
+ *
+ * <p>{@link ThrowableRenderer#doRender} remains in use wherever the
+ * lines are needed, for instance when an event is serialized.
+ *
+ * @since 1.2.18
+ */
+public interface StreamingThrowableRenderer extends ThrowableRenderer {
+    /**
+     * Appends the lines that {@link #doRender} would return, each one
+     * followed by <code>lineSeparator</code>.
+     *
+     * @param t             throwable, may not be null.
+     * @param out           destination, may not be null.
+     * @param lineSeparator line separator, may not be null.
+     * @throws IOException if <code>out</code> throws it.
+     */
+    void render(Throwable t, Appendable out, String lineSeparator) throws IOException;
+}
@@ -20,6 +20,8 @@ package org.apache.log4j.spi;
 import org.apache.log4j.Category;
 import org.apache.log4j.DefaultThrowableRenderer;
 
+import java.io.IOException;
+
 /**
  * ThrowableInformation is log4j's internal representation of
  * throwables. It essentially consists of a string array, called
@@ -40,6 +42,19 @@ public class ThrowableInformation implements java.io.Serializable {
     private transient Category category;
     private String[] rep;
 
+    /**
+     * Set once {@link #appendTo} has streamed the throwable, so that
+     * later consumers share the array of lines instead of streaming it
+     * again.
+     */
+    private transient boolean streamed;
+
+    /**
+     * Renderer used to stream throwables of categories without one.
+     */
+    private static final StreamingThrowableRenderer DEFAULT_RENDERER =
+            new DefaultThrowableRenderer();
+
     public ThrowableInformation(Throwable throwable) {
         this.throwable = throwable;
     }
@@ -75,13 +90,7 @@ public class ThrowableInformation implements java.io.Serializable {
 
     public synchronized String[] getThrowableStrRep() {
         if (rep == null) {
-            ThrowableRenderer renderer = null;
-            if (category != null) {
-                LoggerRepository repo = category.getLoggerRepository();
-                if (repo instanceof ThrowableRendererSupport) {
-                    renderer = ((ThrowableRendererSupport) repo).getThrowableRenderer();
-                }
-            }
+            ThrowableRenderer renderer = getRenderer();
             if (renderer == null) {
                 rep = DefaultThrowableRenderer.render(throwable);
             } else {
@@ -90,6 +99,64 @@ public class ThrowableInformation implements java.io.Serializable {
         }
         return (String[]) rep.clone();
     }
+
+    /**
+     * Appends the string representation of the throwable to
+     * <code>out</code>, each line followed by <code>lineSeparator</code>.
+     *
+     * <p>If the representation has not been computed yet and the
+     * renderer is a {@link StreamingThrowableRenderer}, the first call
+     * streams the stack trace straight into <code>out</code>, without
+     * building the array of lines. Any later call, for example from a
+     * second appender, computes the array once and every consumer after
+     * that, including {@link #getThrowableStrRep()}, shares it.
+     *
+     * @param out           destination, may not be null.
+     * @param lineSeparator line separator, may not be null.
+     * @throws IOException if <code>out</code> throws it.
+     * @since 1.2.18
+     */
+    public void appendTo(final Appendable out, final String lineSeparator)
+            throws IOException {
+        StreamingThrowableRenderer streaming = null;
+        String[] lines;
+        synchronized (this) {
+            if (rep == null && throwable != null && !streamed) {
+                ThrowableRenderer renderer = getRenderer();
+                if (renderer == null) {
+                    renderer = DEFAULT_RENDERER;
+                }
+                if (renderer instanceof StreamingThrowableRenderer) {
+                    streaming = (StreamingThrowableRenderer) renderer;
+                    streamed = true;
+                }
+            }
+            if (streaming == null && rep == null) {
+                getThrowableStrRep();
+            }
+            lines = rep;
+        }
+        if (streaming != null) {
+            streaming.render(throwable, out, lineSeparator);
+            return;
+        }
+        for (int i = 0; i < lines.length; i++) {
+            out.append(lines[i]).append(lineSeparator);
+        }
+    }
+
+    /**
+     * Gets the renderer of the repository of the category, if any.
+     */
+    private ThrowableRenderer getRenderer() {
+        if (category != null) {
+            LoggerRepository repo = category.getLoggerRepository();
+            if (repo instanceof ThrowableRendererSupport) {
+                return ((ThrowableRendererSupport) repo).getThrowableRenderer();
+            }
+        }
+        return null;
+    }
 }
 
 
@@ -31,7 +31,8 @@ public interface ThrowableRendererSupport {
     ThrowableRenderer getThrowableRenderer();
 
     /**
-     * Set throwable renderer.
+     * Set throwable renderer. Implementations should close the replaced
+     * renderer if it implements {@link java.io.Closeable}.
      *
      * @param renderer renderer, may be null.
      */
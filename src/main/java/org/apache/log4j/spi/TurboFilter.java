@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.spi;
+
+import org.apache.log4j.Category;
+import org.apache.log4j.Priority;
+
+/**
+ * A filter consulted by the logger repository for every logging
+ * request, before the effective level of the logger is checked and
+ * before a {@link LoggingEvent} is created.
+ *
+ * <p>Turbo filters are organized in a linear chain, like the {@link
+ * Filter filters} of an appender. The {@link #decide decide} method of
+ * each filter is called in the order of their addition to the chain:
+ *
+ * <p><ul>
+ * <li>{@link #DENY} drops the request immediately.
+ *
+ * <li>{@link #ACCEPT} logs the request without consulting the
+ * remaining filters nor the level of the logger. The threshold of the
+ * repository still applies.
+ *
+ * <li>{@link #NEUTRAL} consults the next filter. If there are no more
+ * filters, the level of the logger decides as usual.
+ * </ul>
+ *
+ * <p>Since turbo filters run for every request, including those that
+ * would be discarded anyway, implementations should decide quickly and
+ * without allocating. They are also asked by methods such as {@link
+ * Category#isDebugEnabled}, in which case the message is
+ * <code>null</code>.
+ *
+ * <p>For requests made through {@link org.apache.log4j.LogMF LogMF}
+ * and {@link org.apache.log4j.LogSF LogSF}, the message is the pattern
+ * before formatting, or the resource key for <code>logrb</code>, since
+ * filters run before the parameters are formatted. The entering,
+ * exiting and throwing methods of {@link org.apache.log4j.LogXF LogXF}
+ * pass a <code>null</code> message.
+ *
+ * <p>Turbo filters are configured with <code>log4j.turboFilter.ID</code>
+ * keys in the {@link org.apache.log4j.PropertyConfigurator
+ * PropertyConfigurator} and with <code>turboFilter</code> elements in
+ * the {@link org.apache.log4j.xml.DOMConfigurator DOMConfigurator}.
+ *
+ * @see TurboFilterSupport
+ * @since 1.2.18
+ */
+public abstract class TurboFilter implements OptionHandler {
+
+    /**
+     * The request must be dropped immediately without consulting
+     * with the remaining filters, if any, in the chain.
+     */
+    public static final int DENY = Filter.DENY;
+
+    /**
+     * This filter is neutral with respect to the request. The remaining
+     * filters, if any, or else the level of the logger decide.
+     */
+    public static final int NEUTRAL = Filter.NEUTRAL;
+
+    /**
+     * The request must be logged without consulting with the remaining
+     * filters, if any, in the chain, nor with the level of the logger.
+     */
+    public static final int ACCEPT = Filter.ACCEPT;
+
+    /**
+     * Points to the next filter in the chain.
+     */
+    private volatile TurboFilter next;
+
+    /**
+     * Usually filters options become active when set. We provide a
+     * default do-nothing implementation for convenience.
+     */
+    public void activateOptions() {
+    }
+
+    /**
+     * Decides upon a logging request.
+     *
+     * @param logger  logger of the request.
+     * @param level   level of the request.
+     * @param message message of the request, may be null.
+     * @param t       throwable of the request, may be null.
+     * @return one of {@link #DENY}, {@link #NEUTRAL} or {@link #ACCEPT}.
+     */
+    public abstract int decide(Category logger, Priority level,
+                               Object message, Throwable t);
+
+    /**
+     * Set the next filter pointer.
+     */
+    public void setNext(TurboFilter next) {
+        this.next = next;
+    }
+
+    /**
+     * Return the pointer to the next filter.
+     */
+    public TurboFilter getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.varia;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Category;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.AppenderAttachableImpl;
+import org.apache.log4j.spi.AppenderAttachable;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * An appender that collapses repeated messages before passing events
+ * on to its attached appenders.
+ *
+ * <p>An event is a repeat if an event with the same logger, level and
+ * rendered message was passed on less than <b>Window</b> milliseconds
+ * before, 10000 by default. The first occurrence is passed on at once
+ * and repeats are counted instead. When the window of a message closes
+ * and it was repeated, an event with the same logger and level and the
+ * message "<code>Last message repeated N times: </code><i>message</i>"
+ * is passed on, carrying the thread name, NDC and MDC of the first
+ * occurrence. Windows are closed by a background timer, by later
+ * events and when the appender is closed.
+ *
+ * <p>At most <b>MaxMessages</b> messages, 1024 by default, are
+ * remembered; beyond that the window of the oldest one is closed
+ * early.
+ *
+ * <p>Like {@link org.apache.log4j.AsyncAppender}, this appender is
+ * configured with <code>appender-ref</code> elements of the {@link
+ * org.apache.log4j.xml.DOMConfigurator DOMConfigurator}:
+ * <pre>
+ * &lt;appender name="COLLAPSE" class="org.apache.log4j.varia.CollapsingAppender"&gt;
+ *   &lt;param name="Window" value="30000"/&gt;
+ *   &lt;appender-ref ref="FILE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * @since 1.2.18
+ */
+public class CollapsingAppender extends AppenderSkeleton
+        implements AppenderAttachable {
+
+    private static final String FQCN = CollapsingAppender.class.getName();
+
+    /**
+     * Timer shared by all instances, created on first use.
+     */
+    private static Timer timer;
+
+    private final AppenderAttachableImpl appenders = new AppenderAttachableImpl();
+
+    /**
+     * Messages whose window is open, oldest first. Guarded by this
+     * appender, like {@link #append}.
+     */
+    private final LinkedHashMap recent = new LinkedHashMap();
+
+    private long window = 10000;
+
+    private int maxMessages = 1024;
+
+    private TimerTask sweeper;
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void setMaxMessages(int max) {
+        maxMessages = max;
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    /**
+     * Starts closing windows in the background.
+     */
+    public synchronized void activateOptions() {
+        if (sweeper != null) {
+            sweeper.cancel();
+        }
+        sweeper = new TimerTask() {
+            public void run() {
+                synchronized (CollapsingAppender.this) {
+                    if (!closed) {
+                        closeWindows(System.currentTimeMillis());
+                    }
+                }
+            }
+        };
+        long period = Math.max(window, 100);
+        getTimer().schedule(sweeper, period, period);
+    }
+
+    private static synchronized Timer getTimer() {
+        if (timer == null) {
+            timer = new Timer("CollapsingAppender", true);
+        }
+        return timer;
+    }
+
+    protected void append(final LoggingEvent event) {
+        long now = System.currentTimeMillis();
+        closeWindows(now);
+        Signature signature = new Signature(event);
+        Window open = (Window) recent.get(signature);
+        if (open != null) {
+            open.repeats++;
+            return;
+        }
+        if (recent.size() >= maxMessages) {
+            Iterator i = recent.values().iterator();
+            Window oldest = (Window) i.next();
+            i.remove();
+            oldest.flush();
+        }
+        recent.put(signature, new Window(event, now + window));
+        appenders.appendLoopOnAppenders(event);
+    }
+
+    /**
+     * Removes the messages whose window has closed, passing on their
+     * repeat counts.
+     */
+    private void closeWindows(final long now) {
+        for (Iterator i = recent.values().iterator(); i.hasNext();) {
+            Window w = (Window) i.next();
+            if (w.closesAt > now) {
+                break;
+            }
+            i.remove();
+            w.flush();
+        }
+    }
+
+    /**
+     * Passes on pending repeat counts and closes the attached appenders.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (sweeper != null) {
+                sweeper.cancel();
+                sweeper = null;
+            }
+            closeWindows(Long.MAX_VALUE);
+            closed = true;
+        }
+        synchronized (appenders) {
+            Enumeration iter = appenders.getAllAppenders();
+            if (iter != null) {
+                while (iter.hasMoreElements()) {
+                    Object next = iter.nextElement();
+                    if (next instanceof Appender) {
+                        ((Appender) next).close();
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean requiresLayout() {
+        return false;
+    }
+
+    public void addAppender(final Appender newAppender) {
+        synchronized (appenders) {
+            appenders.addAppender(newAppender);
+        }
+    }
+
+    public Enumeration getAllAppenders() {
+        synchronized (appenders) {
+            return appenders.getAllAppenders();
+        }
+    }
+
+    public Appender getAppender(final String name) {
+        synchronized (appenders) {
+            return appenders.getAppender(name);
+        }
+    }
+
+    public boolean isAttached(final Appender appender) {
+        synchronized (appenders) {
+            return appenders.isAttached(appender);
+        }
+    }
+
+    public void removeAllAppenders() {
+        synchronized (appenders) {
+            appenders.removeAllAppenders();
+        }
+    }
+
+    public void removeAppender(final Appender appender) {
+        synchronized (appenders) {
+            appenders.removeAppender(appender);
+        }
+    }
+
+    public void removeAppender(final String name) {
+        synchronized (appenders) {
+            appenders.removeAppender(name);
+        }
+    }
+
+    /**
+     * Logger, level and rendered message of an event.
+     */
+    private static final class Signature {
+        private final String loggerName;
+        private final int level;
+        private final String message;
+        private final int hash;
+
+        Signature(final LoggingEvent event) {
+            loggerName = event.getLoggerName();
+            level = event.getLevel().toInt();
+            message = event.getRenderedMessage();
+            int h = loggerName == null ? 0 : loggerName.hashCode();
+            h = 31 * h + level;
+            h = 31 * h + (message == null ? 0 : message.hashCode());
+            hash = h;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(final Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return hash == other.hash
+                    && level == other.level
+                    && equal(message, other.message)
+                    && equal(loggerName, other.loggerName);
+        }
+
+        private static boolean equal(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * Open window of a message.
+     */
+    private final class Window {
+        final LoggingEvent first;
+        final long closesAt;
+        int repeats;
+
+        Window(final LoggingEvent first, final long closesAt) {
+            this.first = first;
+            this.closesAt = closesAt;
+            // the summary may be sent from the timer thread
+            first.getThreadName();
+            first.getNDC();
+            first.getMDCCopy();
+        }
+
+        /**
+         * Passes on the repeat count, with the logger, thread, NDC and MDC
+         * of the first event.
+         */
+        void flush() {
+            if (repeats > 0) {
+                Category logger = first.getLogger();
+                if (logger == null) {
+                    logger = Logger.getLogger(first.getLoggerName());
+                }
+                appenders.appendLoopOnAppenders(new LoggingEvent(
+                        FQCN,
+                        logger,
+                        System.currentTimeMillis(),
+                        first.getLevel(),
+                        "Last message repeated " + repeats + " times: "
+                                + first.getRenderedMessage(),
+                        first.getThreadName(),
+                        null,
+                        first.getNDC(),
+                        LocationInfo.NA_LOCATION_INFO,
+                        first.getProperties()));
+            }
+        }
+    }
+}
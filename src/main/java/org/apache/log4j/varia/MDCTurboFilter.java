@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.varia;
+
+import org.apache.log4j.Category;
+import org.apache.log4j.MDC;
+import org.apache.log4j.Priority;
+import org.apache.log4j.spi.TurboFilter;
+
+/**
+ * A turbo filter that matches logging requests made while the
+ * {@link MDC} of the calling thread holds a given value.
+ *
+ * <p>The filter admits three options <b>Key</b>, <b>Value</b> and
+ * <b>AcceptOnMatch</b>. A request matches if the MDC holds
+ * <b>Key</b> and, when <b>Value</b> is set, if the string value
+ * stored for <b>Key</b> equals <b>Value</b>. On a match the {@link
+ * #decide} method returns {@link TurboFilter#ACCEPT} in case the
+ * <b>AcceptOnMatch</b> option value is set to <code>true</code>, if it
+ * is <code>false</code> then {@link TurboFilter#DENY} is returned. If
+ * there is no match, {@link TurboFilter#NEUTRAL} is returned.
+ *
+ * <p>For example, the following configuration suppresses all requests
+ * made while the MDC key <code>health-check</code> is set:
+ * <pre>
+ * log4j.turboFilter.1=org.apache.log4j.varia.MDCTurboFilter
+ * log4j.turboFilter.1.Key=health-check
+ * log4j.turboFilter.1.AcceptOnMatch=false
+ * </pre>
+ *
+ * @since 1.2.18
+ */
+public class MDCTurboFilter extends TurboFilter {
+
+    /**
+     * Do we return ACCEPT when a match occurs. Default is
+     * <code>true</code>.
+     */
+    boolean acceptOnMatch = true;
+
+    String key;
+
+    String value;
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setAcceptOnMatch(boolean acceptOnMatch) {
+        this.acceptOnMatch = acceptOnMatch;
+    }
+
+    public boolean getAcceptOnMatch() {
+        return acceptOnMatch;
+    }
+
+    /**
+     * Return the decision of this filter.
+     * <p>
+     * Returns {@link TurboFilter#NEUTRAL} if the <b>Key</b> option is
+     * not set or if there is no match. Otherwise the returned decision
+     * is {@link TurboFilter#ACCEPT} if the <b>AcceptOnMatch</b> property
+     * is set to <code>true</code> and {@link TurboFilter#DENY} if it is
+     * set to false.
+     */
+    public int decide(Category logger, Priority level, Object message, Throwable t) {
+        if (key == null) {
+            return TurboFilter.NEUTRAL;
+        }
+        Object current = MDC.get(key);
+        if (current == null
+                || (value != null && !value.equals(current.toString()))) {
+            return TurboFilter.NEUTRAL;
+        }
+        if (acceptOnMatch) {
+            return TurboFilter.ACCEPT;
+        } else {
+            return TurboFilter.DENY;
+        }
+    }
+}
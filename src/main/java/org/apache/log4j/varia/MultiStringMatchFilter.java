@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.varia;
+
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A filter matching the message of the {@link LoggingEvent} against
+ * many strings at once.
+ *
+ * <p>All strings are compiled into a single Aho-Corasick automaton, so
+ * the message is rendered once and scanned in one pass however many
+ * strings are configured. This filter therefore replaces a chain of
+ * {@link StringMatchFilter}s.
+ *
+ * <p>The filter admits the following options:
+ * <dl>
+ * <dt><b>StringsToMatch</b></dt>
+ * <dd>strings to match, separated by <code>|</code>.</dd>
+ * <dt><b>PatternFile</b></dt>
+ * <dd>UTF-8 file holding one string per line, in addition to
+ * <b>StringsToMatch</b>. Empty lines and lines starting with
+ * <code>#</code> are ignored. The file is read again when its
+ * modification time changes, checked at most once every
+ * <b>ReloadDelay</b> milliseconds, 60000 by default, or never if
+ * <b>ReloadDelay</b> is zero. If it cannot be read, the patterns
+ * already loaded stay in effect and reading is retried.</dd>
+ * <dt><b>AcceptOnMatch</b></dt>
+ * <dd>decision for strings without a prefix, <code>true</code> by
+ * default.</dd>
+ * <dt><b>CaseInsensitive</b></dt>
+ * <dd>whether letter case is ignored, <code>false</code> by default.</dd>
+ * </dl>
+ *
+ * <p>A string prefixed by <code>+</code> always accepts a matching
+ * event and one prefixed by <code>-</code> always denies it. A leading
+ * <code>\</code> is dropped, so that <code>\+x</code> matches
+ * "<code>+x</code>". When several strings occur in the message, the one
+ * ending first decides; among strings ending at the same position the
+ * one configured first decides. If no string matches, {@link
+ * Filter#NEUTRAL} is returned.
+ *
+ * <p>For example:
+ * <pre>
+ * log4j.appender.A1.filter.1=org.apache.log4j.varia.MultiStringMatchFilter
+ * log4j.appender.A1.filter.1.StringsToMatch=Connection reset|-Broken pipe|+FATAL DB
+ * log4j.appender.A1.filter.1.AcceptOnMatch=false
+ * log4j.appender.A1.filter.1.PatternFile=conf/noise.txt
+ * </pre>
+ *
+ * @since 1.2.18
+ */
+public class MultiStringMatchFilter extends Filter {
+
+    boolean acceptOnMatch = true;
+    boolean caseInsensitive;
+    String stringsToMatch;
+    String patternFile;
+    long reloadDelay = 60000;
+
+    /**
+     * Current automaton, replaced on reload.
+     */
+    private volatile Automaton automaton;
+
+    /**
+     * Modification time of the pattern file when it was last read.
+     */
+    private long fileModified;
+
+    /**
+     * Time after which the pattern file is checked for changes.
+     */
+    private volatile long nextCheck = Long.MAX_VALUE;
+
+    public void setStringsToMatch(String s) {
+        stringsToMatch = s;
+    }
+
+    public String getStringsToMatch() {
+        return stringsToMatch;
+    }
+
+    public void setPatternFile(String file) {
+        patternFile = file;
+    }
+
+    public String getPatternFile() {
+        return patternFile;
+    }
+
+    public void setReloadDelay(long delay) {
+        reloadDelay = delay;
+    }
+
+    public long getReloadDelay() {
+        return reloadDelay;
+    }
+
+    public void setAcceptOnMatch(boolean acceptOnMatch) {
+        this.acceptOnMatch = acceptOnMatch;
+    }
+
+    public boolean getAcceptOnMatch() {
+        return acceptOnMatch;
+    }
+
+    public void setCaseInsensitive(boolean caseInsensitive) {
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    public boolean getCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * Compiles the configured strings.
+     */
+    public void activateOptions() {
+        synchronized (this) {
+            fileModified = 0;
+            reload(false);
+        }
+    }
+
+    /**
+     * Returns {@link Filter#NEUTRAL} is there is no string match.
+     */
+    public int decide(LoggingEvent event) {
+        if (System.currentTimeMillis() >= nextCheck) {
+            checkPatternFile();
+        }
+        Automaton a = automaton;
+        if (a == null) {
+            return Filter.NEUTRAL;
+        }
+        String msg = event.getRenderedMessage();
+        if (msg == null) {
+            return Filter.NEUTRAL;
+        }
+        return a.match(msg);
+    }
+
+    private void checkPatternFile() {
+        synchronized (this) {
+            if (System.currentTimeMillis() >= nextCheck) {
+                File file = new File(patternFile);
+                if (file.lastModified() != fileModified) {
+                    LogLog.debug("Reloading patterns from [" + patternFile + "].");
+                    reload(true);
+                } else {
+                    scheduleCheck();
+                }
+            }
+        }
+    }
+
+    private void scheduleCheck() {
+        if (patternFile != null && reloadDelay > 0) {
+            nextCheck = System.currentTimeMillis() + reloadDelay;
+        } else {
+            nextCheck = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Reads the patterns and swaps in a new automaton. Must hold the
+     * lock of this filter.
+     *
+     * @param keepOnFailure if true and the pattern file cannot be read,
+     *                      the current automaton is kept and the file is
+     *                      read again at the next check.
+     */
+    private void reload(boolean keepOnFailure) {
+        List needles = new ArrayList();
+        List decisions = new ArrayList();
+        if (stringsToMatch != null) {
+            String[] parts = stringsToMatch.split("\\|");
+            for (int i = 0; i < parts.length; i++) {
+                addPattern(parts[i], needles, decisions);
+            }
+        }
+        if (patternFile != null) {
+            File file = new File(patternFile);
+            long modified = file.lastModified();
+            try {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), "UTF-8"));
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.startsWith("#")) {
+                            addPattern(line, needles, decisions);
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+                fileModified = modified;
+            } catch (IOException ex) {
+                LogLog.error("Could not read patterns from [" + patternFile + "].", ex);
+                if (keepOnFailure) {
+                    scheduleCheck();
+                    return;
+                }
+            }
+        }
+        int[] d = new int[decisions.size()];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = ((Integer) decisions.get(i)).intValue();
+        }
+        if (needles.isEmpty()) {
+            automaton = null;
+        } else {
+            automaton = new Automaton(
+                    (String[]) needles.toArray(new String[needles.size()]), d, caseInsensitive);
+        }
+        scheduleCheck();
+    }
+
+    private void addPattern(String pattern, List needles, List decisions) {
+        if (pattern.length() == 0) {
+            return;
+        }
+        int decision = acceptOnMatch ? Filter.ACCEPT : Filter.DENY;
+        char first = pattern.charAt(0);
+        if (first == '+') {
+            decision = Filter.ACCEPT;
+            pattern = pattern.substring(1);
+        } else if (first == '-') {
+            decision = Filter.DENY;
+            pattern = pattern.substring(1);
+        } else if (first == '\\') {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.length() != 0) {
+            needles.add(pattern);
+            decisions.add(new Integer(decision));
+        }
+    }
+
+    /**
+     * Immutable Aho-Corasick automaton. State 0 is the root; the children
+     * of each state are kept sorted by character for binary search.
+     */
+    static final class Automaton {
+        private final boolean caseInsensitive;
+        private final char[][] keys;
+        private final int[][] children;
+        private final int[] fail;
+        /**
+         * Decision of the first configured string ending in each state,
+         * following failure links, or NEUTRAL.
+         */
+        private final int[] output;
+
+        Automaton(String[] needles, int[] decisions, boolean caseInsensitive) {
+            this.caseInsensitive = caseInsensitive;
+            int capacity = 1;
+            for (int i = 0; i < needles.length; i++) {
+                capacity += needles[i].length();
+            }
+            char[][] k = new char[capacity][];
+            int[][] c = new int[capacity][];
+            int[] firstPattern = new int[capacity];
+            Arrays.fill(firstPattern, Integer.MAX_VALUE);
+            int count = 1;
+            k[0] = new char[0];
+            c[0] = new int[0];
+
+            //  build the trie
+            for (int p = 0; p < needles.length; p++) {
+                int state = 0;
+                String needle = needles[p];
+                for (int i = 0; i < needle.length(); i++) {
+                    char ch = fold(needle.charAt(i));
+                    int pos = Arrays.binarySearch(k[state], ch);
+                    if (pos >= 0) {
+                        state = c[state][pos];
+                    } else {
+                        pos = -pos - 1;
+                        k[state] = insert(k[state], pos, ch);
+                        c[state] = insert(c[state], pos, count);
+                        k[count] = new char[0];
+                        c[count] = new int[0];
+                        state = count++;
+                    }
+                }
+                if (p < firstPattern[state]) {
+                    firstPattern[state] = p;
+                }
+            }
+
+            //  failure links and outputs, breadth first
+            keys = k;
+            children = c;
+            fail = new int[count];
+            output = new int[count];
+            int[] queue = new int[count];
+            int head = 0;
+            int tail = 0;
+            for (int i = 0; i < c[0].length; i++) {
+                queue[tail++] = c[0][i];
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                int[] next = c[state];
+                for (int i = 0; i < next.length; i++) {
+                    int child = next[i];
+                    int f = fail[state];
+                    int target;
+                    while ((target = transition(f, k[state][i])) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = target < 0 ? 0 : target;
+                    if (firstPattern[fail[child]] < firstPattern[child]) {
+                        firstPattern[child] = firstPattern[fail[child]];
+                    }
+                    queue[tail++] = child;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                output[i] = firstPattern[i] == Integer.MAX_VALUE
+                        ? Filter.NEUTRAL : decisions[firstPattern[i]];
+            }
+        }
+
+        private char fold(char ch) {
+            return caseInsensitive ? Character.toLowerCase(Character.toUpperCase(ch)) : ch;
+        }
+
+        private int transition(int state, char ch) {
+            int pos = Arrays.binarySearch(keys[state], ch);
+            return pos >= 0 ? children[state][pos] : -1;
+        }
+
+        /**
+         * Scans <code>text</code> until the first string ends.
+         *
+         * @return decision of the first match, NEUTRAL if none.
+         */
+        int match(String text) {
+            int state = 0;
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char ch = fold(text.charAt(i));
+                int next;
+                while ((next = transition(state, ch)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = next < 0 ? 0 : next;
+                if (output[state] != Filter.NEUTRAL) {
+                    return output[state];
+                }
+            }
+            return Filter.NEUTRAL;
+        }
+
+        private static char[] insert(char[] array, int pos, char value) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, pos);
+            result[pos] = value;
+            System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+            return result;
+        }
+
+        private static int[] insert(int[] array, int pos, int value) {
+            int[] result = new int[array.length + 1];
+            System.arraycopy(array, 0, result, 0, pos);
+            result[pos] = value;
+            System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+            return result;
+        }
+    }
+}
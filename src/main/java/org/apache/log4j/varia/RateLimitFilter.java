@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.varia;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.BoundedCache;
+import org.apache.log4j.helpers.OptionConverter;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A filter limiting the rate of logging events with token buckets.
+ *
+ * <p>Events are grouped by logger name, by logger name prefix or by the
+ * value of an MDC key, and each group gets its own bucket holding up to
+ * <b>Burst</b> tokens that refill at <b>Rate</b> tokens per second. An
+ * event that finds a token in its bucket takes it and the filter returns
+ * {@link Filter#NEUTRAL}; otherwise the event is dropped with {@link
+ * Filter#DENY}. Buckets are updated with compare-and-set, without
+ * locking.
+ *
+ * <p>The filter admits the following options:
+ * <dl>
+ * <dt><b>Rate</b></dt>
+ * <dd>events per second allowed in each group, 10 by default.</dd>
+ * <dt><b>Burst</b></dt>
+ * <dd>events allowed at once after a quiet period, <b>Rate</b> by
+ * default.</dd>
+ * <dt><b>Scope</b></dt>
+ * <dd><code>logger</code> (default), <code>prefix</code> to group by
+ * the first <b>PrefixDepth</b> segments of the logger name, 2 by
+ * default, or <code>mdc</code> to group by the value of
+ * <b>MDCKey</b>.</dd>
+ * <dt><b>Threshold</b></dt>
+ * <dd>events at or above this level are never limited, ERROR by
+ * default.</dd>
+ * <dt><b>MaxGroups</b></dt>
+ * <dd>groups tracked individually, 1024 by default. When a new group
+ * arrives while this many are tracked, groups whose bucket is full and
+ * that have nothing to report are forgotten; if none is, the new group
+ * shares a single bucket with other such groups.</dd>
+ * <dt><b>SummaryInterval</b></dt>
+ * <dd>milliseconds between summaries, 60000 by default, 0 to disable.
+ * After each interval in which events were dropped, the next event
+ * passing the filter triggers a WARN event to the logger named by
+ * <b>SummaryLogger</b>, the name of this class by default, reporting
+ * how many events were dropped per group. The summary is logged from
+ * a separate thread, since the filter is called while appender locks
+ * are held.</dd>
+ * </dl>
+ *
+ * <p>For example:
+ * <pre>
+ * log4j.appender.A1.filter.1=org.apache.log4j.varia.RateLimitFilter
+ * log4j.appender.A1.filter.1.Rate=50
+ * log4j.appender.A1.filter.1.Burst=200
+ * log4j.appender.A1.filter.1.Scope=prefix
+ * </pre>
+ *
+ * @since 1.2.18
+ */
+public class RateLimitFilter extends Filter {
+
+    private static final String OTHER_GROUP = "(other)";
+
+    /**
+     * Most groups listed in a summary.
+     */
+    private static final int SUMMARY_GROUPS = 10;
+
+    double rate = 10;
+    double burst = -1;
+    String scope = "logger";
+    int prefixDepth = 2;
+    String mdcKey;
+    Level threshold = Level.ERROR;
+    int maxGroups = 1024;
+    long summaryInterval = 60000;
+    String summaryLogger = RateLimitFilter.class.getName();
+
+    /**
+     * Nanoseconds between two tokens.
+     */
+    private long interval;
+
+    /**
+     * Nanoseconds of tokens a full bucket holds beyond the current one.
+     */
+    private long tolerance;
+
+    private int scopeType;
+
+    private ConcurrentHashMap buckets = new ConcurrentHashMap();
+
+    private final BoundedCache prefixes = new BoundedCache(1024);
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private final AtomicLong nextSummary = new AtomicLong();
+
+    /**
+     * Set while a summary thread is running.
+     */
+    private final AtomicBoolean summaryRunning = new AtomicBoolean();
+
+    /**
+     * Earliest time, in nanoseconds, of the next search for buckets to
+     * evict.
+     */
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    /**
+     * Set while this thread logs a summary, so that the summary itself
+     * is let through.
+     */
+    private final ThreadLocal summarizing = new ThreadLocal();
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setBurst(double burst) {
+        this.burst = burst;
+    }
+
+    public double getBurst() {
+        return burst < 0 ? rate : burst;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setPrefixDepth(int depth) {
+        prefixDepth = depth;
+    }
+
+    public int getPrefixDepth() {
+        return prefixDepth;
+    }
+
+    public void setMDCKey(String key) {
+        mdcKey = key;
+    }
+
+    public String getMDCKey() {
+        return mdcKey;
+    }
+
+    public void setThreshold(String level) {
+        threshold = OptionConverter.toLevel(level, null);
+    }
+
+    public String getThreshold() {
+        return threshold == null ? null : threshold.toString();
+    }
+
+    public void setMaxGroups(int max) {
+        maxGroups = max;
+    }
+
+    public int getMaxGroups() {
+        return maxGroups;
+    }
+
+    public void setSummaryInterval(long interval) {
+        summaryInterval = interval;
+    }
+
+    public long getSummaryInterval() {
+        return summaryInterval;
+    }
+
+    public void setSummaryLogger(String name) {
+        summaryLogger = name;
+    }
+
+    public String getSummaryLogger() {
+        return summaryLogger;
+    }
+
+    /**
+     * Gets the number of events dropped since the filter was activated.
+     *
+     * @return number of dropped events.
+     */
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    /**
+     * Applies the options and empties all buckets.
+     */
+    public void activateOptions() {
+        double r = rate > 0 ? rate : 1;
+        double b = getBurst() >= 1 ? getBurst() : 1;
+        interval = (long) (1000000000L / r);
+        tolerance = (long) (interval * (b - 1));
+        if ("prefix".equalsIgnoreCase(scope)) {
+            scopeType = 1;
+        } else if ("mdc".equalsIgnoreCase(scope) && mdcKey != null) {
+            scopeType = 2;
+        } else {
+            scopeType = 0;
+        }
+        buckets = new ConcurrentHashMap();
+        nextSummary.set(System.currentTimeMillis() + summaryInterval);
+        nextSweep.set(System.nanoTime());
+    }
+
+    public int decide(LoggingEvent event) {
+        if (summarizing.get() != null) {
+            return Filter.NEUTRAL;
+        }
+        if (threshold != null && event.getLevel().isGreaterOrEqual(threshold)) {
+            return Filter.NEUTRAL;
+        }
+        Bucket bucket = getBucket(groupOf(event));
+        if (bucket.tryAcquire(System.nanoTime(), interval, tolerance)) {
+            if (summaryInterval > 0 && suppressed.get() != 0) {
+                long due = nextSummary.get();
+                long now = System.currentTimeMillis();
+                if (now >= due && nextSummary.compareAndSet(due, now + summaryInterval)) {
+                    startSummary();
+                }
+            }
+            return Filter.NEUTRAL;
+        }
+        bucket.suppressed.incrementAndGet();
+        suppressed.incrementAndGet();
+        return Filter.DENY;
+    }
+
+    private String groupOf(LoggingEvent event) {
+        switch (scopeType) {
+            case 1:
+                String name = event.getLoggerName();
+                String prefix = (String) prefixes.get(name);
+                if (prefix == null) {
+                    prefix = prefixOf(name);
+                    prefixes.put(name, prefix);
+                }
+                return prefix;
+            case 2:
+                Object value = event.getMDC(mdcKey);
+                return value == null ? "" : value.toString();
+            default:
+                return event.getLoggerName();
+        }
+    }
+
+    private String prefixOf(String name) {
+        int end = -1;
+        for (int i = 0; i < prefixDepth; i++) {
+            end = name.indexOf('.', end + 1);
+            if (end < 0) {
+                return name;
+            }
+        }
+        return name.substring(0, end);
+    }
+
+    private Bucket getBucket(String group) {
+        ConcurrentHashMap map = buckets;
+        Bucket bucket = (Bucket) map.get(group);
+        if (bucket == null) {
+            if (map.size() >= maxGroups && !evictIdle(map)) {
+                group = OTHER_GROUP;
+                bucket = (Bucket) map.get(group);
+            }
+            if (bucket == null) {
+                Bucket created = new Bucket(System.nanoTime() - tolerance);
+                bucket = (Bucket) map.putIfAbsent(group, created);
+                if (bucket == null) {
+                    bucket = created;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Forgets the groups whose bucket is full and has no dropped events
+     * to report. A forgotten group gets a new full bucket when it comes
+     * back, which is what it had. Searches are at least as far apart as
+     * the time an empty bucket takes to fill up, and at least 100 ms.
+     *
+     * @return true if a group was forgotten.
+     */
+    private boolean evictIdle(ConcurrentHashMap map) {
+        long now = System.nanoTime();
+        long due = nextSweep.get();
+        long spacing = Math.max(interval + tolerance, 100000000L);
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + spacing)) {
+            return false;
+        }
+        boolean evicted = false;
+        for (Iterator i = map.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry) i.next();
+            Bucket bucket = (Bucket) entry.getValue();
+            if (!OTHER_GROUP.equals(entry.getKey()) && bucket.isIdle(now)) {
+                evicted |= map.remove(entry.getKey(), bucket);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Logs a summary from a new thread unless one is already running.
+     * Logging from decide would call appenders while the lock of the
+     * appender being filtered is held, and lock the summary logger after
+     * the loggers of the current event, the reverse of the usual order.
+     */
+    private void startSummary() {
+        if (!summaryRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread("RateLimitFilter-summary") {
+            public void run() {
+                try {
+                    summarize();
+                } finally {
+                    summaryRunning.set(false);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Logs the number of events dropped per group since the last
+     * summary.
+     */
+    private void summarize() {
+        StringBuilder buf = new StringBuilder();
+        long total = 0;
+        int listed = 0;
+        for (Iterator i = buckets.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry) i.next();
+            long count = ((Bucket) entry.getValue()).suppressed.getAndSet(0);
+            if (count != 0) {
+                total += count;
+                if (listed++ < SUMMARY_GROUPS) {
+                    buf.append(listed == 1 ? ": " : ", ");
+                    buf.append(entry.getKey()).append('=').append(count);
+                }
+            }
+        }
+        if (listed > SUMMARY_GROUPS) {
+            buf.append(", ...");
+        }
+        if (total == 0) {
+            return;
+        }
+        buf.insert(0, " events" + (scopeType == 0 ? "" : " by " + scope));
+        buf.insert(0, "Rate limit dropped " + total);
+        summarizing.set(Boolean.TRUE);
+        try {
+            Logger.getLogger(summaryLogger).warn(buf.toString());
+        } finally {
+            summarizing.set(null);
+        }
+    }
+
+    /**
+     * Token bucket kept as the time at which it will be full again,
+     * following the generic cell rate algorithm.
+     */
+    private static final class Bucket {
+        private final AtomicLong fullAt;
+        final AtomicLong suppressed = new AtomicLong();
+
+        Bucket(long fullAt) {
+            this.fullAt = new AtomicLong(fullAt);
+        }
+
+        /**
+         * Returns true if the bucket is full and has no dropped events
+         * to report.
+         */
+        boolean isIdle(long now) {
+            return fullAt.get() - now <= 0 && suppressed.get() == 0;
+        }
+
+        boolean tryAcquire(long now, long interval, long tolerance) {
+            while (true) {
+                long current = fullAt.get();
+                long base = current > now ? current : now;
+                if (base - now > tolerance) {
+                    return false;
+                }
+                if (fullAt.compareAndSet(current, base + interval)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.varia;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A filter keeping a sample of low level events.
+ *
+ * <p>Events at or below <b>LevelMax</b>, DEBUG by default, are sampled;
+ * other events are left to the remaining filters. A sampled-in event
+ * gets {@link Filter#NEUTRAL} and a sampled-out event gets {@link
+ * Filter#DENY}. The message is never rendered.
+ *
+ * <p>The sample is set by one of two options:
+ * <dl>
+ * <dt><b>Every</b></dt>
+ * <dd>keep one event out of N.</dd>
+ * <dt><b>Fraction</b></dt>
+ * <dd>keep this fraction of events, between 0 and 1.</dd>
+ * </dl>
+ *
+ * <p>If <b>MDCKey</b> is set, for example to a request id, the decision
+ * is derived from a hash of the MDC value, so that all events sharing
+ * the value are kept or dropped together, in every process. Events
+ * without the key, or all events if <b>MDCKey</b> is not set, are
+ * sampled individually: with <b>Every</b>, by counting the events of
+ * each logger, and with <b>Fraction</b>, at random.
+ *
+ * <p>For example, to keep the debug output of one request in a hundred:
+ * <pre>
+ * log4j.appender.A1.filter.1=org.apache.log4j.varia.SamplingFilter
+ * log4j.appender.A1.filter.1.Every=100
+ * log4j.appender.A1.filter.1.MDCKey=requestId
+ * </pre>
+ *
+ * @since 1.2.18
+ */
+public class SamplingFilter extends Filter {
+
+    Level levelMax = Level.DEBUG;
+    int every = 0;
+    double fraction = 1;
+    String mdcKey;
+
+    /**
+     * Event counters per logger name, for <b>Every</b> without key.
+     * Never cleared: loggers live as long as their repository, and
+     * resetting a counter would keep the next event of that logger.
+     */
+    private final ConcurrentHashMap counters = new ConcurrentHashMap();
+
+    private final AtomicLong sampledIn = new AtomicLong();
+
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    /**
+     * Set the <code>LevelMax</code> option.
+     */
+    public void setLevelMax(Level levelMax) {
+        this.levelMax = levelMax;
+    }
+
+    /**
+     * Get the value of the <code>LevelMax</code> option.
+     */
+    public Level getLevelMax() {
+        return levelMax;
+    }
+
+    public void setEvery(int every) {
+        this.every = every;
+    }
+
+    public int getEvery() {
+        return every;
+    }
+
+    public void setFraction(double fraction) {
+        this.fraction = fraction;
+    }
+
+    public double getFraction() {
+        return fraction;
+    }
+
+    public void setMDCKey(String key) {
+        mdcKey = key;
+    }
+
+    public String getMDCKey() {
+        return mdcKey;
+    }
+
+    /**
+     * Gets the number of sampled events that were kept.
+     *
+     * @return number of events kept.
+     */
+    public long getSampledInCount() {
+        return sampledIn.get();
+    }
+
+    /**
+     * Gets the number of sampled events that were dropped.
+     *
+     * @return number of events dropped.
+     */
+    public long getSampledOutCount() {
+        return sampledOut.get();
+    }
+
+    public int decide(LoggingEvent event) {
+        if (levelMax != null && !levelMax.isGreaterOrEqual(event.getLevel())) {
+            return Filter.NEUTRAL;
+        }
+        Object value = mdcKey == null ? null : event.getMDC(mdcKey);
+        boolean keep;
+        if (value != null) {
+            keep = keepKey(mix(value.toString().hashCode()));
+        } else if (every > 0) {
+            keep = nextCount(event.getLoggerName()) % every == 0;
+        } else {
+            keep = fraction >= 1
+                    || (fraction > 0 && ThreadLocalRandom.current().nextDouble() < fraction);
+        }
+        if (keep) {
+            sampledIn.incrementAndGet();
+            return Filter.NEUTRAL;
+        }
+        sampledOut.incrementAndGet();
+        return Filter.DENY;
+    }
+
+    private boolean keepKey(long hash) {
+        if (every > 0) {
+            return (hash >>> 1) % every == 0;
+        }
+        // top 53 bits as a uniform double in [0, 1)
+        return (hash >>> 11) * 0x1.0p-53 < fraction;
+    }
+
+    private long nextCount(String loggerName) {
+        if (loggerName == null) {
+            loggerName = "";
+        }
+        AtomicLong counter = (AtomicLong) counters.get(loggerName);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = (AtomicLong) counters.putIfAbsent(loggerName, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter.getAndIncrement();
+    }
+
+    /**
+     * Spreads the bits of a string hash code, see the finalizer of
+     * MurmurHash3.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -37,6 +37,8 @@ import org.apache.log4j.spi.LoggerRepository;
 import org.apache.log4j.spi.RendererSupport;
 import org.apache.log4j.spi.ThrowableRenderer;
 import org.apache.log4j.spi.ThrowableRendererSupport;
+import org.apache.log4j.spi.TurboFilter;
+import org.apache.log4j.spi.TurboFilterSupport;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
@@ -93,6 +95,7 @@ public class DOMConfigurator implements Configurator {
     static final String OLD_CONFIGURATION_TAG = "configuration";
     static final String RENDERER_TAG = "renderer";
     private static final String THROWABLE_RENDERER_TAG = "throwableRenderer";
+    private static final String TURBO_FILTER_TAG = "turboFilter";
     static final String APPENDER_TAG = "appender";
     static final String APPENDER_REF_TAG = "appender-ref";
     static final String PARAM_TAG = "param";
@@ -378,6 +381,40 @@ public class DOMConfigurator implements Configurator {
         }
     }
 
+    /**
+     * Used internally to parse a turboFilter element.
+     *
+     * @param element turboFilter element.
+     * @return configured turbo filter, null on error.
+     * @since 1.2.18
+     */
+    protected TurboFilter parseTurboFilter(final Element element) {
+        String clazz = subst(element.getAttribute(CLASS_ATTR));
+        TurboFilter filter = (TurboFilter) OptionConverter.instantiateByClassName(clazz,
+                TurboFilter.class, null);
+
+        if (filter != null) {
+            PropertySetter propSetter = new PropertySetter(filter);
+            NodeList children = element.getChildNodes();
+            final int length = children.getLength();
+
+            for (int loop = 0; loop < length; loop++) {
+                Node currentNode = children.item(loop);
+                if (currentNode.getNodeType() == Node.ELEMENT_NODE) {
+                    Element currentElement = (Element) currentNode;
+                    String tagName = currentElement.getTagName();
+                    if (tagName.equals(PARAM_TAG)) {
+                        setParameter(currentElement, propSetter);
+                    } else {
+                        quietParseUnrecognizedElement(filter, currentElement, props);
+                    }
+                }
+            }
+            propSetter.activate();
+        }
+        return filter;
+    }
+
     /**
      * Used internally to parse an category element.
      */
@@ -965,6 +1002,7 @@ public class DOMConfigurator implements Configurator {
             }
         }
 
+        boolean turboFiltersCleared = false;
         for (int loop = 0; loop < length; loop++) {
             currentNode = children.item(loop);
             if (currentNode.getNodeType() == Node.ELEMENT_NODE) {
@@ -984,6 +1022,19 @@ public class DOMConfigurator implements Configurator {
                             ((ThrowableRendererSupport) repository).setThrowableRenderer(tr);
                         }
                     }
+                } else if (tagName.equals(TURBO_FILTER_TAG)) {
+                    if (repository instanceof TurboFilterSupport) {
+                        TurboFilter filter = parseTurboFilter(currentElement);
+                        if (filter != null) {
+                            if (!turboFiltersCleared) {
+                                // replace the filters of a previous configuration
+                                ((TurboFilterSupport) repository).clearTurboFilters();
+                                turboFiltersCleared = true;
+                            }
+                            LogLog.debug("Adding turbo filter of type [" + filter.getClass() + "].");
+                            ((TurboFilterSupport) repository).addTurboFilter(filter);
+                        }
+                    }
                 } else if (!(tagName.equals(APPENDER_TAG)
                         || tagName.equals(CATEGORY_FACTORY_TAG)
                         || tagName.equals(LOGGER_FACTORY_TAG))) {
@@ -20,7 +20,9 @@
 package org.apache.log4j.xml;
 
 import org.apache.log4j.Layout;
+import org.apache.log4j.helpers.ByteSink;
 import org.apache.log4j.helpers.Transform;
+import org.apache.log4j.spi.ByteLayout;
 import org.apache.log4j.spi.LocationInfo;
 import org.apache.log4j.spi.LoggingEvent;
 
@@ -65,7 +67,7 @@ import java.util.Arrays;
  * @author Ceki  G&uuml;lc&uuml;
  * @since 0.9.0
  */
-public class XMLLayout extends Layout {
+public class XMLLayout extends Layout implements ByteLayout {
 
     private final int DEFAULT_SIZE = 256;
     private final int UPPER_LIMIT = 2048;
@@ -127,6 +129,20 @@ public class XMLLayout extends Layout {
      * Formats a {@link org.apache.log4j.spi.LoggingEvent} in conformance with the log4j.dtd.
      */
     public String format(final LoggingEvent event) {
+        return formatBuffer(event).toString();
+    }
+
+    /**
+     * Encodes a {@link org.apache.log4j.spi.LoggingEvent} in conformance with
+     * the log4j.dtd directly into <code>sink</code>.
+     *
+     * @since 1.2.18
+     */
+    public void format(final LoggingEvent event, final ByteSink sink) {
+        sink.append(formatBuffer(event));
+    }
+
+    private StringBuffer formatBuffer(final LoggingEvent event) {
 
         // Reset working buffer. If the buffer is too large, then we need a new
         // one in order to avoid the penalty of creating a large array.
@@ -207,7 +223,7 @@ public class XMLLayout extends Layout {
 
         buf.append("</log4j:event>\r\n\r\n");
 
-        return buf.toString();
+        return buf;
     }
 
     /**
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.log4j.performance;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.CompiledPatternConverter;
+import org.apache.log4j.helpers.PatternConverter;
+import org.apache.log4j.helpers.PatternParser;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Measures the cost of formatting an event with the converter chain
+ * built by {@link PatternParser} against the same chain compiled by
+ * {@link CompiledPatternConverter}.
+ *
+ * <p>Usage: <b>java org.apache.log4j.performance.CompiledPatternVsChain
+ * [pattern] [runLength]</b>
+ *
+ * <p>The default pattern is <code>%d %-5p [%t] %c{1} - %m%n</code> and
+ * the default run length is 1000000. Each measurement is the average
+ * time in nanoseconds to format one event into a reused StringBuilder.
+ */
+public class CompiledPatternVsChain {
+
+    static final String DEFAULT_PATTERN = "%d %-5p [%t] %c{1} - %m%n";
+
+    static int runLength = 1000000;
+
+    static
+    public void main(String[] args) {
+        String pattern = DEFAULT_PATTERN;
+        if (args.length > 0) {
+            pattern = args[0];
+        }
+        if (args.length > 1) {
+            runLength = Integer.parseInt(args[1]);
+        }
+
+        Logger logger = Logger.getLogger("org.apache.log4j.performance.CompiledPatternVsChain");
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger,
+                Level.INFO, "Message of average length for the benchmark.", null);
+
+        PatternConverter chain = new PatternParser(pattern).parse();
+        PatternConverter compiled = CompiledPatternConverter.compile(chain);
+
+        System.out.println("Pattern: " + pattern);
+        for (int i = 0; i < 5; i++) {
+            double chainTime = chain(chain, event);
+            double compiledTime = compiled(compiled, event);
+            System.out.println("chain: " + chainTime + " ns, compiled: "
+                    + compiledTime + " ns");
+        }
+    }
+
+    static double chain(PatternConverter head, LoggingEvent event) {
+        StringBuilder sbuf = new StringBuilder(256);
+        long before = System.nanoTime();
+        for (int i = 0; i < runLength; i++) {
+            sbuf.setLength(0);
+            for (PatternConverter c = head; c != null; c = c.next) {
+                c.format(sbuf, event);
+            }
+        }
+        return (System.nanoTime() - before) / (double) runLength;
+    }
+
+    static double compiled(PatternConverter compiled, LoggingEvent event) {
+        StringBuilder sbuf = new StringBuilder(256);
+        long before = System.nanoTime();
+        for (int i = 0; i < runLength; i++) {
+            sbuf.setLength(0);
+            compiled.format(sbuf, event);
+        }
+        return (System.nanoTime() - before) / (double) runLength;
+    }
+}